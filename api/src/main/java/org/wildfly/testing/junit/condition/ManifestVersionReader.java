@@ -0,0 +1,299 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.condition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Reads the {@code Implementation-Version} from the manifest of a JAR without opening a {@link JarFile}. The
+ * end-of-central-directory record is used to locate the central directory, which is then scanned only until the
+ * {@code META-INF/MANIFEST.MF} entry is found. Only the manifest entry itself is read and inflated.
+ * <p>
+ * ZIP64 archives, and archives which cannot be read this way, fall back to using a {@link JarFile}. Results are cached
+ * per path and are invalidated when the modification time or size of the JAR changes.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+final class ManifestVersionReader {
+    private static final Logger LOGGER = Logger.getLogger(ManifestVersionReader.class);
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xffff;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_LENGTH = 46;
+    private static final int CEN_WINDOW = 8192;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int LOC_LENGTH = 30;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final byte[] MANIFEST_NAME = JarFile.MANIFEST_NAME.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VERSION_ATTRIBUTE = (Attributes.Name.IMPLEMENTATION_VERSION + ":")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final Map<Path, CachedVersion> CACHE = new ConcurrentHashMap<>();
+
+    private ManifestVersionReader() {
+    }
+
+    /**
+     * Reads the {@code Implementation-Version} from the main section of the JAR's manifest.
+     *
+     * @param jar the path to the JAR
+     *
+     * @return the version or {@code null} if the JAR does not have a manifest or the manifest does not define a version
+     *
+     * @throws IOException if an error occurs reading the JAR
+     */
+    static String readImplementationVersion(final Path jar) throws IOException {
+        final Path key = jar.toAbsolutePath().normalize();
+        final long lastModified = Files.getLastModifiedTime(key).toMillis();
+        final long size = Files.size(key);
+        final CachedVersion cached = CACHE.get(key);
+        if (cached != null && cached.lastModified() == lastModified && cached.size() == size) {
+            return cached.version();
+        }
+        final String version = read(key);
+        CACHE.put(key, new CachedVersion(lastModified, size, version));
+        return version;
+    }
+
+    private static String read(final Path jar) throws IOException {
+        try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+            final byte[] manifest = readManifest(channel);
+            if (manifest != null) {
+                return findVersion(manifest);
+            }
+        } catch (ZipFormatException e) {
+            LOGGER.debugf("Falling back to a JarFile to read the manifest of %s: %s", jar, e.getMessage());
+            try (JarFile jarFile = new JarFile(jar.toFile())) {
+                final Manifest manifest = jarFile.getManifest();
+                return manifest == null ? null
+                        : manifest.getMainAttributes().getValue(Attributes.Name.IMPLEMENTATION_VERSION);
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readManifest(final FileChannel channel) throws IOException {
+        final long fileSize = channel.size();
+        if (fileSize < EOCD_LENGTH) {
+            throw new ZipFormatException("file is too small");
+        }
+        // The end-of-central-directory record is at the end of the file followed by an optional comment
+        final int tailLength = (int) Math.min(fileSize, EOCD_LENGTH + MAX_COMMENT_LENGTH);
+        final ByteBuffer tail = read(channel, fileSize - tailLength, tailLength);
+        int eocd = -1;
+        for (int i = tailLength - EOCD_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new ZipFormatException("end-of-central-directory record not found");
+        }
+        final int entries = Short.toUnsignedInt(tail.getShort(eocd + 10));
+        final long cenSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        final long cenOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        if (entries == 0xffff || cenSize == 0xffffffffL || cenOffset == 0xffffffffL) {
+            throw new ZipFormatException("ZIP64 archive");
+        }
+        if (cenOffset + cenSize > fileSize) {
+            throw new ZipFormatException("invalid central directory offset");
+        }
+        // The manifest is generally one of the first entries, read the central directory in small windows rather than
+        // reading, or mapping which locks the file on Windows, the whole central directory
+        final long cenEnd = cenOffset + cenSize;
+        ByteBuffer cen = null;
+        long windowStart = cenOffset;
+        long position = cenOffset;
+        for (int i = 0; i < entries; i++) {
+            if (cen == null || position + CEN_LENGTH > windowStart + cen.limit()) {
+                windowStart = position;
+                cen = read(channel, windowStart, (int) Math.min(CEN_WINDOW, cenEnd - windowStart));
+            }
+            int offset = (int) (position - windowStart);
+            if (offset + CEN_LENGTH > cen.limit() || cen.getInt(offset) != CEN_SIGNATURE) {
+                throw new ZipFormatException("invalid central directory entry");
+            }
+            final int nameLength = Short.toUnsignedInt(cen.getShort(offset + 28));
+            final int entryLength = CEN_LENGTH + nameLength + Short.toUnsignedInt(cen.getShort(offset + 30))
+                    + Short.toUnsignedInt(cen.getShort(offset + 32));
+            if (offset + CEN_LENGTH + nameLength > cen.limit()) {
+                // The name does not fit in the current window
+                windowStart = position;
+                cen = read(channel, windowStart, (int) Math.min(Math.max(CEN_WINDOW, entryLength), cenEnd - windowStart));
+                offset = 0;
+                if (CEN_LENGTH + nameLength > cen.limit()) {
+                    throw new ZipFormatException("invalid central directory entry");
+                }
+            }
+            if (isManifest(cen, offset + CEN_LENGTH, nameLength)) {
+                final int method = Short.toUnsignedInt(cen.getShort(offset + 10));
+                final long compressedSize = Integer.toUnsignedLong(cen.getInt(offset + 20));
+                final long uncompressedSize = Integer.toUnsignedLong(cen.getInt(offset + 24));
+                final long localOffset = Integer.toUnsignedLong(cen.getInt(offset + 42));
+                return readEntry(channel, method, compressedSize, uncompressedSize, localOffset);
+            }
+            position += entryLength;
+        }
+        return null;
+    }
+
+    private static byte[] readEntry(final FileChannel channel, final int method, final long compressedSize,
+            final long uncompressedSize, final long localOffset) throws IOException {
+        if (compressedSize > Integer.MAX_VALUE || uncompressedSize > Integer.MAX_VALUE) {
+            throw new ZipFormatException("manifest is too large");
+        }
+        final ByteBuffer local = read(channel, localOffset, LOC_LENGTH);
+        if (local.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipFormatException("invalid local file header");
+        }
+        // The local header may have a different extra field length than the central directory
+        final long dataOffset = localOffset + LOC_LENGTH + Short.toUnsignedInt(local.getShort(26))
+                + Short.toUnsignedInt(local.getShort(28));
+        final ByteBuffer data = read(channel, dataOffset, (int) compressedSize);
+        if (method == STORED) {
+            return data.array();
+        }
+        if (method != DEFLATED) {
+            throw new ZipFormatException("unsupported compression method " + method);
+        }
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data.array());
+            final byte[] result = new byte[(int) uncompressedSize];
+            int length = 0;
+            while (length < result.length && !inflater.finished()) {
+                final int inflated = inflater.inflate(result, length, result.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != result.length) {
+                throw new ZipFormatException("truncated manifest entry");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new ZipFormatException("invalid manifest entry: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String findVersion(final byte[] manifest) {
+        int lineStart = 0;
+        while (lineStart < manifest.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < manifest.length && manifest[lineEnd] != '\r' && manifest[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == lineStart) {
+                // An empty line ends the main section
+                return null;
+            }
+            final boolean found = regionMatches(manifest, lineStart, lineEnd - lineStart, VERSION_ATTRIBUTE);
+            final StringBuilder value = found
+                    ? new StringBuilder(new String(manifest, lineStart + VERSION_ATTRIBUTE.length,
+                            lineEnd - lineStart - VERSION_ATTRIBUTE.length, StandardCharsets.UTF_8))
+                    : null;
+            lineStart = nextLine(manifest, lineEnd);
+            // Continuation lines start with a single space
+            while (lineStart < manifest.length && manifest[lineStart] == ' ') {
+                lineEnd = lineStart;
+                while (lineEnd < manifest.length && manifest[lineEnd] != '\r' && manifest[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                if (value != null) {
+                    value.append(new String(manifest, lineStart + 1, lineEnd - lineStart - 1, StandardCharsets.UTF_8));
+                }
+                lineStart = nextLine(manifest, lineEnd);
+            }
+            if (value != null) {
+                return value.toString().trim();
+            }
+        }
+        return null;
+    }
+
+    private static int nextLine(final byte[] manifest, final int lineEnd) {
+        if (lineEnd < manifest.length && manifest[lineEnd] == '\r') {
+            if (lineEnd + 1 < manifest.length && manifest[lineEnd + 1] == '\n') {
+                return lineEnd + 2;
+            }
+            return lineEnd + 1;
+        }
+        return lineEnd + 1;
+    }
+
+    private static boolean isManifest(final ByteBuffer cen, final int offset, final int length) {
+        if (length != MANIFEST_NAME.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (toLowerCase(cen.get(offset + i)) != toLowerCase(MANIFEST_NAME[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(final byte[] bytes, final int offset, final int length, final byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (toLowerCase(bytes[offset + i]) != toLowerCase(prefix[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toLowerCase(final byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final long position, final int length)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ZipFormatException("unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private record CachedVersion(long lastModified, long size, String version) {
+    }
+
+    private static class ZipFormatException extends IOException {
+        ZipFormatException(final String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.condition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.platform.commons.JUnitException;
+
+/**
+ * Describes a module resolved from a {@code module.xml} file.
+ *
+ * @param path          the path to the {@code module.xml} file
+ * @param name          the name of the module
+ * @param version       the version of the module or an empty string if the version could not be determined
+ * @param resourceRoots the resource root JARs whose manifest was read to determine the version, which is empty if the
+ *                          version was determined from an artifact
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+record ModuleDefinition(Path path, String name, String version, List<Path> resourceRoots) {
+
+    ModuleDefinition {
+        resourceRoots = List.copyOf(resourceRoots);
+    }
+
+    // Factories are thread-safe once configured, create them once rather than for each module
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    /**
+     * Parses the {@code module.xml} file and resolves the name and version of the module. The file is streamed and
+     * reading stops once the first {@code artifact}, or the first {@code resource-root} which defines a version, has
+     * been found in the {@code resources} element.
+     *
+     * @param moduleXmlFile the module file to parse
+     *
+     * @return the module definition
+     *
+     * @throws IOException if an error occurs reading the file
+     */
+    static ModuleDefinition parse(final Path moduleXmlFile) throws IOException {
+        String name = null;
+        String version = "";
+        final List<Path> resourceRoots = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(moduleXmlFile)) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                // The depth of the current element where the root module element is 1
+                int depth = 0;
+                boolean inResources = false;
+                boolean resourcesProcessed = false;
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (inResources && depth == 2) {
+                            // Use only the first resources, which there should only be one of
+                            inResources = false;
+                            resourcesProcessed = true;
+                        }
+                        depth--;
+                        continue;
+                    }
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    depth++;
+                    final String localName = reader.getLocalName();
+                    if (depth == 1) {
+                        name = reader.getAttributeValue(null, "name");
+                        if (name == null) {
+                            throw new JUnitException("Malformed module.xml: missing 'name' attribute in " + moduleXmlFile);
+                        }
+                    } else if (depth == 2 && !resourcesProcessed && localName.equals("resources")) {
+                        inResources = true;
+                    } else if (depth == 3 && inResources) {
+                        if (localName.equals("artifact")) {
+                            // Use the Maven GAV where the third entry should be the version
+                            final var artifactName = reader.getAttributeValue(null, "name");
+                            if (artifactName == null) {
+                                throw new JUnitException(
+                                        "Malformed module.xml: 'artifact' element missing 'name' attribute in "
+                                                + moduleXmlFile);
+                            }
+                            final var gav = artifactName.split(":");
+                            if (gav.length > 2) {
+                                version = sanitizeVersion(gav[2]);
+                            }
+                            break;
+                        } else if (localName.equals("resource-root")) {
+                            final String path = reader.getAttributeValue(null, "path");
+                            if (path == null) {
+                                throw new JUnitException(
+                                        "Malformed module.xml: 'resource-root' element missing 'path' attribute in "
+                                                + moduleXmlFile);
+                            }
+                            final Path parent = moduleXmlFile.getParent();
+                            final Path jar = parent == null ? Path.of(path) : parent.resolve(path);
+                            // Use the first resource root which defines a version
+                            resourceRoots.add(jar);
+                            version = sanitizeVersion(ManifestVersionReader.readImplementationVersion(jar));
+                            if (!version.isBlank()) {
+                                break;
+                            }
+                        }
+                    } else if (resourcesProcessed) {
+                        // Nothing after the resources is required
+                        break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse module XML file " + moduleXmlFile, e);
+        }
+        if (name == null) {
+            throw new JUnitException("Malformed module.xml: missing 'name' attribute in " + moduleXmlFile);
+        }
+        return new ModuleDefinition(moduleXmlFile, name, version, resourceRoots);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static String sanitizeVersion(final String version) {
+        if (version == null) {
+            return "";
+        }
+        // Skip the "-redhat" for our purposes
+        final int end = version.indexOf("-redhat");
+        if (end > 0) {
+            return version.substring(0, end);
+        }
+        return version;
+    }
+}
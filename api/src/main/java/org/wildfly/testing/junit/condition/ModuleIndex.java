@@ -0,0 +1,482 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.condition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * An index of the modules found on a module path. Modules are resolved the same way JBoss Modules resolves them at
+ * runtime. For each root of the module path, the {@code <root>/<name>/<slot>/module.xml} file is checked first. Next
+ * each layer, in the order defined in the {@code layers.conf} followed by the {@code base} layer, is checked. Finally,
+ * each add-on is checked. The first {@code module.xml} found is used, which means each lookup is a handful of file
+ * checks rather than a scan of the module directories. The index is shared, via the root
+ * {@link ExtensionContext.Store}, for the launcher session.
+ * <p>
+ * As with JBoss Modules, a directory of the module path which does not exist is skipped. Only if none of the
+ * directories exist does creating the index fail.
+ * </p>
+ * <p>
+ * The {@code module.xml} files themselves are only parsed when a module is first looked up.
+ * </p>
+ * <p>
+ * If an {@linkplain Support#resolveModuleIndexFile(ExtensionContext) index file} is configured, the parsed module
+ * definitions are loaded from the file when the file was written for the same module path. A persisted definition is
+ * only used if the modification time of the {@code module.xml} has not changed. If the version was read from the
+ * manifest of a resource root, the modification time and size of the resource root must not have changed either, as a
+ * JAR may be replaced without changing the {@code module.xml}. When the launcher session is closed, the definitions are
+ * written back to the file if new modules were parsed. Definitions of {@code module.xml} files which no longer exist
+ * are not written.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class ModuleIndex implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ModuleIndex.class);
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create("WildFly.Modules");
+    private static final String INDEX_KEY = "wildfly.module.index";
+
+    // "WFMI" and the version of the file format
+    private static final int MAGIC = 0x57464d49;
+    private static final int FORMAT_VERSION = 3;
+
+    private final List<Path> modulePath;
+    private final String location;
+    private final Path indexFile;
+    private final List<Path> searchRoots;
+    private final Map<String, Optional<Path>> modules;
+    private final Map<Path, PersistedDefinition> persisted;
+    private final Map<Path, ModuleDefinition> definitions;
+    private final Map<ModuleRequirement, ModuleRequirement.Outcome> outcomes;
+    private final AtomicBoolean dirty;
+
+    private ModuleIndex(final List<Path> modulePath, final Path indexFile, final List<Path> searchRoots,
+            final Map<Path, PersistedDefinition> persisted) {
+        this.modulePath = modulePath;
+        this.location = toString(modulePath);
+        this.indexFile = indexFile;
+        this.searchRoots = searchRoots;
+        this.modules = new ConcurrentHashMap<>();
+        this.persisted = persisted;
+        this.definitions = new ConcurrentHashMap<>();
+        this.outcomes = new ConcurrentHashMap<>();
+        this.dirty = new AtomicBoolean(false);
+    }
+
+    /**
+     * Resolves the index for the module path. If an index already exists in the launcher session for a different
+     * module path, it is replaced with a new index.
+     *
+     * @param context    the extension context used to find the launcher session store
+     * @param modulePath the module path to index
+     * @param indexFile  the file the index may be loaded from and written to or {@code null} to not persist the index
+     *
+     * @return the index for the module path
+     *
+     * @throws IOException if none of the directories of the module path exist or an error occurs reading the layer
+     *                         configuration
+     */
+    static ModuleIndex resolve(final ExtensionContext context, final List<Path> modulePath, final Path indexFile)
+            throws IOException {
+        final ExtensionContext.Store store = context.getRoot()
+                .getStore(ExtensionContext.StoreScope.LAUNCHER_SESSION, NAMESPACE);
+        try {
+            final ModuleIndex index = store.computeIfAbsent(INDEX_KEY, (key) -> create(modulePath, indexFile),
+                    ModuleIndex.class);
+            if (index.modulePath.equals(modulePath)) {
+                return index;
+            }
+            // The module path has changed, replace the current index and write it if required
+            final ModuleIndex newIndex = create(modulePath, indexFile);
+            final ModuleIndex oldIndex = store.remove(INDEX_KEY, ModuleIndex.class);
+            store.put(INDEX_KEY, newIndex);
+            if (oldIndex != null) {
+                oldIndex.close();
+            }
+            return newIndex;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Opens an index for the module path which is not shared.
+     *
+     * @param modulePath the module path to index
+     * @param indexFile  the file the index may be loaded from or {@code null} to not load a persisted index
+     *
+     * @return the index for the module path
+     *
+     * @throws IOException if none of the directories of the module path exist or an error occurs reading the layer
+     *                         configuration
+     */
+    static ModuleIndex open(final List<Path> modulePath, final Path indexFile) throws IOException {
+        try {
+            return create(modulePath, indexFile);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Finds the module definition for the module name and slot.
+     *
+     * @param name the name of the module
+     * @param slot the slot for the module
+     *
+     * @return the module definition or an empty optional if the module was not found
+     *
+     * @throws IOException if an error occurs parsing the {@code module.xml} file
+     */
+    Optional<ModuleDefinition> find(final String name, final String slot) throws IOException {
+        final Optional<Path> moduleXml = modules.computeIfAbsent(name + ':' + slot, (key) -> lookup(name, slot));
+        if (moduleXml.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(definitions.computeIfAbsent(moduleXml.get(), (path) -> {
+                try {
+                    final long lastModified = Files.getLastModifiedTime(path).toMillis();
+                    final PersistedDefinition persistedDefinition = persisted.get(path);
+                    if (persistedDefinition != null && persistedDefinition.isCurrent(lastModified)) {
+                        return persistedDefinition.definition();
+                    }
+                    final ModuleDefinition definition = ModuleDefinition.parse(path);
+                    final List<FileStamp> resourceRoots = new ArrayList<>();
+                    for (Path resourceRoot : definition.resourceRoots()) {
+                        resourceRoots.add(FileStamp.of(resourceRoot));
+                    }
+                    persisted.put(path, new PersistedDefinition(lastModified, definition, resourceRoots));
+                    dirty.set(true);
+                    return definition;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Evaluates the requirement against this index. The outcome is memoized for the lifetime of the index, so each
+     * distinct requirement is only evaluated once.
+     *
+     * @param requirement the requirement to evaluate
+     *
+     * @return the outcome of the evaluation
+     *
+     * @throws IOException if an error occurs parsing the {@code module.xml} file
+     */
+    ModuleRequirement.Outcome evaluate(final ModuleRequirement requirement) throws IOException {
+        final ModuleRequirement.Outcome outcome = outcomes.get(requirement);
+        if (outcome != null) {
+            return outcome;
+        }
+        try {
+            return outcomes.computeIfAbsent(requirement, (r) -> {
+                try {
+                    return r.evaluate(this);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the module path this index is for, as a string separated by the
+     * {@linkplain File#pathSeparator path separator}.
+     *
+     * @return the module path
+     */
+    String location() {
+        return location;
+    }
+
+    @Override
+    public void close() {
+        if (indexFile == null || !dirty.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            write();
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Failed to write the module index file %s", indexFile);
+        }
+    }
+
+    private Optional<Path> lookup(final String name, final String slot) {
+        final String relativePath = name.replace('.', File.separatorChar) + File.separatorChar + slot
+                + File.separatorChar + "module.xml";
+        for (Path root : searchRoots) {
+            final Path moduleXml = root.resolve(relativePath);
+            if (Files.isRegularFile(moduleXml)) {
+                return Optional.of(moduleXml);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static ModuleIndex create(final List<Path> modulePath, final Path indexFile) {
+        try {
+            final List<Path> searchRoots = searchRoots(modulePath);
+            Map<Path, PersistedDefinition> persisted = null;
+            if (indexFile != null && Files.isRegularFile(indexFile)) {
+                persisted = load(modulePath, indexFile);
+            }
+            return new ModuleIndex(modulePath, indexFile, searchRoots,
+                    persisted == null ? new ConcurrentHashMap<>() : persisted);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Resolves the directories to search for modules in the same order JBoss Modules does. For each root, the root
+     * itself, followed by the layers and then the add-ons. Roots which do not exist are skipped.
+     */
+    private static List<Path> searchRoots(final List<Path> modulePath) throws IOException {
+        final List<Path> result = new ArrayList<>();
+        for (Path root : modulePath) {
+            if (!Files.isDirectory(root)) {
+                LOGGER.debugf("Skipping module directory %s which does not exist", root);
+                continue;
+            }
+            result.add(root);
+            final Path layersDir = root.resolve("system").resolve("layers");
+            for (String layer : readLayers(root)) {
+                final Path dir = layersDir.resolve(layer);
+                if (Files.isDirectory(dir)) {
+                    result.add(dir);
+                }
+            }
+            final Path addOnsDir = root.resolve("system").resolve("add-ons");
+            if (Files.isDirectory(addOnsDir)) {
+                final List<Path> addOns = new ArrayList<>();
+                try (DirectoryStream<Path> dirs = Files.newDirectoryStream(addOnsDir, Files::isDirectory)) {
+                    dirs.forEach(addOns::add);
+                }
+                addOns.sort(null);
+                result.addAll(addOns);
+            }
+        }
+        // Without any module directory, a module cannot be missing, so the tests are enabled by default
+        if (result.isEmpty()) {
+            throw new NoSuchFileException(toString(modulePath), null, "None of the module directories exist");
+        }
+        return List.copyOf(result);
+    }
+
+    private static List<String> readLayers(final Path root) throws IOException {
+        final List<String> layers = new ArrayList<>();
+        final Path layersConf = root.resolve("layers.conf");
+        if (Files.isRegularFile(layersConf)) {
+            final Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(layersConf, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            final String value = properties.getProperty("layers");
+            if (value != null) {
+                for (String layer : value.split(",")) {
+                    if (!layer.isBlank()) {
+                        layers.add(layer.trim());
+                    }
+                }
+            }
+        }
+        // The base layer is always the last layer
+        if (!layers.contains("base")) {
+            layers.add("base");
+        }
+        return layers;
+    }
+
+    private static Map<Path, PersistedDefinition> load(final List<Path> modulePath, final Path indexFile) {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                LOGGER.debugf("Ignoring module index file %s with an unknown format", indexFile);
+                return null;
+            }
+            if (!toAbsoluteString(modulePath).equals(readString(buffer))) {
+                LOGGER.debugf("Ignoring module index file %s written for a different module path", indexFile);
+                return null;
+            }
+            final int count = buffer.getInt();
+            final Map<Path, PersistedDefinition> persisted = new ConcurrentHashMap<>();
+            for (int i = 0; i < count; i++) {
+                final Path moduleXml = Path.of(readString(buffer));
+                final long lastModified = buffer.getLong();
+                final String name = readString(buffer);
+                final String version = readString(buffer);
+                final int resourceRootCount = buffer.getInt();
+                if (resourceRootCount < 0) {
+                    throw new IllegalArgumentException("Invalid resource root count " + resourceRootCount);
+                }
+                final List<FileStamp> resourceRoots = new ArrayList<>(resourceRootCount);
+                for (int j = 0; j < resourceRootCount; j++) {
+                    resourceRoots.add(new FileStamp(Path.of(readString(buffer)), buffer.getLong(), buffer.getLong()));
+                }
+                persisted.put(moduleXml, new PersistedDefinition(lastModified, new ModuleDefinition(moduleXml, name,
+                        version, resourceRoots.stream().map(FileStamp::path).toList()), resourceRoots));
+            }
+            LOGGER.debugf("Loaded %d module definitions for %s from index file %s", (Object) count, modulePath,
+                    indexFile);
+            return persisted;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.debugf(e, "Failed to read module index file %s", indexFile);
+            return null;
+        }
+    }
+
+    private void write() throws IOException {
+        final List<byte[]> strings = new ArrayList<>();
+        // Module definitions which no longer exist are dropped, so the index does not grow forever
+        final List<PersistedDefinition> entries = persisted.values().stream()
+                .filter(entry -> Files.isRegularFile(entry.definition().path()))
+                .toList();
+        final byte[] path = toAbsoluteString(modulePath).getBytes(StandardCharsets.UTF_8);
+        int size = Integer.BYTES * 4 + path.length;
+        for (PersistedDefinition entry : entries) {
+            size += addString(strings, entry.definition().path().toString());
+            size += Long.BYTES;
+            size += addString(strings, entry.definition().name());
+            size += addString(strings, entry.definition().version());
+            size += Integer.BYTES;
+            for (FileStamp resourceRoot : entry.resourceRoots()) {
+                size += addString(strings, resourceRoot.path().toString());
+                size += Long.BYTES * 2;
+            }
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(path.length)
+                .put(path)
+                .putInt(entries.size());
+        int index = 0;
+        for (PersistedDefinition entry : entries) {
+            putString(buffer, strings.get(index++));
+            buffer.putLong(entry.lastModified());
+            putString(buffer, strings.get(index++));
+            putString(buffer, strings.get(index++));
+            buffer.putInt(entry.resourceRoots().size());
+            for (FileStamp resourceRoot : entry.resourceRoots()) {
+                putString(buffer, strings.get(index++));
+                buffer.putLong(resourceRoot.lastModified())
+                        .putLong(resourceRoot.size());
+            }
+        }
+        buffer.flip();
+        final Path parent = indexFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // Write to a temporary file first so concurrent forks never read a partially written index
+        final Path tempFile = Files.createTempFile(parent, "wildfly-module-index", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static int addString(final List<byte[]> strings, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strings.add(bytes);
+        return Integer.BYTES + bytes.length;
+    }
+
+    private static void putString(final ByteBuffer buffer, final byte[] value) {
+        buffer.putInt(value.length).put(value);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int len = buffer.getInt();
+        if (len < 0 || len > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + len);
+        }
+        final byte[] bytes = new byte[len];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String toString(final List<Path> modulePath) {
+        return modulePath.stream()
+                .map(Path::toString)
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static String toAbsoluteString(final List<Path> modulePath) {
+        return modulePath.stream()
+                .map((p) -> p.toAbsolutePath().toString())
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private record PersistedDefinition(long lastModified, ModuleDefinition definition, List<FileStamp> resourceRoots) {
+
+        /**
+         * Checks whether neither the {@code module.xml} nor the resource roots the version was read from have changed.
+         */
+        boolean isCurrent(final long moduleXmlLastModified) throws IOException {
+            if (lastModified != moduleXmlLastModified) {
+                return false;
+            }
+            for (FileStamp resourceRoot : resourceRoots) {
+                if (!resourceRoot.equals(FileStamp.of(resourceRoot.path()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The modification time and size of a file, both {@code -1} if the file does not exist.
+     */
+    private record FileStamp(Path path, long lastModified, long size) {
+
+        static FileStamp of(final Path path) throws IOException {
+            try {
+                return new FileStamp(path, Files.getLastModifiedTime(path).toMillis(), Files.size(path));
+            } catch (NoSuchFileException e) {
+                return new FileStamp(path, -1L, -1L);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.condition;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.wildfly.plugin.tools.VersionComparator;
+import org.wildfly.testing.junit.annotation.RequiresModule;
+
+/**
+ * The identity of a {@link RequiresModule} requirement. Only the values which affect the outcome of the evaluation are
+ * part of the requirement, which allows the outcome to be shared by every annotation with the same module, slot and
+ * minimum version.
+ *
+ * @param name       the name of the module
+ * @param slot       the slot of the module
+ * @param minVersion the minimum version required or an empty string if any version is allowed
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+record ModuleRequirement(String name, String slot, String minVersion) {
+
+    /**
+     * Creates the requirement for the annotation.
+     *
+     * @param requiresModule the annotation
+     *
+     * @return the requirement
+     */
+    static ModuleRequirement of(final RequiresModule requiresModule) {
+        return new ModuleRequirement(requiresModule.value(), requiresModule.slot(), requiresModule.minVersion());
+    }
+
+    /**
+     * Evaluates the requirement against the module index.
+     *
+     * @param index the index of the module directory
+     *
+     * @return the outcome of the evaluation
+     *
+     * @throws IOException if an error occurs parsing the module
+     */
+    Outcome evaluate(final ModuleIndex index) throws IOException {
+        final Optional<ModuleDefinition> moduleDefinition = index.find(name, slot);
+        if (moduleDefinition.isPresent()) {
+            final var def = moduleDefinition.get();
+            if (minVersion.isBlank()) {
+                if (name.equals(def.name())) {
+                    return Outcome.enabled("Module %s found in %s. Enabling test.".formatted(name, def.path()), true);
+                }
+                return Outcome.disabled("Module %s not found in %s. Disabling test.".formatted(name, index.location()));
+            }
+            return checkVersion(def);
+        }
+        return Outcome.disabled("Module %s not found in %s. Disabling test.".formatted(name, index.location()));
+    }
+
+    private Outcome checkVersion(final ModuleDefinition moduleDefinition) {
+        // Resolve the version from the module.xml file
+        final String version = moduleDefinition.version();
+        // Likely indicates the version could not be resolved.
+        if (version.isBlank()) {
+            return Outcome.enabled("Could not determine version of module %s".formatted(moduleDefinition.path()), false);
+        }
+        if (version.equals(minVersion) || VersionComparator.compareVersion(true, version, minVersion) >= 0) {
+            return Outcome.enabled("Found version %s and required a minimum of version %s. Enabling tests.".formatted(
+                    version, minVersion), false);
+        }
+        return Outcome.disabled(
+                "Found version %s and required a minimum of version %s. Disabling test.".formatted(version, minVersion));
+    }
+
+    /**
+     * The outcome of evaluating a requirement. The outcome does not include the {@linkplain RequiresModule#issueRef()
+     * issue reference} or {@linkplain RequiresModule#reason() reason} of the annotation, these are added when the
+     * outcome is {@linkplain #toResult(RequiresModule) converted} to a result.
+     *
+     * @param result    the result without the annotation specific details
+     * @param qualified {@code true} if the issue reference and reason of the annotation should be added to the result
+     */
+    record Outcome(ConditionEvaluationResult result, boolean qualified) {
+
+        static Outcome enabled(final String reason, final boolean qualified) {
+            return new Outcome(ConditionEvaluationResult.enabled(reason), qualified);
+        }
+
+        static Outcome disabled(final String reason) {
+            return new Outcome(ConditionEvaluationResult.disabled(reason), true);
+        }
+
+        /**
+         * Converts the outcome to the result for the annotation.
+         *
+         * @param requiresModule the annotation the result is for
+         *
+         * @return the result
+         */
+        ConditionEvaluationResult toResult(final RequiresModule requiresModule) {
+            if (!qualified || (requiresModule.issueRef().isBlank() && requiresModule.reason().isBlank())) {
+                return result;
+            }
+            String msg = result.getReason().orElse("");
+            if (!requiresModule.issueRef().isBlank()) {
+                msg = requiresModule.issueRef() + ": " + msg;
+            }
+            if (!requiresModule.reason().isBlank()) {
+                msg = msg + " Reason: " + requiresModule.reason();
+            }
+            return result.isDisabled() ? ConditionEvaluationResult.disabled(msg)
+                    : ConditionEvaluationResult.enabled(msg);
+        }
+    }
+}
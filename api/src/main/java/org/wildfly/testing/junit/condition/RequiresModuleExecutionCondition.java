@@ -5,33 +5,21 @@
 
 package org.wildfly.testing.junit.condition;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
+import java.lang.reflect.AnnotatedElement;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
-import java.util.jar.Attributes;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
 import java.util.stream.Stream;
 
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
 import org.jboss.logging.Logger;
 import org.junit.jupiter.api.extension.ConditionEvaluationResult;
 import org.junit.jupiter.api.extension.ExecutionCondition;
 import org.junit.jupiter.api.extension.ExtensionContext;
-import org.junit.platform.commons.JUnitException;
 import org.junit.platform.commons.support.AnnotationSupport;
-import org.wildfly.plugin.tools.VersionComparator;
 import org.wildfly.testing.junit.annotation.AnyOf;
 import org.wildfly.testing.junit.annotation.RequiresModule;
-import org.xml.sax.SAXException;
 
 /**
  * Evaluates conditions that a module exists with the minimum version, if defined.
@@ -40,6 +28,8 @@ import org.xml.sax.SAXException;
  */
 public class RequiresModuleExecutionCondition implements ExecutionCondition {
     private static final Logger LOGGER = Logger.getLogger(RequiresModuleExecutionCondition.class);
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+            .create(RequiresModuleExecutionCondition.class);
 
     // Default enabled condition
     private static final ConditionEvaluationResult ENABLED = ConditionEvaluationResult
@@ -50,10 +40,26 @@ public class RequiresModuleExecutionCondition implements ExecutionCondition {
 
     @Override
     public ConditionEvaluationResult evaluateExecutionCondition(final ExtensionContext context) {
-        final var annotatedElement = context.getElement();
+        // The configuration parameters cannot change during the execution, so the module path is only resolved once
+        final ResolvedModulePath modulePath = context.getRoot().getStore(NAMESPACE)
+                .computeIfAbsent(ResolvedModulePath.class.getName(), (key) -> new ResolvedModulePath(context.getRoot()),
+                        ResolvedModulePath.class);
+        return evaluate(context.getElement(), modulePath.modulePath, modulePath);
+    }
 
+    /**
+     * Evaluates the {@link AnyOf} and {@link RequiresModule} annotations on the element.
+     *
+     * @param annotatedElement the element to check the annotations on
+     * @param modulePath       the module directories or an empty list if the directories could not be resolved
+     * @param indexResolver    the resolver for the index of the module directory
+     *
+     * @return the result of the evaluation
+     */
+    static ConditionEvaluationResult evaluate(final Optional<? extends AnnotatedElement> annotatedElement,
+            final List<Path> modulePath, final ModuleIndexResolver indexResolver) {
         final Function<RequiresModule, ConditionEvaluationResult> mapper = (requiresModule -> {
-            final var result = checkModule(context, requiresModule);
+            final var result = checkModule(modulePath, indexResolver, requiresModule);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debugf("Condition of %s on %s result in an evaluation of: %s", requiresModule, annotatedElement, result);
             }
@@ -75,181 +81,79 @@ public class RequiresModuleExecutionCondition implements ExecutionCondition {
                         .orElse(ENABLED));
     }
 
-    private ConditionEvaluationResult checkModule(final ExtensionContext context, final RequiresModule requiresModule) {
-        // First check for the module.path, if not set use the JBoss Home resolution
-        final Path moduleDir = resolveModulesDir(context);
+    private static ConditionEvaluationResult checkModule(final List<Path> modulePath,
+            final ModuleIndexResolver indexResolver, final RequiresModule requiresModule) {
         // Not set, do not disable the test
-        if (moduleDir == null) {
+        if (modulePath.isEmpty()) {
             return ConditionEvaluationResult.enabled("The module directory could not be resolved.");
         }
 
         try {
-            // Get the module XML file.
-            final Optional<ModuleDefinition> moduleDefinition = findModuleXml(moduleDir,
-                    moduleToPath(requiresModule.value(), requiresModule.slot()));
-            if (moduleDefinition.isPresent()) {
-                if (requiresModule.minVersion().isBlank()) {
-                    final var def = moduleDefinition.get();
-                    if (requiresModule.value().equals(def.name)) {
-                        return ConditionEvaluationResult
-                                .enabled(formatReason(requiresModule, "Module %s found in %s. Enabling test.",
-                                        requiresModule.value(), def.path));
-                    } else {
-                        return ConditionEvaluationResult
-                                .disabled(
-                                        formatReason(requiresModule, "Module %s not found in %s. Disabling test.",
-                                                requiresModule.value(),
-                                                moduleDir));
-                    }
-                }
-                return checkVersion(requiresModule, moduleDefinition.get());
-            }
+            return indexResolver.resolve()
+                    .evaluate(ModuleRequirement.of(requiresModule))
+                    .toResult(requiresModule);
         } catch (IOException e) {
             return ConditionEvaluationResult
                     .enabled("Could not find module " + requiresModule.value() + ". Enabling by default. Reason: "
                             + e.getMessage());
         }
-        return ConditionEvaluationResult
-                .disabled(
-                        formatReason(requiresModule, "Module %s not found in %s. Disabling test.", requiresModule.value(),
-                                moduleDir));
     }
 
-    private ConditionEvaluationResult checkVersion(final RequiresModule requiresModule,
-            final ModuleDefinition moduleDefinition) {
-        // Resolve the version from the module.xml file
-        final String version = moduleDefinition.version;
-        // Likely indicates the version could not be resolved.
-        if (version.isBlank()) {
-            return ConditionEvaluationResult
-                    .enabled("Could not determine version of module %s".formatted(moduleDefinition.path));
-        }
-        if (isAtLeastVersion(requiresModule.minVersion(), version)) {
-            return ConditionEvaluationResult
-                    .enabled("Found version %s and required a minimum of version %s. Enabling tests.".formatted(
-                            version, requiresModule.minVersion()));
-        }
-        return ConditionEvaluationResult
-                .disabled(formatReason(requiresModule,
-                        "Found version %s and required a minimum of version %s. Disabling test.", version,
-                        requiresModule.minVersion()));
+    /**
+     * Resolves the index of the module directory.
+     */
+    @FunctionalInterface
+    interface ModuleIndexResolver {
+
+        /**
+         * Resolves the module index.
+         *
+         * @return the module index
+         *
+         * @throws IOException if an error occurs creating the index
+         */
+        ModuleIndex resolve() throws IOException;
     }
 
-    private static String moduleToPath(final String moduleName, final String slot) {
-        return String.join(File.separator, moduleName.split("\\.")) + File.separator + slot;
-    }
-
-    private static ModuleDefinition parse(final Path moduleXmlFile) throws IOException {
-        String name = "";
-        String version = "";
-        try (InputStream in = Files.newInputStream(moduleXmlFile)) {
-
-            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    /**
+     * The module path and the module index resolved from the configuration parameters of the execution. Once
+     * resolved, evaluating a requirement only looks up the memoized outcome in the index.
+     */
+    private static final class ResolvedModulePath implements ModuleIndexResolver {
+        private final ExtensionContext context;
+        private final List<Path> modulePath;
+        private final Path indexFile;
+        private volatile ModuleIndex index;
+        private volatile IOException failure;
+
+        private ResolvedModulePath(final ExtensionContext context) {
+            this.context = context;
+            // First check for the module.path, if not set use the JBoss Home resolution
+            modulePath = Support.resolveModuleDirs(context::getConfigurationParameter);
+            indexFile = modulePath.isEmpty() ? null : Support.resolveModuleIndexFile(context).orElse(null);
+        }
 
-            final DocumentBuilder builder = factory.newDocumentBuilder();
-            final org.w3c.dom.Document document = builder.parse(in);
-            final var moduleNode = document.getDocumentElement();
-            final var nameAttr = moduleNode.getAttributes().getNamedItem("name");
-            if (nameAttr == null) {
-                throw new JUnitException("Malformed module.xml: missing 'name' attribute in " + moduleXmlFile);
-            }
-            name = nameAttr.getTextContent();
-            final var resources = document.getElementsByTagName("resources");
-            if (resources.getLength() > 0) {
-                // Use only the first resources, which there should only be one of
-                final var resource = resources.item(0);
-                final var nodes = resource.getChildNodes();
-                for (int i = 0; i < nodes.getLength(); i++) {
-                    final var node = nodes.item(i);
-                    if (node.getNodeName().equals("artifact")) {
-                        // Use the Maven GAV where the third entry should be the version
-                        final var artifactNameAttr = node.getAttributes().getNamedItem("name");
-                        if (artifactNameAttr == null) {
-                            throw new JUnitException(
-                                    "Malformed module.xml: 'artifact' element missing 'name' attribute in " + moduleXmlFile);
-                        }
-                        final var artifactName = artifactNameAttr.getTextContent();
-                        final var gav = artifactName.split(":");
-                        if (gav.length > 2) {
-                            version = sanitizeVersion(gav[2]);
+        @Override
+        public ModuleIndex resolve() throws IOException {
+            ModuleIndex result = index;
+            if (result == null) {
+                synchronized (this) {
+                    result = index;
+                    if (result == null) {
+                        // A module path which cannot be indexed is not retried for each requirement
+                        if (failure != null) {
+                            throw failure;
                         }
-                        break;
-                    } else if (node.getNodeName().equals("resource-root")) {
-                        final var pathAttr = node.getAttributes().getNamedItem("path");
-                        if (pathAttr == null) {
-                            throw new JUnitException(
-                                    "Malformed module.xml: 'resource-root' element missing 'path' attribute in "
-                                            + moduleXmlFile);
-                        }
-                        final String path = pathAttr.getTextContent();
-                        final Path parent = moduleXmlFile.getParent();
-                        final Path jar = parent == null ? Path.of(path) : parent.resolve(path);
-                        try (JarFile jarFile = new JarFile(jar.toFile())) {
-                            version = extractVersionFromManifest(jarFile);
+                        try {
+                            result = index = ModuleIndex.resolve(context, modulePath, indexFile);
+                        } catch (IOException e) {
+                            failure = e;
+                            throw e;
                         }
                     }
                 }
             }
-        } catch (ParserConfigurationException | SAXException e) {
-            throw new IOException("Failed to parse module XML file " + moduleXmlFile, e);
-        }
-        return new ModuleDefinition(moduleXmlFile, name, version);
-    }
-
-    private static String extractVersionFromManifest(final JarFile jarFile) throws IOException {
-        final Manifest manifest = jarFile.getManifest();
-        final var version = manifest.getMainAttributes().getValue(Attributes.Name.IMPLEMENTATION_VERSION);
-        return sanitizeVersion(version);
-    }
-
-    private static String sanitizeVersion(final String version) {
-        if (version == null) {
-            return "";
-        }
-        // Skip the "-redhat" for our purposes
-        final int end = version.indexOf("-redhat");
-        if (end > 0) {
-            return version.substring(0, end);
-        }
-        return version;
-    }
-
-    private static Optional<ModuleDefinition> findModuleXml(final Path dir, final String pathName) throws IOException {
-        try (Stream<Path> files = Files.walk(dir)) {
-            final Optional<Path> moduleXml = files.filter((f) -> f.toString().contains(pathName)
-                    && f.getFileName().toString().equals("module.xml")).findFirst();
-            if (moduleXml.isPresent()) {
-                return Optional.of(parse(moduleXml.get()));
-            }
-        }
-        return Optional.empty();
-    }
-
-    private static boolean isAtLeastVersion(final String minVersion, final String foundVersion) {
-        if (foundVersion == null) {
-            return false;
-        }
-        return foundVersion.equals(minVersion) || VersionComparator.compareVersion(true, foundVersion, minVersion) >= 0;
-    }
-
-    private static String formatReason(final RequiresModule requiresModule, final String fmt, final Object... args) {
-        String msg = fmt.formatted(args);
-        if (!requiresModule.issueRef().isBlank()) {
-            msg = requiresModule.issueRef() + ": " + msg;
-        }
-        if (!requiresModule.reason().isBlank()) {
-            msg = msg + " Reason: " + requiresModule.reason();
+            return result;
         }
-        return msg;
-    }
-
-    private static Path resolveModulesDir(final ExtensionContext context) {
-        final Optional<String> moduleDir = Support.resolveModulePath(context);
-        return moduleDir.map(Path::of)
-                .orElseGet(() -> Support.resolveJBossHome(context).map(p -> p.resolve("modules")).orElse(null));
-    }
-
-    private record ModuleDefinition(Path path, String name, String version) {
     }
 }
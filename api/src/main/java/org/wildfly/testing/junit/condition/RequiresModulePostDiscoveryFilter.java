@@ -0,0 +1,128 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.condition;
+
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.kohsuke.MetaInfServices;
+import org.wildfly.testing.junit.annotation.AnyOf;
+import org.wildfly.testing.junit.annotation.RequiresModule;
+
+/**
+ * A filter which evaluates the {@link RequiresModule} and {@link AnyOf} annotations during discovery. Test classes and
+ * methods whose required modules are not available are removed from the test plan. This means no extensions, e.g. an
+ * extension which starts a server, are invoked for these tests.
+ * <p>
+ * The filter is only active when the {@code wildfly.module.discovery.filter} system property is set to {@code true}.
+ * As a {@link PostDiscoveryFilter} does not have access to the configuration parameters, the module directory is
+ * resolved from the {@code wildfly.module.path}, {@code jboss.home} and {@code jboss.home.dir} system properties or
+ * the {@code JBOSS_HOME} environment variable. The module index is shared for the lifetime of the filter.
+ * </p>
+ * <p>
+ * Only tests of the Jupiter engine are filtered. Tests whose class or method cannot be resolved are included.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@MetaInfServices
+public class RequiresModulePostDiscoveryFilter implements PostDiscoveryFilter {
+    private static final Logger LOGGER = Logger.getLogger(RequiresModulePostDiscoveryFilter.class);
+    private static final String ENABLED_KEY = "wildfly.module.discovery.filter";
+    private static final String JUPITER_ENGINE_ID = "junit-jupiter";
+
+    private final boolean enabled;
+    private final List<Path> modulePath;
+    private final Path indexFile;
+    private volatile ModuleIndex index;
+
+    /**
+     * Creates a new filter.
+     */
+    public RequiresModulePostDiscoveryFilter() {
+        enabled = Boolean.getBoolean(ENABLED_KEY);
+        if (enabled) {
+            modulePath = Support.resolveModuleDirs(RequiresModulePostDiscoveryFilter::getProperty);
+            indexFile = Support.resolveModuleIndexFile(RequiresModulePostDiscoveryFilter::getProperty).orElse(null);
+        } else {
+            modulePath = List.of();
+            indexFile = null;
+        }
+    }
+
+    @Override
+    public FilterResult apply(final TestDescriptor descriptor) {
+        if (!enabled || modulePath.isEmpty()) {
+            return FilterResult.included("Module discovery filtering is not enabled.");
+        }
+        // The annotations are only evaluated by the Jupiter engine, other engines may not have sources which resolve
+        if (!JUPITER_ENGINE_ID.equals(descriptor.getUniqueId().getEngineId().orElse(null))) {
+            return FilterResult.included("Module discovery filtering only applies to the Jupiter engine.");
+        }
+        // Only tests are removed from the test plan, containers without tests are pruned. Therefore, the requirements
+        // of the test and each of the enclosing containers need to be checked.
+        Optional<TestDescriptor> current = Optional.of(descriptor);
+        while (current.isPresent()) {
+            final Optional<AnnotatedElement> element = current.get().getSource().flatMap(this::toElement);
+            if (element.isPresent()) {
+                final ConditionEvaluationResult result = RequiresModuleExecutionCondition.evaluate(element, modulePath,
+                        this::getIndex);
+                if (result.isDisabled()) {
+                    final String reason = result.getReason().orElse("");
+                    LOGGER.debugf("Excluding %s: %s", descriptor.getDisplayName(), reason);
+                    return FilterResult.excluded(reason);
+                }
+            }
+            current = current.get().getParent();
+        }
+        return FilterResult.included("All required modules have been found.");
+    }
+
+    private Optional<AnnotatedElement> toElement(final TestSource source) {
+        try {
+            if (source instanceof ClassSource classSource) {
+                return Optional.of(classSource.getJavaClass());
+            }
+            if (source instanceof MethodSource methodSource) {
+                return Optional.of(methodSource.getJavaMethod());
+            }
+        } catch (JUnitException e) {
+            // The class or method could not be resolved, leave it to the engine to report
+            LOGGER.debugf(e, "Could not resolve the source %s", source);
+        }
+        return Optional.empty();
+    }
+
+    private ModuleIndex getIndex() throws IOException {
+        ModuleIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    // The index is not shared with the launcher session, so it is only loaded, never persisted, here
+                    result = index = ModuleIndex.open(modulePath, indexFile);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Optional<String> getProperty(final String key) {
+        return Optional.ofNullable(System.getProperty(key));
+    }
+}
@@ -5,8 +5,13 @@
 
 package org.wildfly.testing.junit.condition;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
 
@@ -28,9 +33,21 @@ class Support {
      * @return the path to the server
      */
     static Optional<Path> resolveJBossHome(final ExtensionContext context) {
-        return context.getConfigurationParameter("jboss.home")
+        return resolveJBossHome(context::getConfigurationParameter);
+    }
+
+    /**
+     * Resolves the servers base directory from the configuration. This first checks the {@code jboss.home} key. If
+     * not found, it checks for the environment variable {@code JBOSS_HOME} and finally the {@code jboss.home.dir} key.
+     *
+     * @param configuration the function used to look up configuration values
+     *
+     * @return the path to the server
+     */
+    static Optional<Path> resolveJBossHome(final Function<String, Optional<String>> configuration) {
+        return configuration.apply("jboss.home")
                 .or(() -> Optional.ofNullable(System.getenv("JBOSS_HOME")))
-                .or(() -> context.getConfigurationParameter("jboss.home.dir"))
+                .or(() -> configuration.apply("jboss.home.dir"))
                 .map(Path::of);
     }
 
@@ -42,6 +59,76 @@ class Support {
      * @return the value of the {@code wildfly.module.path}, otherwise empty
      */
     static Optional<String> resolveModulePath(final ExtensionContext context) {
-        return context.getConfigurationParameter("wildfly.module.path");
+        return resolveModulePath(context::getConfigurationParameter);
+    }
+
+    /**
+     * Resolves the {@code wildfly.module.path} property from the configuration.
+     *
+     * @param configuration the function used to look up configuration values
+     *
+     * @return the value of the {@code wildfly.module.path}, otherwise empty
+     */
+    static Optional<String> resolveModulePath(final Function<String, Optional<String>> configuration) {
+        return configuration.apply("wildfly.module.path");
+    }
+
+    /**
+     * Resolves the module directories. The {@code wildfly.module.path} is used if defined, where multiple directories
+     * are separated by the {@linkplain File#pathSeparator path separator}. Otherwise, the {@code modules} directory of
+     * the {@linkplain #resolveJBossHome(Function) server} is used.
+     *
+     * @param configuration the function used to look up configuration values
+     *
+     * @return the module directories, in the order they should be searched, or an empty list if they could not be
+     *             resolved
+     */
+    static List<Path> resolveModuleDirs(final Function<String, Optional<String>> configuration) {
+        return resolveModulePath(configuration)
+                .map((modulePath) -> Stream.of(modulePath.split(File.pathSeparator))
+                        .filter((dir) -> !dir.isBlank())
+                        .map(Path::of)
+                        .toList())
+                .or(() -> resolveJBossHome(configuration).map(p -> List.of(p.resolve("modules"))))
+                .orElse(List.of());
+    }
+
+    /**
+     * Resolves the file used to persist the module index between launcher sessions. The
+     * {@code wildfly.module.index.file} configuration parameter defines the location of the file. If not set, the
+     * {@code target/wildfly-module-index.bin} file is used if a {@code target} directory exists in the working
+     * directory. Persisting the index can be disabled by setting the {@code wildfly.module.index.cache} configuration
+     * parameter to {@code false}.
+     *
+     * @param context the extension context
+     *
+     * @return the path to the module index file or an empty optional if the index should not be persisted
+     */
+    static Optional<Path> resolveModuleIndexFile(final ExtensionContext context) {
+        return resolveModuleIndexFile(context::getConfigurationParameter);
+    }
+
+    /**
+     * Resolves the file used to persist the module index from the configuration.
+     *
+     * @param configuration the function used to look up configuration values
+     *
+     * @return the path to the module index file or an empty optional if the index should not be persisted
+     *
+     * @see #resolveModuleIndexFile(ExtensionContext)
+     */
+    static Optional<Path> resolveModuleIndexFile(final Function<String, Optional<String>> configuration) {
+        if (!configuration.apply("wildfly.module.index.cache").map(Boolean::parseBoolean).orElse(true)) {
+            return Optional.empty();
+        }
+        return configuration.apply("wildfly.module.index.file")
+                .map(Path::of)
+                .or(() -> {
+                    final Path target = Path.of("target");
+                    if (Files.isDirectory(target)) {
+                        return Optional.of(target.resolve("wildfly-module-index.bin"));
+                    }
+                    return Optional.empty();
+                });
     }
 }
@@ -50,4 +50,27 @@ public class RequireArtifact {
     public void clientSpi() {
         Assertions.fail("Should have skipped");
     }
+
+    @Test
+    @RequiresModule(value = "org.wildfly.testing.junit.test.large", minVersion = "6.6.0.Final")
+    public void large() {
+    }
+
+    @Test
+    @RequiresModule(value = "org.wildfly.testing.junit.test.large", minVersion = "7.0.0.Final")
+    public void largeSkippedVersion() {
+        Assertions.fail("Should have skipped");
+    }
+
+    @Test
+    @RequiresModule(value = "org.wildfly.testing.junit.test.artifact", minVersion = "2.0.0", issueRef = "WFLY-0000")
+    public void skippedVersionIssueRef() {
+        Assertions.fail("Should have skipped");
+    }
+
+    @Test
+    @RequiresModule(value = "org.wildfly.testing.junit.test.artifact", minVersion = "2.0.0", reason = "Requires a newer artifact")
+    public void skippedVersionReason() {
+        Assertions.fail("Should have skipped");
+    }
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.testing.junit.annotation.RequiresModule;
+
+/**
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@SuppressWarnings("NewClassNamingConvention")
+public class RequireLayeredModule {
+
+    @Test
+    @RequiresModule(value = "org.wildfly.testing.junit.test.layered", minVersion = "2.0.0.Final")
+    public void layered() {
+    }
+
+    @Test
+    @RequiresModule("org.wildfly.testing.junit.test.extra")
+    public void extra() {
+    }
+
+    @Test
+    @RequiresModule(value = "org.wildfly.testing.junit.test.artifact", minVersion = "3.0.0.Final")
+    public void overridden() {
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.wildfly.testing.junit.annotation.RequiresModule;
+
+/**
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@SuppressWarnings("NewClassNamingConvention")
+@RequiresModule("org.wildfly.testing.junit.test.missing")
+public class RequireMissingModule {
+
+    @BeforeAll
+    public static void setup() {
+        Assertions.fail("The class should have been excluded during discovery");
+    }
+
+    @Test
+    public void excluded() {
+    }
+}
@@ -33,4 +33,9 @@ public class RequireResourceRoot {
     @RequiresModule(value = "org.wildfly.testing.junit.test.resource-root.invalid")
     public void skippedMissingModule() {
     }
+
+    @Test
+    @RequiresModule(value = "org.wildfly.testing.junit.test.resource-roots", minVersion = "3.0.1")
+    public void skippedMultipleResourceRootsVersion() {
+    }
 }
@@ -5,20 +5,35 @@
 
 package org.wildfly.testing.junit;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.jar.Attributes;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
 import org.junit.platform.testkit.engine.EngineTestKit;
 import org.junit.platform.testkit.engine.EventConditions;
+import org.junit.platform.testkit.engine.Events;
 import org.wildfly.testing.junit.annotation.JBossHome;
+import org.wildfly.testing.junit.condition.RequiresModulePostDiscoveryFilter;
 
 /**
  * Tests for the {@link org.wildfly.testing.junit.annotation.RequiresModule} annotation.
@@ -33,6 +48,9 @@ public class RequiresModuleTestCase {
     public static void setup(@JBossHome final Path jbossHome) throws Exception {
         createJar("resource-root", jbossHome, "2.0.0.Final");
         createJar("snapshot", jbossHome, "1.0.0.Beta2-SNAPSHOT");
+        createJar("resource-roots", jbossHome, "no-version", null);
+        createJar("resource-roots", jbossHome, "3.0.0.Final");
+        createJar("resource-roots", jbossHome, "4.0.0.Final");
     }
 
     @Test
@@ -59,6 +77,26 @@ public class RequiresModuleTestCase {
                         "Found version 1.0.0.Final and required a minimum of version 2.0.0. Disabling test.")));
     }
 
+    @Test
+    public void artifactSkippedVersionReasons() {
+        // The same requirement is evaluated once, but the reasons are specific to each annotation
+        final var testEvents = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedVersion"),
+                        DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedVersionIssueRef"),
+                        DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedVersionReason"))
+                .configurationParameter("jboss.home", System.getProperty("jboss.home"))
+                .execute()
+                .testEvents();
+
+        final String reason = "Found version 1.0.0.Final and required a minimum of version 2.0.0. Disabling test.";
+        testEvents.assertStatistics((stats) -> stats.skipped(3L));
+        testEvents.assertThatEvents()
+                .haveExactly(1, EventConditions.event(EventConditions.skippedWithReason(reason)))
+                .haveExactly(1, EventConditions.event(EventConditions.skippedWithReason("WFLY-0000: " + reason)))
+                .haveExactly(1, EventConditions.event(
+                        EventConditions.skippedWithReason(reason + " Reason: Requires a newer artifact")));
+    }
+
     @Test
     public void artifactSkippedMissingModule(@JBossHome final Path jbossHome) {
         final var testEvents = EngineTestKit.engine("junit-jupiter")
@@ -108,6 +146,22 @@ public class RequiresModuleTestCase {
                         "Found version 2.0.0.Final and required a minimum of version 2.0.1. Disabling test.")));
     }
 
+    @Test
+    public void resourceRootsSkippedVersion() {
+        final var testEvents = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectMethod(RequireResourceRoot.class,
+                        "skippedMultipleResourceRootsVersion"))
+                .configurationParameter("jboss.home", System.getProperty("jboss.home"))
+                .execute()
+                .testEvents();
+
+        // The version should be resolved from the first resource root which defines a version
+        testEvents.assertStatistics((stats) -> stats.skipped(1L));
+        testEvents.assertThatEvents().haveExactly(1, EventConditions.event(
+                EventConditions.skippedWithReason(
+                        "Found version 3.0.0.Final and required a minimum of version 3.0.1. Disabling test.")));
+    }
+
     @Test
     public void resourceRootSkippedMissingModule(@JBossHome final Path jbossHome) {
         final var testEvents = EngineTestKit.engine("junit-jupiter")
@@ -264,14 +318,250 @@ public class RequiresModuleTestCase {
                         "None of the modules have been found, disabling the test.")));
     }
 
+    @Test
+    public void largeModuleDescriptor() {
+        final var testEvents = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectMethod(RequireArtifact.class, "large"),
+                        DiscoverySelectors.selectMethod(RequireArtifact.class, "largeSkippedVersion"))
+                .configurationParameter("jboss.home", System.getProperty("jboss.home"))
+                .execute()
+                .testEvents();
+
+        testEvents.assertStatistics((stats) -> stats.succeeded(1L).skipped(1L));
+        testEvents.assertThatEvents().haveExactly(1, EventConditions.event(
+                EventConditions.skippedWithReason(
+                        "Found version 6.6.1.Final and required a minimum of version 7.0.0.Final. Disabling test.")));
+    }
+
+    @Test
+    public void layeredModule(@JBossHome final Path jbossHome) {
+        final var testEvents = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectMethod(RequireLayeredModule.class, "layered"))
+                .configurationParameter("jboss.home", jbossHome.toString())
+                .execute()
+                .testEvents();
+
+        // The custom layer is defined in the layers.conf and should be used before the base layer
+        testEvents.assertStatistics((stats) -> stats.succeeded(1L));
+    }
+
+    @Test
+    public void multipleModuleDirectories(@JBossHome final Path jbossHome) {
+        final String modulePath = jbossHome.resolve("extra-modules") + File.pathSeparator + jbossHome.resolve("modules");
+        final var testEvents = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectMethod(RequireLayeredModule.class, "layered"),
+                        DiscoverySelectors.selectMethod(RequireLayeredModule.class, "extra"),
+                        DiscoverySelectors.selectMethod(RequireLayeredModule.class, "overridden"),
+                        DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedMissingModule"))
+                .configurationParameter("wildfly.module.path", modulePath)
+                .execute()
+                .testEvents();
+
+        // The artifact module in the first directory overrides the one in the second
+        testEvents.assertStatistics((stats) -> stats.succeeded(3L).skipped(1L));
+        testEvents.assertThatEvents().haveExactly(1, EventConditions.event(
+                EventConditions.skippedWithReason(
+                        "Module org.wildfly.testing.junit.test.artifact.invalid not found in %s. Disabling test."
+                                .formatted(modulePath))));
+    }
+
+    @Test
+    public void missingModuleDirectory(@TempDir final Path tempDir) {
+        final var testEvents = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedVersion"),
+                        DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedMissingModule"))
+                .configurationParameter("wildfly.module.path", tempDir.resolve("missing").toString())
+                .execute()
+                .testEvents();
+
+        // The modules cannot be looked up, so the tests are enabled by default
+        testEvents.assertStatistics((stats) -> stats.succeeded(2L).skipped(0L));
+    }
+
+    @Test
+    public void missingAndExistingModuleDirectories(@JBossHome final Path jbossHome, @TempDir final Path tempDir) {
+        final String modulePath = tempDir.resolve("missing") + File.pathSeparator + jbossHome.resolve("modules");
+        final var testEvents = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectMethod(RequireLayeredModule.class, "layered"),
+                        DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedMissingModule"))
+                .configurationParameter("wildfly.module.path", modulePath)
+                .execute()
+                .testEvents();
+
+        // The missing directory is skipped, the modules are still looked up in the existing directory
+        testEvents.assertStatistics((stats) -> stats.succeeded(1L).skipped(1L));
+        testEvents.assertThatEvents().haveExactly(1, EventConditions.event(
+                EventConditions.skippedWithReason(
+                        "Module org.wildfly.testing.junit.test.artifact.invalid not found in %s. Disabling test."
+                                .formatted(modulePath))));
+    }
+
+    @Test
+    public void persistedModuleIndex(@TempDir final Path tempDir) throws Exception {
+        final Path modulesDir = tempDir.resolve("modules");
+        final Path moduleXml = createArtifactModule(modulesDir, "1.0.0.Final");
+        final FileTime lastModified = Files.getLastModifiedTime(moduleXml);
+        final Path indexFile = tempDir.resolve("module-index.bin");
+
+        // The first run parses the module.xml and writes the index
+        executePersisted(modulesDir, indexFile)
+                .assertStatistics((stats) -> stats.skipped(1L));
+        Assertions.assertTrue(Files.isRegularFile(indexFile),
+                () -> "Expected the module index to be written to %s".formatted(indexFile));
+
+        // Change the version without changing the modification time. Only the persisted definition still has the old
+        // version, so the test is only skipped if the index was read from the file.
+        createArtifactModule(modulesDir, "2.0.0.Final");
+        Files.setLastModifiedTime(moduleXml, lastModified);
+        executePersisted(modulesDir, indexFile)
+                .assertStatistics((stats) -> stats.skipped(1L));
+
+        // A new modification time invalidates the persisted definition, so the module.xml is parsed again
+        Files.setLastModifiedTime(moduleXml, FileTime.fromMillis(lastModified.toMillis() + 10_000L));
+        executePersisted(modulesDir, indexFile)
+                .assertStatistics((stats) -> stats.succeeded(1L).skipped(0L));
+    }
+
+    @Test
+    public void persistedModuleIndexResourceRoot(@TempDir final Path tempDir) throws Exception {
+        final Path modulesDir = tempDir.resolve("modules");
+        final Path artifactModuleXml = createArtifactModule(modulesDir, "1.0.0.Final");
+        final Path moduleXml = modulesDir.resolve(
+                Path.of("org", "wildfly", "testing", "junit", "test", "resource-root", "main", "module.xml"));
+        Files.createDirectories(moduleXml.getParent());
+        Files.writeString(moduleXml, """
+                <module name="org.wildfly.testing.junit.test.resource-root" xmlns="urn:jboss:module:1.9">
+                    <resources>
+                        <resource-root path="test.jar" />
+                    </resources>
+                </module>
+                """);
+        final Path jar = moduleXml.resolveSibling("test.jar");
+        writeJar(jar, "2.0.0.Final");
+        final FileTime lastModified = Files.getLastModifiedTime(jar);
+        final Path indexFile = tempDir.resolve("module-index.bin");
+
+        executePersisted(modulesDir, indexFile,
+                DiscoverySelectors.selectMethod(RequireArtifact.class, "skippedVersion"),
+                DiscoverySelectors.selectMethod(RequireResourceRoot.class, "skippedVersion"))
+                .assertStatistics((stats) -> stats.skipped(2L));
+        Assertions.assertTrue(readIndex(indexFile).contains(artifactModuleXml.toString()),
+                "Expected the artifact module to be persisted");
+
+        // Replace the JAR without changing the module.xml, the version must be read from the new JAR
+        writeJar(jar, "3.0.0.Final");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(lastModified.toMillis() + 10_000L));
+        // Remove the artifact module, which must no longer be persisted when the index is written
+        Files.delete(artifactModuleXml);
+        executePersisted(modulesDir, indexFile,
+                DiscoverySelectors.selectMethod(RequireResourceRoot.class, "skippedVersion"))
+                .assertStatistics((stats) -> stats.succeeded(1L).skipped(0L));
+        Assertions.assertFalse(readIndex(indexFile).contains(artifactModuleXml.toString()),
+                "Expected the removed module to be dropped from the index");
+    }
+
+    @Test
+    public void discoveryFilter() {
+        final PostDiscoveryFilter filter;
+        System.setProperty("wildfly.module.discovery.filter", "true");
+        try {
+            filter = new RequiresModulePostDiscoveryFilter();
+        } finally {
+            System.clearProperty("wildfly.module.discovery.filter");
+        }
+        final var results = EngineTestKit.engine("junit-jupiter")
+                .selectors(DiscoverySelectors.selectClass(RequireResourceRoot.class),
+                        DiscoverySelectors.selectClass(RequireMissingModule.class))
+                .filters(filter)
+                .execute();
+
+        // The tests which require missing modules, or versions, should not have been discovered
+        results.testEvents().assertStatistics((stats) -> stats.started(2L).succeeded(2L).skipped(0L));
+        results.containerEvents().assertThatEvents().noneMatch(EventConditions.container(RequireMissingModule.class)::matches);
+    }
+
+    @Test
+    public void discoveryFilterUnresolvableSource() {
+        final PostDiscoveryFilter filter;
+        System.setProperty("wildfly.module.discovery.filter", "true");
+        try {
+            filter = new RequiresModulePostDiscoveryFilter();
+        } finally {
+            System.clearProperty("wildfly.module.discovery.filter");
+        }
+        // Sources which cannot be resolved must not abort discovery
+        final UniqueId jupiterId = UniqueId.forEngine("junit-jupiter");
+        Assertions.assertTrue(filter.apply(createDescriptor(jupiterId.append("class", "missing"),
+                ClassSource.from("org.wildfly.testing.junit.Missing"))).included());
+        Assertions.assertTrue(filter.apply(createDescriptor(jupiterId.append("method", "missing"),
+                MethodSource.from(RequireMissingModule.class.getName(), "missing", "java.lang.String"))).included());
+
+        // Descriptors of other engines are not filtered
+        Assertions.assertTrue(filter.apply(createDescriptor(UniqueId.forEngine("junit-vintage").append("class", "missing"),
+                ClassSource.from(RequireMissingModule.class))).included());
+    }
+
+    private static TestDescriptor createDescriptor(final UniqueId uniqueId, final TestSource source) {
+        return new AbstractTestDescriptor(uniqueId, uniqueId.getLastSegment().getValue(), source) {
+            @Override
+            public Type getType() {
+                return Type.TEST;
+            }
+        };
+    }
+
+    private static Events executePersisted(final Path modulesDir, final Path indexFile) {
+        return executePersisted(modulesDir, indexFile, DiscoverySelectors.selectMethod(RequireArtifact.class,
+                "skippedVersion"));
+    }
+
+    private static Events executePersisted(final Path modulesDir, final Path indexFile,
+            final DiscoverySelector... selectors) {
+        return EngineTestKit.engine("junit-jupiter")
+                .selectors(selectors)
+                .configurationParameter("wildfly.module.path", modulesDir.toString())
+                .configurationParameter("wildfly.module.index.file", indexFile.toString())
+                .execute()
+                .testEvents();
+    }
+
+    private static String readIndex(final Path indexFile) throws IOException {
+        // The index is binary, but the paths of the module.xml files are stored as strings
+        return Files.readString(indexFile, StandardCharsets.ISO_8859_1);
+    }
+
+    private static Path createArtifactModule(final Path modulesDir, final String version) throws IOException {
+        final Path moduleXml = modulesDir.resolve(
+                Path.of("org", "wildfly", "testing", "junit", "test", "artifact", "main", "module.xml"));
+        Files.createDirectories(moduleXml.getParent());
+        Files.writeString(moduleXml, """
+                <module name="org.wildfly.testing.junit.test.artifact" xmlns="urn:jboss:module:1.9">
+                    <resources>
+                        <artifact name="org.wildfly.testing.test:fake:%s" />
+                    </resources>
+                </module>
+                """.formatted(version));
+        return moduleXml;
+    }
+
     private static void createJar(final String moduleName, final Path jbossHome, final String version) throws IOException {
+        createJar(moduleName, jbossHome, version, version);
+    }
+
+    private static void createJar(final String moduleName, final Path jbossHome, final String fileVersion,
+            final String version) throws IOException {
         // Create the JAR with a manifest only
-        final Path jarPath = jbossHome.resolve(
+        writeJar(jbossHome.resolve(
                 Path.of("modules", "org", "wildfly", "testing", "junit", "test", moduleName, "main",
-                        "test-%s.jar".formatted(version)));
+                        "test-%s.jar".formatted(fileVersion))), version);
+    }
+
+    private static void writeJar(final Path jarPath, final String version) throws IOException {
         final Manifest manifest = new Manifest();
         manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
-        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, version);
+        if (version != null) {
+            manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, version);
+        }
         try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jarPath), manifest)) {
             // Simply flush to write the manifest
             out.flush();
@@ -0,0 +1,133 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Undeploys deployments of a server on a background thread. This allows the undeployment of the deployments of a test
+ * class to overlap with creating and deploying the deployments of the next test class.
+ * <p>
+ * Asynchronous undeployment is enabled with the {@code wildfly.deployment.undeploy.async} configuration parameter.
+ * Before a deployment with the same name is deployed again, the pending undeployment is awaited. All pending
+ * undeployments are awaited before the server is stopped.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class AsyncUndeployer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AsyncUndeployer.class);
+
+    static final String ASYNC_PROPERTY = "wildfly.deployment.undeploy.async";
+
+    private final Map<String, Future<?>> pending;
+    private ExecutorService executor;
+
+    AsyncUndeployer() {
+        this.pending = new HashMap<>();
+    }
+
+    /**
+     * Checks whether deployments should be undeployed asynchronously.
+     *
+     * @param context the extension context
+     *
+     * @return {@code true} if deployments should be undeployed asynchronously
+     */
+    static boolean isEnabled(final ExtensionContext context) {
+        return TestSupport.isEnabled(context::getConfigurationParameter, ASYNC_PROPERTY);
+    }
+
+    /**
+     * Submits a task which undeploys the deployments with the given names.
+     *
+     * @param deploymentNames the names of the deployments being undeployed
+     * @param task            the task which undeploys the deployments
+     */
+    synchronized void submit(final Collection<String> deploymentNames, final Runnable task) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                final Thread thread = new Thread(r, "wildfly-undeploy");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        final Future<?> future = executor.submit(task);
+        for (String deploymentName : deploymentNames) {
+            pending.put(deploymentName, future);
+        }
+    }
+
+    /**
+     * Waits for the pending undeployment of any of the deployments with the given names.
+     *
+     * @param deploymentNames the names of the deployments
+     */
+    void await(final Collection<String> deploymentNames) {
+        final List<Future<?>> futures = new ArrayList<>();
+        synchronized (this) {
+            for (String deploymentName : deploymentNames) {
+                final Future<?> future = pending.remove(deploymentName);
+                if (future != null) {
+                    futures.add(future);
+                }
+            }
+        }
+        waitFor(futures);
+    }
+
+    /**
+     * Waits for all pending undeployments.
+     */
+    void drain() {
+        final List<Future<?>> futures;
+        synchronized (this) {
+            futures = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        waitFor(futures);
+    }
+
+    /**
+     * Waits for all pending undeployments and stops the background thread.
+     */
+    @Override
+    public void close() {
+        drain();
+        final ExecutorService executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static void waitFor(final Collection<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                LOGGER.warnf(e.getCause(), "Failed to undeploy asynchronously.");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.jboss.logging.Logger;
+import org.wildfly.plugin.tools.server.DomainManager;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * Resolves the context roots of deployments right after they are deployed.
+ * <p>
+ * The context roots of all deployments of a test class, including each WAR subdeployment of an EAR, are read from the
+ * Undertow subsystem in a single composite operation. The subdeployments of an EAR are matched with a wildcard address,
+ * so no additional operation is required to find their names. On a domain server, the context roots are read from the
+ * servers of the local host, as the context root of a deployment is the same on every server.
+ * </p>
+ * <p>
+ * If the context roots cannot be resolved, for example if Undertow is not available, the deployment information is
+ * returned unchanged and the context root is resolved when a {@link java.net.URI} is injected.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class ContextRoots {
+    private static final Logger LOGGER = Logger.getLogger(ContextRoots.class);
+
+    /**
+     * Resolves the context roots of the deployments.
+     *
+     * @param serverManager the server manager the deployments are deployed to
+     * @param deployments   the deployments to resolve the context roots for
+     *
+     * @return the deployment information with the resolved context roots, in the same order
+     */
+    static List<DeploymentInfo> resolve(final ServerManager serverManager, final List<DeploymentInfo> deployments) {
+        try {
+            final ModelNode baseAddress;
+            if (serverManager instanceof DomainManager domainManager) {
+                baseAddress = domainManager.determineHostAddress().add("server", "*");
+            } else {
+                baseAddress = new ModelNode().setEmptyList();
+            }
+            final Operations.CompositeOperationBuilder builder = Operations.CompositeOperationBuilder.create();
+            final Map<String, String> steps = new HashMap<>();
+            for (DeploymentInfo deploymentInfo : deployments) {
+                final String deploymentName = deploymentInfo.deploymentName();
+                final String name = deploymentName.toLowerCase(Locale.ROOT);
+                final ModelNode address = baseAddress.clone().add("deployment", deploymentName);
+                if (name.endsWith(".ear")) {
+                    address.add("subdeployment", "*");
+                } else if (!name.endsWith(".war")) {
+                    continue;
+                }
+                address.add("subsystem", "undertow");
+                builder.addStep(Operations.createReadAttributeOperation(address, "context-root"));
+                steps.put(deploymentName, "step-" + (steps.size() + 1));
+            }
+            final Map<String, ModelNode> stepResults = new HashMap<>();
+            if (!steps.isEmpty()) {
+                final ModelNode result = serverManager.client().execute(builder.build());
+                if (!Operations.isSuccessfulOutcome(result)) {
+                    LOGGER.debugf("Failed to resolve the context roots of %s: %s", steps.keySet(),
+                            Operations.getFailureDescription(result).asString());
+                    return deployments;
+                }
+                final ModelNode results = Operations.readResult(result);
+                steps.forEach((deploymentName, step) -> stepResults.put(deploymentName, results.get(step)));
+            }
+            final List<DeploymentInfo> resolved = new ArrayList<>(deployments.size());
+            for (DeploymentInfo deploymentInfo : deployments) {
+                final ModelNode stepResult = stepResults.get(deploymentInfo.deploymentName());
+                resolved.add(deploymentInfo.withContextRoots(stepResult == null ? Map.of() : parse(stepResult)));
+            }
+            return resolved;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debugf(e, "Failed to resolve the context roots of %s", deployments);
+        }
+        return deployments;
+    }
+
+    private static Map<String, String> parse(final ModelNode stepResult) {
+        final Map<String, String> contextRoots = new LinkedHashMap<>();
+        if (!Operations.isSuccessfulOutcome(stepResult)) {
+            return contextRoots;
+        }
+        final ModelNode value = Operations.readResult(stepResult);
+        if (value.getType() != ModelType.LIST) {
+            contextRoots.put("", value.asString());
+            return contextRoots;
+        }
+        // A wildcard address returns the result for each matching resource, with its address
+        for (ModelNode item : value.asList()) {
+            if (!Operations.isSuccessfulOutcome(item)) {
+                continue;
+            }
+            String subdeployment = "";
+            for (Property element : Operations.getOperationAddress(item).asPropertyList()) {
+                if ("subdeployment".equals(element.getName())) {
+                    subdeployment = element.getValue().asString();
+                }
+            }
+            contextRoots.putIfAbsent(subdeployment, Operations.readResult(item).asString());
+        }
+        return contextRoots;
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.jboss.logging.Logger;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.asset.InputStreamAsset;
+import org.junit.platform.commons.JUnitException;
+import org.wildfly.plugin.tools.DeploymentResult;
+import org.wildfly.plugin.tools.UndeployDescription;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * A cache of the deployments on a server which allows test classes with identical deployments to share a single
+ * deployment.
+ * <p>
+ * Deployments are identified by their name and a hash of their content. Each test class using a deployment holds a
+ * reference to it. Once no test class references a deployment, it stays deployed until a test class requires a
+ * deployment with the same name but different content, or until the cache is closed.
+ * </p>
+ * <p>
+ * At most {@code wildfly.deployment.cache.retain} deployments which are no longer referenced are retained. Once the
+ * limit is exceeded, the deployment released the longest time ago is undeployed.
+ * </p>
+ * <p>
+ * The content hash is computed from the paths and the content of the entries of the archive rather than from the
+ * exported archive. The exported archive contains the time it was exported, which would differ for each export.
+ * Hashing reads each entry before the archive is exported. An archive with an entry which can only be read once, such
+ * as an {@link InputStreamAsset}, is therefore never cached.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class DeploymentCache implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(DeploymentCache.class);
+
+    static final String CACHE_PROPERTY = "wildfly.deployment.cache";
+    static final String RETAIN_PROPERTY = "wildfly.deployment.cache.retain";
+    static final int DEFAULT_RETAIN = 10;
+
+    private final ServerManager serverManager;
+    private final int maxRetained;
+    private final Map<String, Entry> entries;
+    // The names of the deployments no longer referenced, the deployment released the longest time ago first
+    private final Set<String> unreferenced;
+
+    DeploymentCache(final ServerManager serverManager, final int maxRetained) {
+        this.serverManager = serverManager;
+        this.maxRetained = maxRetained;
+        this.entries = new HashMap<>();
+        this.unreferenced = new LinkedHashSet<>();
+    }
+
+    /**
+     * Acquires a reference to a deployment with the same name, server groups and content hash. If a deployment with
+     * the same name, but different content, is no longer referenced, it is undeployed.
+     *
+     * @param deploymentInfo the deployment information
+     * @param hash           the content hash of the deployment
+     *
+     * @return {@code true} if the deployment is already deployed and can be reused, otherwise {@code false} and the
+     *             deployment must be deployed and {@linkplain #add(DeploymentInfo, String) added}
+     *
+     * @throws JUnitException if a deployment with the same name and different content is still referenced
+     */
+    synchronized boolean acquire(final DeploymentInfo deploymentInfo, final String hash) {
+        final Entry entry = entries.get(deploymentInfo.deploymentName());
+        if (entry == null) {
+            return false;
+        }
+        if (entry.hash.equals(hash) && entry.deploymentInfo.isSameDeployment(deploymentInfo)) {
+            entry.references++;
+            unreferenced.remove(deploymentInfo.deploymentName());
+            LOGGER.debugf("Reusing deployment %s with %d references", deploymentInfo.deploymentName(), entry.references);
+            return true;
+        }
+        evict(entry);
+        return false;
+    }
+
+    /**
+     * Undeploys a deployment with the same name which is no longer referenced. This allows an archive which is
+     * not {@linkplain #isCacheable(Archive) cacheable} to be deployed without the cache.
+     *
+     * @param deploymentInfo the deployment information
+     *
+     * @throws JUnitException if a deployment with the same name is still referenced
+     */
+    synchronized void evict(final DeploymentInfo deploymentInfo) {
+        final Entry entry = entries.get(deploymentInfo.deploymentName());
+        if (entry != null) {
+            evict(entry);
+        }
+    }
+
+    /**
+     * Adds a deployment which has been deployed, with a single reference, to the cache.
+     *
+     * @param deploymentInfo the deployment information
+     * @param hash           the content hash of the deployment
+     */
+    synchronized void add(final DeploymentInfo deploymentInfo, final String hash) {
+        add(deploymentInfo, hash, null);
+    }
+
+    /**
+     * Adds a deployment which has been deployed, with a single reference, to the cache. The entry hashes are kept to
+     * allow an exploded deployment to be {@linkplain #takeForUpdate(DeploymentInfo, String) updated} incrementally.
+     *
+     * @param deploymentInfo the deployment information
+     * @param hash           the content hash of the deployment
+     * @param entryHashes    the hashes of the entries of the deployment or {@code null} if not required
+     */
+    synchronized void add(final DeploymentInfo deploymentInfo, final String hash,
+            final NavigableMap<String, String> entryHashes) {
+        entries.put(deploymentInfo.deploymentName(), new Entry(deploymentInfo, hash, entryHashes));
+        unreferenced.remove(deploymentInfo.deploymentName());
+    }
+
+    /**
+     * Takes an exploded deployment, with the same name and server groups but different content, which is no longer
+     * referenced from the cache. The deployment stays deployed and can be updated in place. Once updated, it must be
+     * {@linkplain #add(DeploymentInfo, String, NavigableMap) added} again.
+     * <p>
+     * Only a deployment with the same name can be updated, as the name of a deployment cannot be changed on the server.
+     * Test classes with unique deployment names, e.g. named after the test class, never share an exploded deployment.
+     * </p>
+     *
+     * @param deploymentInfo the deployment information
+     * @param hash           the content hash of the new deployment
+     *
+     * @return the deployment which can be updated or an empty value if there is no deployment which can be updated
+     */
+    synchronized Optional<CachedDeployment> takeForUpdate(final DeploymentInfo deploymentInfo, final String hash) {
+        final Entry entry = entries.get(deploymentInfo.deploymentName());
+        if (entry == null || entry.references > 0 || entry.entryHashes == null || entry.hash.equals(hash)
+                || entry.deploymentInfo.content() == null || !entry.deploymentInfo.isSameDeployment(deploymentInfo)) {
+            return Optional.empty();
+        }
+        remove(deploymentInfo.deploymentName());
+        return Optional.of(new CachedDeployment(entry.deploymentInfo, entry.entryHashes));
+    }
+
+    /**
+     * Releases a reference to the deployment. The deployment is not undeployed, unless more deployments than the
+     * configured limit are no longer referenced. In that case, the deployments released the longest time ago are
+     * undeployed.
+     *
+     * @param deploymentInfo the deployment information
+     *
+     * @return {@code true} if the deployment is in the cache, {@code false} if the deployment is not managed by the
+     *             cache and should be undeployed
+     */
+    boolean release(final DeploymentInfo deploymentInfo) {
+        final List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            final Entry entry = entries.get(deploymentInfo.deploymentName());
+            if (entry == null || !entry.deploymentInfo.isSameDeployment(deploymentInfo)) {
+                return false;
+            }
+            if (entry.references > 0) {
+                entry.references--;
+            }
+            if (entry.references == 0) {
+                unreferenced.add(deploymentInfo.deploymentName());
+                final Iterator<String> iterator = unreferenced.iterator();
+                while (unreferenced.size() > maxRetained) {
+                    final String eldest = iterator.next();
+                    iterator.remove();
+                    evicted.add(entries.remove(eldest));
+                }
+            }
+        }
+        for (Entry entry : evicted) {
+            LOGGER.debugf("Undeploying %s, more than %d deployments are no longer referenced",
+                    entry.deploymentInfo.deploymentName(), maxRetained);
+            undeploy(entry.deploymentInfo);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the URI of the deployment, resolving it with the supplier the first time it is requested.
+     *
+     * @param deploymentInfo the deployment information
+     * @param supplier       the supplier used to resolve the URI
+     *
+     * @return the URI of the deployment
+     */
+    URI uri(final DeploymentInfo deploymentInfo, final Supplier<URI> supplier) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(deploymentInfo.deploymentName());
+        }
+        if (entry == null || !entry.deploymentInfo.isSameDeployment(deploymentInfo)) {
+            return supplier.get();
+        }
+        synchronized (entry) {
+            if (entry.uri == null) {
+                entry.uri = supplier.get();
+            }
+            return entry.uri;
+        }
+    }
+
+    /**
+     * Undeploys all cached deployments.
+     */
+    @Override
+    public void close() {
+        final List<Entry> toUndeploy;
+        synchronized (this) {
+            toUndeploy = new ArrayList<>(entries.values());
+            entries.clear();
+            unreferenced.clear();
+        }
+        final boolean running = serverManager.isRunning();
+        for (Entry entry : toUndeploy) {
+            if (running) {
+                undeploy(entry.deploymentInfo);
+            } else if (entry.deploymentInfo.content() != null) {
+                ExplodedDeployment.delete(entry.deploymentInfo.content());
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the archive can be cached. The content of each entry is read to compute the hash of the
+     * archive, so an archive with an entry which can only be read once cannot be cached. Otherwise, the entry would be
+     * empty once the archive is exported.
+     *
+     * @param archive the archive to check
+     *
+     * @return {@code true} if the content of every entry, including the entries of nested archives, can be read more
+     *             than once, otherwise {@code false}
+     */
+    static boolean isCacheable(final Archive<?> archive) {
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            final Asset asset = entry.getValue().getAsset();
+            if (asset instanceof InputStreamAsset) {
+                LOGGER.debugf("Deployment %s is not cached, entry %s can only be read once", archive.getName(),
+                        entry.getKey().get());
+                return false;
+            }
+            if (asset instanceof ArchiveAsset archiveAsset && !isCacheable(archiveAsset.getArchive())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes a hash of the content of the archive. Nested archives are hashed by their content as well. The archive
+     * must be {@linkplain #isCacheable(Archive) cacheable}.
+     *
+     * @param archive the archive to hash
+     *
+     * @return the hash of the archive
+     */
+    static String hash(final Archive<?> archive) {
+        return hash(entryHashes(archive));
+    }
+
+    /**
+     * Computes a hash of the content of an archive from the {@linkplain #entryHashes(Archive) hashes of its entries}.
+     *
+     * @param entryHashes the hashes of the entries of the archive
+     *
+     * @return the hash of the archive
+     */
+    static String hash(final NavigableMap<String, String> entryHashes) {
+        final MessageDigest digest = createDigest();
+        entryHashes.forEach((path, hash) -> {
+            digest.update(path.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(hash.getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) 0);
+        });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the hashes of each entry in the archive, sorted by path. Directories have an empty hash. The archive
+     * must be {@linkplain #isCacheable(Archive) cacheable}.
+     *
+     * @param archive the archive to hash
+     *
+     * @return the hash of each entry, keyed by the path of the entry
+     */
+    static NavigableMap<String, String> entryHashes(final Archive<?> archive) {
+        final NavigableMap<String, String> result = new TreeMap<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            final Asset asset = entry.getValue().getAsset();
+            final String path = entry.getKey().get();
+            if (asset == null) {
+                result.put(path, "");
+            } else if (asset instanceof ArchiveAsset archiveAsset) {
+                result.put(path, hash(archiveAsset.getArchive()));
+            } else {
+                final MessageDigest digest = createDigest();
+                try (InputStream in = asset.openStream()) {
+                    final byte[] buffer = new byte[8192];
+                    int len;
+                    while ((len = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, len);
+                    }
+                } catch (IOException e) {
+                    throw new JUnitException("Failed to read %s from archive %s".formatted(path, archive.getName()), e);
+                }
+                result.put(path, HexFormat.of().formatHex(digest.digest()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Undeploys the deployment and deletes the content of an exploded deployment.
+     *
+     * @param deploymentInfo the deployment to undeploy
+     */
+    void undeploy(final DeploymentInfo deploymentInfo) {
+        final String deploymentName = deploymentInfo.deploymentName();
+        final UndeployDescription undeployDescription = UndeployDescription.of(deploymentName)
+                .addServerGroups(deploymentInfo.serverGroups());
+        try {
+            final DeploymentResult result = serverManager.deploymentManager().undeploy(undeployDescription);
+            if (!result.successful()) {
+                LOGGER.warnf("Failed to undeploy application %s: %s", deploymentName, result.getFailureMessage());
+            }
+        } catch (Exception e) {
+            LOGGER.warnf(e, "Failed to undeploy application %s.", deploymentName);
+        }
+        if (deploymentInfo.content() != null) {
+            ExplodedDeployment.delete(deploymentInfo.content());
+        }
+    }
+
+    private void evict(final Entry entry) {
+        final String deploymentName = entry.deploymentInfo.deploymentName();
+        if (entry.references > 0) {
+            throw new JUnitException(
+                    "Deployment %s is in use by another test class with different content.".formatted(deploymentName));
+        }
+        remove(deploymentName);
+        undeploy(entry.deploymentInfo);
+    }
+
+    private void remove(final String deploymentName) {
+        entries.remove(deploymentName);
+        unreferenced.remove(deploymentName);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new JUnitException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A deployment taken from the cache to be updated.
+     *
+     * @param deploymentInfo the deployment information, including the path to the exploded content
+     * @param entryHashes    the hashes of the entries currently deployed
+     */
+    record CachedDeployment(DeploymentInfo deploymentInfo, NavigableMap<String, String> entryHashes) {
+    }
+
+    private static class Entry {
+        private final DeploymentInfo deploymentInfo;
+        private final String hash;
+        private final NavigableMap<String, String> entryHashes;
+        private int references;
+        private URI uri;
+
+        private Entry(final DeploymentInfo deploymentInfo, final String hash,
+                final NavigableMap<String, String> entryHashes) {
+            this.deploymentInfo = deploymentInfo;
+            this.hash = hash;
+            this.entryHashes = entryHashes;
+            this.references = 1;
+        }
+    }
+}
@@ -6,7 +6,11 @@
 package org.wildfly.testing.junit.extension;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
@@ -15,6 +19,10 @@ import org.junit.jupiter.api.extension.ExtensionContext.Store;
 /**
  * Holds deployment information for a test class, including the deployment name and resolved URI.
  * This class also manages caching deployment information in the JUnit {@link Store}.
+ * <p>
+ * A {@link org.junit.jupiter.api.Nested @Nested} test class without deployments of its own inherits the deployments,
+ * and the resolved URIs, of the closest enclosing test class which has deployments.
+ * </p>
  *
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
@@ -24,29 +32,83 @@ class DeploymentContext {
     private static final String DEPLOYMENT_KEY = "deployment";
 
     /**
-     * Retrieves cached deployment information for the current test class.
+     * Retrieves the cached information of the primary deployment for the current test class. If the test class has
+     * more than one deployment, the primary deployment is the first web deployment, a WAR or an EAR, or the first
+     * deployment if none of the deployments is a web deployment.
      *
      * @param context the extension context
      *
      * @return the cached deployment info, or empty if not cached
      */
     static Optional<DeploymentInfo> resolveDeployment(final ExtensionContext context) {
-        final String key = deploymentKey(context.getRequiredTestClass());
-        final Store store = getStore(context);
-        return Optional.ofNullable(store.get(key, DeploymentInfo.class));
+        final List<DeploymentInfo> deployments = resolveDeployments(context);
+        return deployments.stream()
+                .filter(DeploymentContext::isWebDeployment)
+                .findFirst()
+                .or(() -> deployments.stream().findFirst());
     }
 
     /**
-     * Retrieves cached URI for the deployment.
+     * Retrieves the cached deployment information for each deployment of the current test class, in deployment
+     * order. If the test class has no deployments, the deployments of the closest enclosing test class with
+     * deployments are returned.
      *
      * @param context the extension context
      *
-     * @return the cached URI, or empty if not cached
+     * @return the cached deployment information, or an empty list if not cached
      */
-    static URI computeIfAbsent(final ExtensionContext context, final Supplier<URI> supplier) {
-        final String key = uriKey(context.getRequiredTestClass());
-        final Store store = getStore(context);
-        return store.computeIfAbsent(key, (k) -> supplier.get(), URI.class);
+    static List<DeploymentInfo> resolveDeployments(final ExtensionContext context) {
+        return findOwner(context).map(DeploymentContext::resolveClassDeployments).orElseGet(List::of);
+    }
+
+    /**
+     * Retrieves the cached deployment information for each deployment deployed by the current test class itself, in
+     * deployment order. Deployments of enclosing test classes are not included.
+     *
+     * @param context the extension context
+     *
+     * @return the cached deployment information, or an empty list if not cached
+     */
+    @SuppressWarnings("unchecked")
+    static List<DeploymentInfo> resolveClassDeployments(final ExtensionContext context) {
+        final ExtensionContext classContext = classContext(context);
+        final String key = deploymentKey(classContext.getRequiredTestClass());
+        final List<DeploymentInfo> deployments = getStore(classContext).get(key, List.class);
+        return deployments == null ? List.of() : deployments;
+    }
+
+    /**
+     * Retrieves the cached information for the deployment with the given name.
+     *
+     * @param context        the extension context
+     * @param deploymentName the name of the deployment
+     *
+     * @return the cached deployment info, or empty if not cached
+     */
+    static Optional<DeploymentInfo> resolveDeployment(final ExtensionContext context, final String deploymentName) {
+        return resolveDeployments(context).stream()
+                .filter(info -> info.deploymentName().equals(deploymentName))
+                .findFirst();
+    }
+
+    /**
+     * Retrieves cached URI for the deployment.
+     *
+     * @param context        the extension context
+     * @param deploymentName the name of the deployment or {@code null} if the test class has no deployment
+     * @param supplier       the supplier used to resolve the URI if not cached
+     *
+     * @return the cached URI
+     */
+    @SuppressWarnings("unchecked")
+    static URI computeIfAbsent(final ExtensionContext context, final String deploymentName,
+            final Supplier<URI> supplier) {
+        // Share the URIs with the test class which owns the deployment
+        final ExtensionContext owner = findOwner(context).orElseGet(() -> classContext(context));
+        final String key = uriKey(owner.getRequiredTestClass());
+        final Store store = getStore(owner);
+        final Map<String, URI> uris = store.computeIfAbsent(key, (k) -> new ConcurrentHashMap<String, URI>(), Map.class);
+        return uris.computeIfAbsent(deploymentName == null ? "" : deploymentName, (name) -> supplier.get());
     }
 
     /**
@@ -56,9 +118,19 @@ class DeploymentContext {
      * @param info    the deployment information to cache
      */
     static void cache(final ExtensionContext context, final DeploymentInfo info) {
+        cache(context, List.of(info));
+    }
+
+    /**
+     * Caches the deployment information of all deployments for the current test class.
+     *
+     * @param context     the extension context
+     * @param deployments the deployment information to cache, in deployment order
+     */
+    static void cache(final ExtensionContext context, final List<DeploymentInfo> deployments) {
         final String key = deploymentKey(context.getRequiredTestClass());
         final Store store = getStore(context);
-        store.put(key, info);
+        store.put(key, List.copyOf(deployments));
     }
 
     /**
@@ -72,6 +144,29 @@ class DeploymentContext {
         store.remove(uriKey(context.getRequiredTestClass()));
     }
 
+    /**
+     * Finds the class context of the test class, or enclosing test class, which owns the deployments for the context.
+     *
+     * @param context the extension context
+     *
+     * @return the class context which owns the deployments, or empty if there are no deployments
+     */
+    private static Optional<ExtensionContext> findOwner(final ExtensionContext context) {
+        Optional<ExtensionContext> current = Optional.of(classContext(context));
+        while (current.isPresent() && current.get().getTestClass().isPresent()) {
+            if (!resolveClassDeployments(current.get()).isEmpty()) {
+                return current;
+            }
+            current = current.get().getParent();
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isWebDeployment(final DeploymentInfo deploymentInfo) {
+        final String name = deploymentInfo.deploymentName().toLowerCase(Locale.ROOT);
+        return name.endsWith(".war") || name.endsWith(".ear");
+    }
+
     private static String deploymentKey(final Class<?> testClass) {
         return DEPLOYMENT_KEY + "-" + testClass.getName();
     }
@@ -81,13 +176,23 @@ class DeploymentContext {
     }
 
     private static Store getStore(final ExtensionContext context) {
-        // We want to store on the class context, attempt to determine which that context
-        final ExtensionContext usingContext;
-        if (context.getTestMethod().isPresent()) {
-            usingContext = context.getParent().orElse(context);
-        } else {
-            usingContext = context;
+        // We want to store on the class context
+        return classContext(context).getStore(DEPLOYMENT_NAMESPACE);
+    }
+
+    /**
+     * Finds the class context for the context. Method contexts, including test template invocations, are nested in
+     * the class context.
+     *
+     * @param context the extension context
+     *
+     * @return the class context
+     */
+    static ExtensionContext classContext(final ExtensionContext context) {
+        ExtensionContext current = context;
+        while (current.getTestMethod().isPresent() && current.getParent().isPresent()) {
+            current = current.getParent().get();
         }
-        return usingContext.getStore(DEPLOYMENT_NAMESPACE);
+        return current;
     }
 }
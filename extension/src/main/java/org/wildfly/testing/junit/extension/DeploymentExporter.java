@@ -0,0 +1,183 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jboss.logging.Logger;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.exporter.StreamExporter;
+import org.junit.jupiter.api.Tag;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.wildfly.testing.junit.extension.annotation.WildFlyDomainTest;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * Exports the deployments of test classes at build time. The exported archives are used by the
+ * {@link WildFlyExtension} instead of invoking the deployment methods when the test class executes, as long as the
+ * classes have not changed since the archives were exported.
+ * <p>
+ * This is not part of the API of the extension. The {@code export-deployments} goal of the
+ * {@code wildfly-junit-extension-maven-plugin} invokes {@link #export(Path, List, ClassLoader)} reflectively from a
+ * class loader for the test class path of the project, so the exporter is always the same version as the extension
+ * which deploys the archives.
+ * </p>
+ * <p>
+ * Configuration parameters, such as {@code wildfly.archive.compression}, are resolved from the same sources JUnit
+ * resolves them from when the tests execute. The parameters passed to the exporter take precedence, followed by the
+ * system properties and finally the {@code junit-platform.properties} file of the test class path.
+ * </p>
+ * <p>
+ * Test classes with deployment methods which accept a {@link org.junit.jupiter.api.TestInfo} are not exported, as
+ * the test information may differ when the test executes. If a deployment method fails, the test class is not
+ * exported and the failure is reported when the test class executes.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+final class DeploymentExporter {
+    private static final Logger LOGGER = Logger.getLogger(DeploymentExporter.class);
+
+    private DeploymentExporter() {
+    }
+
+    /**
+     * Exports the deployments of the test classes annotated with {@link WildFlyTest} or {@link WildFlyDomainTest}
+     * found in the class directories.
+     *
+     * @param outputDir        the directory the archives and the manifest are written to
+     * @param classDirectories the class directories to scan for test classes
+     * @param classPath        the class path of the tests, which is recorded in the fingerprint of the manifest
+     * @param parameters       the configuration parameters which take precedence over the system properties and the
+     *                             {@code junit-platform.properties} file
+     * @param classLoader      the class loader used to load the test classes
+     *
+     * @return the number of test classes whose deployments were exported
+     *
+     * @throws IOException if the archives or the manifest could not be written
+     */
+    static int export(final Path outputDir, final List<Path> classDirectories, final List<Path> classPath,
+            final Map<String, String> parameters, final ClassLoader classLoader) throws IOException {
+        final Function<String, Optional<String>> configurationParameters = TestSupport
+                .loadConfigurationParameters(classLoader);
+        final Class<? extends StreamExporter> exporter = WildFlyExtension
+                .exporter(key -> Optional.ofNullable(parameters.get(key)).or(() -> configurationParameters.apply(key)));
+        final Properties manifest = new Properties();
+        Files.createDirectories(outputDir);
+        // Remove the previous manifest first, so a failed export never leaves a stale manifest behind
+        Files.deleteIfExists(outputDir.resolve(PrebuiltDeployments.MANIFEST_NAME));
+        int exported = 0;
+        for (Class<?> testClass : findTestClasses(classDirectories, classLoader)) {
+            if (PrebuiltDeployments.acceptsTestInfo(testClass)) {
+                LOGGER.debugf("Skipping %s as a deployment method accepts a TestInfo", testClass.getName());
+                continue;
+            }
+            final List<TestSupport.TestDeployment> deployments;
+            try {
+                deployments = TestSupport.findDeployments(testClass, TestSupport.createTestInfo(
+                        testClass.getSimpleName(), findTags(testClass), testClass));
+            } catch (RuntimeException e) {
+                LOGGER.warnf(e, "Failed to create the deployments of %s, they are created when the test executes.",
+                        testClass.getName());
+                continue;
+            }
+            if (deployments.isEmpty()) {
+                continue;
+            }
+            final List<String> archiveNames = new ArrayList<>();
+            for (TestSupport.TestDeployment deployment : deployments) {
+                final Archive<?> archive = deployment.archive();
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                WildFlyExtension.export(archive, exporter).exportTo(out);
+                final byte[] bytes = out.toByteArray();
+                final Path file = PrebuiltDeployments.archivePath(outputDir, testClass, archive.getName());
+                Files.createDirectories(file.getParent());
+                Files.write(file, bytes);
+                final String key = PrebuiltDeployments.entryKey(testClass, archive.getName());
+                manifest.setProperty(key + ".method", deployment.method().getName());
+                manifest.setProperty(key + ".hash", PrebuiltDeployments.hash(bytes));
+                archiveNames.add(archive.getName());
+            }
+            manifest.setProperty(testClass.getName(), String.join(",", archiveNames));
+            exported++;
+        }
+        // The class directories are usually on the class path as well
+        final List<Path> fingerprinted = Stream.concat(classDirectories.stream(), classPath.stream())
+                .distinct()
+                .toList();
+        manifest.setProperty(PrebuiltDeployments.CLASS_PATH_KEY, fingerprinted.stream()
+                .map(Path::toString)
+                .collect(Collectors.joining(File.pathSeparator)));
+        manifest.setProperty(PrebuiltDeployments.FINGERPRINT_KEY, PrebuiltDeployments.fingerprint(fingerprinted));
+        try (OutputStream out = Files.newOutputStream(outputDir.resolve(PrebuiltDeployments.MANIFEST_NAME))) {
+            manifest.store(out, "Deployments exported by " + DeploymentExporter.class.getName());
+        }
+        LOGGER.infof("Exported the deployments of %d test classes to %s", exported, outputDir);
+        return exported;
+    }
+
+    private static List<Class<?>> findTestClasses(final List<Path> classDirectories, final ClassLoader classLoader)
+            throws IOException {
+        final List<Class<?>> testClasses = new ArrayList<>();
+        for (Path dir : classDirectories) {
+            if (Files.notExists(dir)) {
+                continue;
+            }
+            final List<String> classNames;
+            try (Stream<Path> files = Files.walk(dir)) {
+                classNames = files.filter(file -> file.getFileName().toString().endsWith(".class"))
+                        .map(file -> toClassName(dir.relativize(file)))
+                        .filter(name -> !name.endsWith("module-info") && !name.endsWith("package-info"))
+                        .sorted()
+                        .toList();
+            }
+            for (String className : classNames) {
+                final Class<?> type;
+                try {
+                    type = Class.forName(className, false, classLoader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    LOGGER.debugf(e, "Failed to load %s", className);
+                    continue;
+                }
+                if (Modifier.isAbstract(type.getModifiers())) {
+                    continue;
+                }
+                if (AnnotationSupport.isAnnotated(type, WildFlyTest.class)
+                        || AnnotationSupport.isAnnotated(type, WildFlyDomainTest.class)) {
+                    testClasses.add(type);
+                }
+            }
+        }
+        return testClasses;
+    }
+
+    private static Set<String> findTags(final Class<?> testClass) {
+        return AnnotationSupport.findRepeatableAnnotations(testClass, Tag.class)
+                .stream()
+                .map(Tag::value)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String toClassName(final Path relativePath) {
+        final String path = relativePath.toString().replace(File.separatorChar, '.');
+        return path.substring(0, path.length() - ".class".length());
+    }
+}
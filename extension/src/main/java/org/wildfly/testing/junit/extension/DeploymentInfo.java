@@ -5,12 +5,79 @@
 
 package org.wildfly.testing.junit.extension;
 
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 /**
  * Simple information about a deployment.
  *
+ * @param deploymentName the name of the deployment
+ * @param serverGroups   the server groups the deployment is deployed to, empty for a standalone server
+ * @param content        the local path to the content of an unmanaged deployment, or {@code null} for a managed
+ *                           deployment
+ * @param contextRoots   the context roots of the web deployments, keyed by the name of the subdeployment or an empty
+ *                           string for the deployment itself, or {@code null} if the context roots have not been
+ *                           resolved
+ *
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
-record DeploymentInfo(String deploymentName, Set<String> serverGroups) {
+record DeploymentInfo(String deploymentName, Set<String> serverGroups, Path content, Map<String, String> contextRoots) {
+
+    DeploymentInfo(final String deploymentName, final Set<String> serverGroups) {
+        this(deploymentName, serverGroups, null);
+    }
+
+    DeploymentInfo(final String deploymentName, final Set<String> serverGroups, final Path content) {
+        this(deploymentName, serverGroups, content, null);
+    }
+
+    /**
+     * Creates a copy of this deployment information with the resolved context roots.
+     *
+     * @param contextRoots the context roots keyed by the name of the subdeployment or an empty string for the
+     *                         deployment itself
+     *
+     * @return the deployment information with the context roots
+     */
+    DeploymentInfo withContextRoots(final Map<String, String> contextRoots) {
+        return new DeploymentInfo(deploymentName, serverGroups, content, Map.copyOf(contextRoots));
+    }
+
+    /**
+     * Returns the context root of the deployment. For an EAR, this is the context root of the first WAR
+     * subdeployment, ordered by name.
+     *
+     * @return the context root, or an empty value if the deployment is not a web deployment or the context roots have
+     *             not been resolved
+     */
+    Optional<String> contextRoot() {
+        if (contextRoots == null) {
+            return Optional.empty();
+        }
+        final String contextRoot = contextRoots.get("");
+        if (contextRoot != null) {
+            return Optional.of(contextRoot);
+        }
+        return contextRoots.keySet()
+                .stream()
+                .filter(name -> name.toLowerCase(Locale.ROOT).endsWith(".war"))
+                .sorted()
+                .findFirst()
+                .map(contextRoots::get);
+    }
+
+    /**
+     * Checks whether the other deployment information describes the same deployment, i.e. has the same name and server
+     * groups. The content is not compared.
+     *
+     * @param other the other deployment information
+     *
+     * @return {@code true} if this is the same deployment
+     */
+    boolean isSameDeployment(final DeploymentInfo other) {
+        return deploymentName.equals(other.deploymentName) && serverGroups.equals(other.serverGroups);
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.store.Namespace;
+import org.junit.platform.engine.support.store.NamespacedHierarchicalStore;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * A listener which registers a {@link DeploymentPrefetcher} for each executed test plan when the
+ * {@code wildfly.deployment.prefetch} configuration parameter is set. The prefetcher is stored in the launcher session
+ * store, where the {@link WildFlyExtension} takes the prepared deployments from.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@MetaInfServices
+public class DeploymentPrefetchListener implements LauncherSessionListener {
+    private static final Namespace NAMESPACE = Namespace.create(WildFlyExtension.SERVER_NAMESPACE_NAME);
+
+    @Override
+    public void launcherSessionOpened(final LauncherSession session) {
+        session.getLauncher().registerTestExecutionListeners(new PrefetchExecutionListener(session.getStore()));
+    }
+
+    static class PrefetchExecutionListener implements TestExecutionListener {
+        private final NamespacedHierarchicalStore<Namespace> store;
+
+        PrefetchExecutionListener(final NamespacedHierarchicalStore<Namespace> store) {
+            this.store = store;
+        }
+
+        @Override
+        public void testPlanExecutionStarted(final TestPlan testPlan) {
+            DeploymentPrefetcher.create(testPlan)
+                    .ifPresent(prefetcher -> store.put(NAMESPACE, DeploymentPrefetcher.PREFETCHER_KEY, prefetcher));
+        }
+
+        @Override
+        public void executionSkipped(final TestIdentifier testIdentifier, final String reason) {
+            discard(testIdentifier);
+        }
+
+        @Override
+        public void executionFinished(final TestIdentifier testIdentifier, final TestExecutionResult testExecutionResult) {
+            discard(testIdentifier);
+        }
+
+        @Override
+        public void testPlanExecutionFinished(final TestPlan testPlan) {
+            final DeploymentPrefetcher prefetcher = store.remove(NAMESPACE, DeploymentPrefetcher.PREFETCHER_KEY,
+                    DeploymentPrefetcher.class);
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+        }
+
+        private void discard(final TestIdentifier testIdentifier) {
+            final DeploymentPrefetcher prefetcher = store.get(NAMESPACE, DeploymentPrefetcher.PREFETCHER_KEY,
+                    DeploymentPrefetcher.class);
+            if (prefetcher != null) {
+                testIdentifier.getSource()
+                        .filter(ClassSource.class::isInstance)
+                        .map(ClassSource.class::cast)
+                        .ifPresent(source -> prefetcher.discard(source.getJavaClass()));
+            }
+        }
+    }
+}
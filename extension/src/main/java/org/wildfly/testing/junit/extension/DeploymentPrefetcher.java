@@ -0,0 +1,234 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.jboss.logging.Logger;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.exporter.StreamExporter;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.TestTag;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.wildfly.testing.junit.extension.annotation.WildFlyDomainTest;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * Prepares the deployments of upcoming test classes in the background while the current test class executes.
+ * <p>
+ * The test classes are taken from the {@link TestPlan} in the order they were discovered. The number of test classes
+ * prepared ahead is defined by the {@code wildfly.deployment.prefetch} configuration parameter. A single background
+ * thread invokes the deployment methods of the test class and exports the archives as a ZIP. Once the test class
+ * executes, only the upload and deployment of the archives remain. Archives deployed exploded are only created, not
+ * exported, as the exploded content is exported by the deployment itself.
+ * </p>
+ * <p>
+ * If preparing a deployment fails, the deployment methods are invoked again when the test class executes. This reports
+ * the failure on the test class.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class DeploymentPrefetcher implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(DeploymentPrefetcher.class);
+
+    static final String PREFETCH_PROPERTY = "wildfly.deployment.prefetch";
+    static final String PREFETCHER_KEY = "wildfly.deployment.prefetcher";
+
+    private final List<TestClass> testClasses;
+    private final int size;
+    private final boolean export;
+    private final Class<? extends StreamExporter> exporter;
+    private final ClassLoader classLoader;
+    private final ExecutorService executor;
+    private final Map<Class<?>, Future<PreparedDeployments>> pending;
+    private final Set<Class<?>> claimed;
+    private int next;
+
+    private DeploymentPrefetcher(final List<TestClass> testClasses, final int size,
+            final ConfigurationParameters parameters) {
+        this.testClasses = testClasses;
+        this.size = size;
+        this.export = !ExplodedDeployment.isEnabled(parameters::get);
+        this.exporter = WildFlyExtension.exporter(parameters::get);
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "wildfly-deployment-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new LinkedHashMap<>();
+        this.claimed = new HashSet<>();
+    }
+
+    /**
+     * Creates a prefetcher for the test classes in the test plan if prefetching is enabled.
+     *
+     * @param testPlan the test plan being executed
+     *
+     * @return the prefetcher or an empty value if prefetching is not enabled or there are no test classes
+     */
+    static Optional<DeploymentPrefetcher> create(final TestPlan testPlan) {
+        final ConfigurationParameters parameters = testPlan.getConfigurationParameters();
+        final int size = parameters.get(PREFETCH_PROPERTY)
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(Integer::parseInt)
+                .orElse(0);
+        if (size <= 0) {
+            return Optional.empty();
+        }
+        final List<TestClass> testClasses = new ArrayList<>();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            collect(testPlan, root, testClasses);
+        }
+        if (testClasses.isEmpty()) {
+            return Optional.empty();
+        }
+        LOGGER.debugf("Preparing the deployments of %d test classes, %d ahead", testClasses.size(), size);
+        final DeploymentPrefetcher prefetcher = new DeploymentPrefetcher(testClasses, size, parameters);
+        prefetcher.fill();
+        return Optional.of(prefetcher);
+    }
+
+    /**
+     * Takes the prepared deployments of the test class. Waits for the deployments to be prepared if preparing them is
+     * in progress.
+     *
+     * @param testClass the test class
+     *
+     * @return the prepared deployments or an empty value if the deployments have not been prepared
+     */
+    Optional<PreparedDeployments> take(final Class<?> testClass) {
+        final Future<PreparedDeployments> future;
+        synchronized (this) {
+            claimed.add(testClass);
+            future = pending.remove(testClass);
+            fill();
+        }
+        if (future == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(future.get());
+        } catch (ExecutionException e) {
+            LOGGER.debugf(e.getCause(), "Failed to prepare the deployments for %s", testClass.getName());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Discards the prepared deployments of a test class which has completed or was skipped. This frees the slot of the
+     * test class for the next test class to prepare.
+     *
+     * @param testClass the test class
+     */
+    synchronized void discard(final Class<?> testClass) {
+        claimed.add(testClass);
+        final Future<PreparedDeployments> future = pending.remove(testClass);
+        if (future != null) {
+            future.cancel(true);
+            fill();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            pending.values().forEach(future -> future.cancel(true));
+            pending.clear();
+        }
+        executor.shutdownNow();
+    }
+
+    private void fill() {
+        while (pending.size() < size && next < testClasses.size()) {
+            final TestClass testClass = testClasses.get(next++);
+            if (claimed.contains(testClass.type())) {
+                continue;
+            }
+            pending.put(testClass.type(), executor.submit(() -> prepare(testClass)));
+        }
+    }
+
+    private PreparedDeployments prepare(final TestClass testClass) {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader current = thread.getContextClassLoader();
+        try {
+            thread.setContextClassLoader(classLoader);
+            final List<TestSupport.TestDeployment> deployments = TestSupport.findDeployments(testClass.type(),
+                    testClass.testInfo());
+            final Map<String, byte[]> content = new HashMap<>();
+            if (export) {
+                for (TestSupport.TestDeployment deployment : deployments) {
+                    final Archive<?> archive = deployment.archive();
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    WildFlyExtension.export(archive, exporter).exportTo(out);
+                    content.put(archive.getName(), out.toByteArray());
+                }
+            }
+            LOGGER.debugf("Prepared %d deployments for %s", deployments.size(), testClass.type().getName());
+            return new PreparedDeployments(deployments, content);
+        } finally {
+            thread.setContextClassLoader(current);
+        }
+    }
+
+    private static void collect(final TestPlan testPlan, final TestIdentifier identifier,
+            final List<TestClass> testClasses) {
+        identifier.getSource()
+                .filter(ClassSource.class::isInstance)
+                .map(ClassSource.class::cast)
+                .ifPresent(source -> {
+                    final Class<?> type = source.getJavaClass();
+                    if (AnnotationSupport.isAnnotated(type, WildFlyTest.class)
+                            || AnnotationSupport.isAnnotated(type, WildFlyDomainTest.class)) {
+                        final Set<String> tags = identifier.getTags().stream()
+                                .map(TestTag::getName)
+                                .collect(Collectors.toUnmodifiableSet());
+                        testClasses.add(new TestClass(type,
+                                TestSupport.createTestInfo(identifier.getDisplayName(), tags, type)));
+                    }
+                });
+        for (TestIdentifier child : testPlan.getChildren(identifier)) {
+            if (child.isContainer()) {
+                collect(testPlan, child, testClasses);
+            }
+        }
+    }
+
+    /**
+     * The deployments prepared for a test class.
+     *
+     * @param deployments the archives to deploy, in deployment order
+     * @param content     the exported archives keyed by the archive name, empty if the archives were not exported
+     */
+    record PreparedDeployments(List<TestSupport.TestDeployment> deployments, Map<String, byte[]> content) {
+    }
+
+    private record TestClass(Class<?> type, TestInfo testInfo) {
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.jboss.logging.Logger;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.engine.support.store.Namespace;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import org.kohsuke.MetaInfServices;
+import org.wildfly.plugin.tools.server.Configuration;
+import org.wildfly.plugin.tools.server.ServerManager;
+import org.wildfly.testing.junit.extension.api.DomainConfigurationFactory;
+import org.wildfly.testing.junit.extension.api.ServerConfiguration;
+import org.wildfly.testing.junit.extension.api.StandaloneConfigurationFactory;
+
+/**
+ * A listener which starts the server asynchronously as soon as the launcher session is opened. This allows the server
+ * to boot while the tests are discovered and the first deployment is created. The {@link WildFlyExtension} then waits
+ * for the server to complete its boot instead of starting a new server.
+ * <p>
+ * The server is only started when the {@code wildfly.server.eager.start} configuration parameter is set to
+ * {@code standalone} or {@code domain}. As the configuration parameters of the launcher are not available when the
+ * session is opened, the configuration is resolved from the system properties and the
+ * {@code junit-platform.properties} file on the class path.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@MetaInfServices
+public class EagerServerStartListener implements LauncherSessionListener {
+    private static final Logger LOGGER = Logger.getLogger(EagerServerStartListener.class);
+
+    static final String EAGER_START_PROPERTY = "wildfly.server.eager.start";
+    static final String STARTING_SERVER_KEY = "wildfly.server.starting";
+
+    @Override
+    public void launcherSessionOpened(final LauncherSession session) {
+        final Function<String, Optional<String>> parameters = TestSupport
+                .loadConfigurationParameters(Thread.currentThread().getContextClassLoader());
+        final Optional<String> mode = parameters.apply(EAGER_START_PROPERTY)
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .filter(value -> !value.isEmpty());
+        if (mode.isEmpty()) {
+            return;
+        }
+        final boolean domain;
+        final Configuration<?> configuration;
+        try {
+            if (ServerAttach.isEnabled(parameters)) {
+                // Do not launch a server if one is already running to attach to
+                final Optional<ServerManager> attached = ServerAttach.attach(parameters, "domain".equals(mode.get()));
+                if (attached.isPresent()) {
+                    attached.get().close();
+                    return;
+                }
+            }
+            switch (mode.get()) {
+                case "standalone" -> {
+                    domain = false;
+                    configuration = StandaloneConfigurationFactory.create().configuration(parameters, null, 0);
+                }
+                case "domain" -> {
+                    domain = true;
+                    configuration = DomainConfigurationFactory.create().configuration(parameters);
+                }
+                default -> {
+                    LOGGER.warnf("Invalid value %s for %s, expected standalone or domain. The server will be started by "
+                            + "the first test.", mode.get(), EAGER_START_PROPERTY);
+                    return;
+                }
+            }
+        } catch (JUnitException e) {
+            LOGGER.warnf(e, "Could not create the configuration to start the server. The server will be started by the "
+                    + "first test.");
+            return;
+        }
+        final long timeout = ServerConfiguration.timeout(parameters);
+        final ServerManager serverManager = ServerManager.of(configuration);
+        LOGGER.debugf("Starting %s server at the start of the launcher session", mode.get());
+        final CompletableFuture<ServerManager> future = serverManager.startAsync(timeout, TimeUnit.SECONDS)
+                .toCompletableFuture();
+        session.getStore().put(Namespace.create(WildFlyExtension.SERVER_NAMESPACE_NAME), STARTING_SERVER_KEY,
+                new StartingServer(serverManager, domain, timeout, future));
+    }
+
+    /**
+     * A server which has been started when the launcher session was opened. If the server is not claimed by the
+     * {@link WildFlyExtension}, it is stopped when the launcher session is closed.
+     */
+    static class StartingServer implements AutoCloseable {
+        private final ServerManager serverManager;
+        private final boolean domain;
+        private final long timeout;
+        private final CompletableFuture<ServerManager> future;
+
+        StartingServer(final ServerManager serverManager, final boolean domain, final long timeout,
+                final CompletableFuture<ServerManager> future) {
+            this.serverManager = serverManager;
+            this.domain = domain;
+            this.timeout = timeout;
+            this.future = future;
+        }
+
+        /**
+         * Indicates whether the server being started is a managed domain.
+         *
+         * @return {@code true} for a managed domain, {@code false} for a standalone server
+         */
+        boolean isDomain() {
+            return domain;
+        }
+
+        /**
+         * Waits for the server to complete its boot.
+         *
+         * @return the started server
+         *
+         * @throws JUnitException if the server failed to start
+         */
+        ServerManager join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw new JUnitException("Failed to start the server", e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            future.cancel(false);
+            try {
+                serverManager.shutdown(timeout);
+            } catch (IOException e) {
+                serverManager.kill();
+                LOGGER.error("Failed to stop server", e);
+            }
+        }
+    }
+}
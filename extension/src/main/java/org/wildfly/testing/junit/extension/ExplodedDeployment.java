@@ -0,0 +1,216 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.jboss.logging.Logger;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.exporter.ExplodedExporter;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.JUnitException;
+
+/**
+ * Support for deploying archives exploded on the local file system as unmanaged deployments. The server reads the
+ * content of an unmanaged deployment in place, which avoids exporting the archive as a ZIP, uploading it and the server
+ * storing and extracting it again.
+ * <p>
+ * Exploded deployments are enabled with the {@code wildfly.deployment.exploded} configuration parameter. Each
+ * deployment is exported to a new directory in the directory defined by the {@code wildfly.deployment.exploded.dir}
+ * configuration parameter, which defaults to the {@code java.io.tmpdir}. The directory is deleted once the deployment
+ * has been undeployed.
+ * </p>
+ * <p>
+ * With the {@code wildfly.deployment.exploded.incremental} configuration parameter enabled, exploded deployments are
+ * kept deployed once a test class completes. If the next test class has a deployment with the same name, only the
+ * entries which differ are written to the exploded directory and the deployment is redeployed. Deployments with a
+ * different name are always exported in full.
+ * </p>
+ * <p>
+ * As the server reads the content from the local file system, this can only be used with a server running on the same
+ * machine.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+final class ExplodedDeployment {
+    private static final Logger LOGGER = Logger.getLogger(ExplodedDeployment.class);
+
+    static final String EXPLODED_PROPERTY = "wildfly.deployment.exploded";
+    static final String EXPLODED_DIR_PROPERTY = "wildfly.deployment.exploded.dir";
+    static final String INCREMENTAL_PROPERTY = "wildfly.deployment.exploded.incremental";
+
+    private ExplodedDeployment() {
+    }
+
+    /**
+     * Checks whether deployments should be deployed exploded.
+     *
+     * @param context the extension context
+     *
+     * @return {@code true} if deployments should be exploded
+     */
+    static boolean isEnabled(final ExtensionContext context) {
+        return isEnabled(context::getConfigurationParameter);
+    }
+
+    /**
+     * Checks whether deployments should be deployed exploded.
+     *
+     * @param parameters the function used to look up configuration parameters
+     *
+     * @return {@code true} if deployments should be exploded
+     */
+    static boolean isEnabled(final Function<String, Optional<String>> parameters) {
+        return TestSupport.isEnabled(parameters, EXPLODED_PROPERTY)
+                || TestSupport.isEnabled(parameters, INCREMENTAL_PROPERTY);
+    }
+
+    /**
+     * Checks whether exploded deployments should be updated incrementally. This implies exploded deployments.
+     *
+     * @param context the extension context
+     *
+     * @return {@code true} if exploded deployments should be updated incrementally
+     */
+    static boolean isIncremental(final ExtensionContext context) {
+        return TestSupport.isEnabled(context::getConfigurationParameter, INCREMENTAL_PROPERTY);
+    }
+
+    /**
+     * Exports the archive exploded into a new directory. The returned path is the exploded archive, which is named
+     * after the archive.
+     *
+     * @param context the extension context
+     * @param archive the archive to export
+     *
+     * @return the path to the exploded archive
+     *
+     * @throws JUnitException if the archive could not be exported
+     */
+    static Path export(final ExtensionContext context, final Archive<?> archive) {
+        try {
+            final Path parent = context.getConfigurationParameter(EXPLODED_DIR_PROPERTY)
+                    .map(Path::of)
+                    .orElseGet(() -> Path.of(System.getProperty("java.io.tmpdir")));
+            Files.createDirectories(parent);
+            final Path dir = Files.createTempDirectory(parent.toAbsolutePath(), "wildfly-deployment-");
+            archive.as(ExplodedExporter.class).exportExploded(dir.toFile(), archive.getName());
+            return dir.resolve(archive.getName());
+        } catch (IOException | RuntimeException e) {
+            throw new JUnitException("Failed to export archive %s exploded".formatted(archive.getName()), e);
+        }
+    }
+
+    /**
+     * Updates the exploded archive with the entries which differ between the previous and the new archive. Entries
+     * which no longer exist are deleted, entries which are new or have changed are written. Nested archives are
+     * replaced as a whole.
+     *
+     * @param content        the path to the exploded archive
+     * @param archive        the new archive
+     * @param previousHashes the entry hashes of the archive which was previously exported
+     * @param currentHashes  the entry hashes of the new archive
+     *
+     * @return the number of entries which were deleted or written
+     *
+     * @throws IOException if an error occurs updating the exploded archive
+     */
+    static int update(final Path content, final Archive<?> archive, final NavigableMap<String, String> previousHashes,
+            final NavigableMap<String, String> currentHashes) throws IOException {
+        int changes = 0;
+        // Delete in reverse order so that entries are deleted before their parent directories
+        for (String path : previousHashes.descendingKeySet()) {
+            if (!currentHashes.containsKey(path)) {
+                deleteRecursively(resolve(content, path));
+                changes++;
+            }
+        }
+        for (Map.Entry<String, String> entry : currentHashes.entrySet()) {
+            final String path = entry.getKey();
+            if (Objects.equals(previousHashes.get(path), entry.getValue())) {
+                continue;
+            }
+            final Path target = resolve(content, path);
+            final Node node = archive.get(path);
+            final Asset asset = node == null ? null : node.getAsset();
+            if (asset == null) {
+                if (!Files.isDirectory(target)) {
+                    Files.deleteIfExists(target);
+                    Files.createDirectories(target);
+                }
+            } else {
+                if (Files.isDirectory(target)) {
+                    deleteRecursively(target);
+                }
+                Files.createDirectories(target.getParent());
+                if (asset instanceof ArchiveAsset archiveAsset) {
+                    // Nested archives are exported exploded, the same as the ExplodedExporter does
+                    archiveAsset.getArchive().as(ExplodedExporter.class).exportExploded(target.getParent().toFile());
+                } else {
+                    try (InputStream in = asset.openStream()) {
+                        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            changes++;
+        }
+        return changes;
+    }
+
+    /**
+     * Deletes the directory an exploded archive was exported to. This must only be invoked once the deployment has
+     * been undeployed.
+     *
+     * @param content the path to the exploded archive
+     */
+    static void delete(final Path content) {
+        final Path dir = content.getParent();
+        try {
+            deleteRecursively(dir);
+        } catch (IOException e) {
+            LOGGER.warnf(e, "Failed to delete exploded deployment %s", dir);
+        }
+    }
+
+    private static Path resolve(final Path content, final String path) {
+        return content.resolve(path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    private static void deleteRecursively(final Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
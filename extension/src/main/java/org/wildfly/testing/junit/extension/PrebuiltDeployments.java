@@ -0,0 +1,258 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.jboss.logging.Logger;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.GenericArchive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.importer.ZipImporter;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.platform.commons.JUnitException;
+
+/**
+ * The deployments exported at build time by the {@link DeploymentExporter}.
+ * <p>
+ * The exported archives are described by a manifest, which records a fingerprint of the class path the deployment
+ * methods were invoked from, and a SHA-256 hash of each exported archive. The fingerprint covers the class directories
+ * of the project and the other class path elements, such as the JAR files of the dependencies. The prebuilt archives
+ * are only used if the class path still has the same fingerprint, in other words nothing was recompiled and no
+ * dependency changed since the archives were exported. An archive whose content no longer matches its hash is ignored,
+ * and the deployment methods of the test class are invoked instead.
+ * </p>
+ * <p>
+ * The fingerprint is computed from the path, size and last modified time of each file, so checking it does not read
+ * the class files or the JAR files.
+ * </p>
+ * <p>
+ * Prebuilt deployments are used when the {@code wildfly.deployment.prebuilt} configuration parameter is set to the
+ * directory the archives were exported to.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class PrebuiltDeployments {
+    private static final Logger LOGGER = Logger.getLogger(PrebuiltDeployments.class);
+
+    static final String PREBUILT_PROPERTY = "wildfly.deployment.prebuilt";
+    static final String MANIFEST_NAME = "deployments.properties";
+    static final String FINGERPRINT_KEY = "fingerprint";
+    static final String CLASS_PATH_KEY = "class.path";
+
+    private final Path directory;
+    private final Properties manifest;
+
+    private PrebuiltDeployments(final Path directory, final Properties manifest) {
+        this.directory = directory;
+        this.manifest = manifest;
+    }
+
+    /**
+     * Loads the manifest of the prebuilt deployments from the directory. If the manifest does not exist or the class
+     * path has changed since the archives were exported, no prebuilt deployments are available.
+     *
+     * @param directory the directory the archives were exported to
+     *
+     * @return the prebuilt deployments
+     */
+    static PrebuiltDeployments load(final Path directory) {
+        final Path manifestFile = directory.resolve(MANIFEST_NAME);
+        final Properties manifest = new Properties();
+        if (Files.notExists(manifestFile)) {
+            LOGGER.debugf("No prebuilt deployments found in %s", directory);
+            return new PrebuiltDeployments(directory, manifest);
+        }
+        try (InputStream in = Files.newInputStream(manifestFile)) {
+            manifest.load(in);
+        } catch (IOException e) {
+            LOGGER.warnf(e, "Failed to read the prebuilt deployments manifest %s", manifestFile);
+            return new PrebuiltDeployments(directory, new Properties());
+        }
+        final List<Path> classPath = Stream.of(manifest.getProperty(CLASS_PATH_KEY, "").split(File.pathSeparator))
+                .filter(value -> !value.isBlank())
+                .map(Path::of)
+                .toList();
+        final String fingerprint = fingerprint(classPath);
+        if (!fingerprint.equals(manifest.getProperty(FINGERPRINT_KEY))) {
+            LOGGER.infof("The class path changed since the deployments in %s were exported, the prebuilt deployments "
+                    + "are ignored.", directory);
+            return new PrebuiltDeployments(directory, new Properties());
+        }
+        return new PrebuiltDeployments(directory, manifest);
+    }
+
+    /**
+     * Takes the prebuilt deployments of the test class.
+     *
+     * @param testClass the test class
+     *
+     * @return the prebuilt deployments or an empty value if the test class has no valid prebuilt deployments
+     */
+    Optional<DeploymentPrefetcher.PreparedDeployments> take(final Class<?> testClass) {
+        final String archiveNames = manifest.getProperty(testClass.getName());
+        if (archiveNames == null) {
+            return Optional.empty();
+        }
+        final List<TestSupport.TestDeployment> deployments = new ArrayList<>();
+        final Map<String, byte[]> content = new HashMap<>();
+        for (String archiveName : archiveNames.split(",")) {
+            final String key = entryKey(testClass, archiveName);
+            final Optional<Method> method = Optional.ofNullable(manifest.getProperty(key + ".method"))
+                    .flatMap(TestClassDescriptor.of(testClass)::findDeploymentMethod);
+            if (method.isEmpty()) {
+                LOGGER.debugf("The deployment method of %s in %s no longer exists", archiveName, testClass.getName());
+                return Optional.empty();
+            }
+            final byte[] bytes;
+            try {
+                bytes = Files.readAllBytes(archivePath(directory, testClass, archiveName));
+            } catch (IOException e) {
+                LOGGER.debugf(e, "Failed to read the prebuilt deployment %s for %s", archiveName, testClass.getName());
+                return Optional.empty();
+            }
+            if (!hash(bytes).equals(manifest.getProperty(key + ".hash"))) {
+                LOGGER.debugf("The prebuilt deployment %s for %s was modified", archiveName, testClass.getName());
+                return Optional.empty();
+            }
+            final Archive<?> archive = ShrinkWrap.create(ZipImporter.class, archiveName)
+                    .importFrom(new ByteArrayInputStream(bytes))
+                    .as(GenericArchive.class);
+            deployments.add(new TestSupport.TestDeployment(archive, method.get()));
+            content.put(archiveName, bytes);
+        }
+        LOGGER.debugf("Using %d prebuilt deployments for %s", deployments.size(), testClass.getName());
+        return Optional.of(new DeploymentPrefetcher.PreparedDeployments(deployments, content));
+    }
+
+    /**
+     * Computes a fingerprint of the class path elements. An element is either a directory, in which case each file in
+     * the directory is included, or a file such as a JAR. The fingerprint changes if a file is added, removed or
+     * modified. Only the size and the last modified time of the files are read, not their content.
+     *
+     * @param classPath the class path elements to compute the fingerprint of
+     *
+     * @return the fingerprint as a hex string
+     */
+    static String fingerprint(final List<Path> classPath) {
+        final MessageDigest digest = digest();
+        for (Path element : classPath) {
+            digest.update(element.toString().getBytes(StandardCharsets.UTF_8));
+            if (Files.notExists(element)) {
+                continue;
+            }
+            try {
+                if (Files.isDirectory(element)) {
+                    try (Stream<Path> files = Files.walk(element)) {
+                        final List<Path> sorted = files.filter(Files::isRegularFile)
+                                .sorted()
+                                .toList();
+                        for (Path file : sorted) {
+                            digest.update(element.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                            update(digest, file);
+                        }
+                    }
+                } else {
+                    update(digest, element);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to compute the fingerprint of %s".formatted(element), e);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the SHA-256 hash of the bytes.
+     *
+     * @param bytes the bytes to hash
+     *
+     * @return the hash as a hex string
+     */
+    static String hash(final byte[] bytes) {
+        return HexFormat.of().formatHex(digest().digest(bytes));
+    }
+
+    /**
+     * Resolves the path of an exported archive.
+     *
+     * @param directory   the directory the archives are exported to
+     * @param testClass   the test class the archive belongs to
+     * @param archiveName the name of the archive
+     *
+     * @return the path to the exported archive
+     */
+    static Path archivePath(final Path directory, final Class<?> testClass, final String archiveName) {
+        return directory.resolve(testClass.getName()).resolve(archiveName);
+    }
+
+    /**
+     * Creates the manifest key prefix for an archive of a test class.
+     *
+     * @param testClass   the test class the archive belongs to
+     * @param archiveName the name of the archive
+     *
+     * @return the key prefix
+     */
+    static String entryKey(final Class<?> testClass, final String archiveName) {
+        return testClass.getName() + "/" + archiveName;
+    }
+
+    /**
+     * Checks whether any deployment method of the test class accepts a {@link TestInfo}. The
+     * test information at build time may differ from the test information when the test executes, so these
+     * deployments are not exported.
+     *
+     * @param testClass the test class
+     *
+     * @return {@code true} if a deployment method accepts a {@code TestInfo}
+     */
+    static boolean acceptsTestInfo(final Class<?> testClass) {
+        final TestClassDescriptor descriptor = TestClassDescriptor.of(testClass);
+        return Stream.concat(descriptor.generateDeploymentMethods().stream(),
+                descriptor.deploymentProducerMethods().stream())
+                .flatMap(method -> Arrays.stream(method.getParameterTypes()))
+                .anyMatch(TestInfo.class::isAssignableFrom);
+    }
+
+    private static void update(final MessageDigest digest, final Path file) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        digest.update(ByteBuffer.allocate(Long.BYTES * 2)
+                .putLong(attributes.size())
+                .putLong(attributes.lastModifiedTime().toMillis())
+                .flip());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new JUnitException("SHA-256 is not available", e);
+        }
+    }
+}
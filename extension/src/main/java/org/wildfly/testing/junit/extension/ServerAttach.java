@@ -0,0 +1,137 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.logging.Logger;
+import org.junit.platform.commons.JUnitException;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * Support for attaching to an already running server instead of launching a new one.
+ * <p>
+ * Attaching is enabled with the {@code wildfly.server.attach} configuration parameter. The server is looked up on the
+ * management interface defined by the {@code wildfly.management.host} and {@code wildfly.management.port}
+ * configuration parameters. If no server is running, a server is launched as usual. An attached server is never
+ * shutdown by the extension.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+final class ServerAttach {
+    private static final Logger LOGGER = Logger.getLogger(ServerAttach.class);
+
+    static final String ATTACH_PROPERTY = "wildfly.server.attach";
+    static final String MANAGEMENT_HOST_PROPERTY = "wildfly.management.host";
+    static final String MANAGEMENT_PORT_PROPERTY = "wildfly.management.port";
+
+    private ServerAttach() {
+    }
+
+    /**
+     * Checks whether attaching to a running server is enabled.
+     *
+     * @param parameters the function used to look up configuration parameters
+     *
+     * @return {@code true} if attaching to a running server is enabled
+     */
+    static boolean isEnabled(final Function<String, Optional<String>> parameters) {
+        return TestSupport.isEnabled(parameters, ATTACH_PROPERTY);
+    }
+
+    /**
+     * Attempts to attach to a running server. If attaching is not enabled or there is no server running on the
+     * management interface, an empty value is returned.
+     *
+     * @param parameters the function used to look up configuration parameters
+     * @param domain     {@code true} if a managed domain is required, {@code false} for a standalone server
+     *
+     * @return the server manager for the running server or an empty value
+     *
+     * @throws JUnitException if the running server is not of the required launch type
+     */
+    static Optional<ServerManager> attach(final Function<String, Optional<String>> parameters, final boolean domain) {
+        return attach(parameters, domain, ModelControllerClient.Factory::create);
+    }
+
+    /**
+     * Attempts to attach to a running server, using the client factory to connect to the management interface.
+     *
+     * @param parameters    the function used to look up configuration parameters
+     * @param domain        {@code true} if a managed domain is required, {@code false} for a standalone server
+     * @param clientFactory the factory used to create the management client
+     *
+     * @return the server manager for the running server or an empty value
+     *
+     * @throws JUnitException if the running server is not of the required launch type
+     */
+    @SuppressWarnings("resource")
+    static Optional<ServerManager> attach(final Function<String, Optional<String>> parameters, final boolean domain,
+            final ClientFactory clientFactory) {
+        if (!isEnabled(parameters)) {
+            return Optional.empty();
+        }
+        final String host = parameters.apply(MANAGEMENT_HOST_PROPERTY).orElse("localhost");
+        final int port = parameters.apply(MANAGEMENT_PORT_PROPERTY).map(Integer::parseInt).orElse(9990);
+        final ModelControllerClient client;
+        try {
+            client = clientFactory.create(host, port);
+        } catch (UnknownHostException e) {
+            throw new JUnitException("Could not resolve the management host %s".formatted(host), e);
+        }
+        if (!ServerManager.isRunning(client)) {
+            LOGGER.debugf("No server running on %s:%d, a server will be launched.", host, port);
+            close(client);
+            return Optional.empty();
+        }
+        final String launchType = ServerManager.launchType(client).orElse("");
+        final String required = domain ? "DOMAIN" : "STANDALONE";
+        if (!required.equalsIgnoreCase(launchType)) {
+            close(client);
+            throw new JUnitException("The server running on %s:%d has a launch type of %s, but %s is required."
+                    .formatted(host, port, launchType, required));
+        }
+        LOGGER.infof("Attaching to the %s server running on %s:%d", launchType.toLowerCase(), host, port);
+        final ServerManager.Builder builder = ServerManager.builder()
+                .client(client)
+                .managementAddress(host)
+                .managementPort(port)
+                .shutdownOnClose(false);
+        return Optional.of(domain ? builder.domain() : builder.standalone());
+    }
+
+    /**
+     * Creates the client for the management interface of the server.
+     */
+    @FunctionalInterface
+    interface ClientFactory {
+
+        /**
+         * Creates the management client.
+         *
+         * @param host the management host
+         * @param port the management port
+         *
+         * @return the management client
+         *
+         * @throws UnknownHostException if the host could not be resolved
+         */
+        ModelControllerClient create(String host, int port) throws UnknownHostException;
+    }
+
+    private static void close(final ModelControllerClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Failed to close the management client.");
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.JUnitException;
+import org.wildfly.plugin.tools.server.ServerManager;
+import org.wildfly.testing.junit.extension.api.ServerConfiguration;
+
+/**
+ * A pool of servers which test classes lease for their whole lifecycle.
+ * <p>
+ * The size of the pool is defined by the {@code wildfly.server.pool.size} configuration parameter and defaults to
+ * {@code 1}. With the default size, the single server is shared by all test classes, as no other server could run
+ * them. With a larger pool, each lease is exclusive and a test class waits until a server is available.
+ * </p>
+ * <p>
+ * The first server uses the default base directory and ports. Each additional server uses its own base directory, a
+ * copy of the {@code standalone/configuration} directory created in the {@code wildfly.server.pool.dir} directory, and
+ * a port offset of {@code wildfly.server.pool.port.offset} multiplied by the index of the server. Servers are created
+ * lazily the first time they are leased. The most recently released server is leased first, so only as many servers
+ * are started as test classes run at the same time.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class ServerPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ServerPool.class);
+
+    static final String POOL_SIZE_PROPERTY = "wildfly.server.pool.size";
+    static final String POOL_DIR_PROPERTY = "wildfly.server.pool.dir";
+    static final String PORT_OFFSET_PROPERTY = "wildfly.server.pool.port.offset";
+
+    private final PooledServer[] servers;
+    private final BlockingDeque<Integer> available;
+    private final BiFunction<Integer, ExtensionContext, PooledServer> factory;
+    private final ServerStopper stopper;
+
+    private ServerPool(final int size, final BiFunction<Integer, ExtensionContext, PooledServer> factory,
+            final ServerStopper stopper) {
+        this.servers = new PooledServer[size];
+        this.available = new LinkedBlockingDeque<>();
+        for (int i = 0; i < size; i++) {
+            available.add(i);
+        }
+        this.factory = factory;
+        this.stopper = stopper;
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param context       the context used to resolve the pool configuration
+     * @param pooled        {@code false} if only a single server can be used, e.g. for a managed domain
+     * @param serverFactory the factory used to create the server for a base directory and port offset
+     * @param stopper       used to stop servers when the pool is closed
+     *
+     * @return the new pool
+     */
+    static ServerPool create(final ExtensionContext context, final boolean pooled, final ServerFactory serverFactory,
+            final ServerStopper stopper) {
+        final int size = pooled ? context.getConfigurationParameter(POOL_SIZE_PROPERTY, Integer::parseInt).orElse(1)
+                : 1;
+        if (size < 1) {
+            throw new JUnitException("The %s must be at least 1, found %d".formatted(POOL_SIZE_PROPERTY, size));
+        }
+        final int portOffset = context.getConfigurationParameter(PORT_OFFSET_PROPERTY, Integer::parseInt).orElse(100);
+        final int retain = context.getConfigurationParameter(DeploymentCache.RETAIN_PROPERTY, Integer::parseInt)
+                .orElse(DeploymentCache.DEFAULT_RETAIN);
+        if (retain < 0) {
+            throw new JUnitException("The %s must not be negative, found %d".formatted(DeploymentCache.RETAIN_PROPERTY,
+                    retain));
+        }
+        return new ServerPool(size, (index, ctx) -> {
+            if (index == 0) {
+                return PooledServer.of(serverFactory.create(ctx, null, 0), 0, retain);
+            }
+            final int offset = index * portOffset;
+            return PooledServer.of(serverFactory.create(ctx, createBaseDir(ctx, index), offset), offset, retain);
+        }, stopper);
+    }
+
+    /**
+     * Leases a server for the test class. If the pool has a single server, the server is shared. Otherwise, this
+     * blocks until a server is available.
+     *
+     * @param context the context of the test class leasing the server
+     *
+     * @return the lease which must be closed to return the server to the pool
+     */
+    Lease lease(final ExtensionContext context) {
+        if (servers.length == 1) {
+            return new Lease(this, -1, getOrCreate(0, context));
+        }
+        try {
+            final int index = available.takeFirst();
+            try {
+                return new Lease(this, index, getOrCreate(index, context));
+            } catch (RuntimeException | Error e) {
+                available.addFirst(index);
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JUnitException("Interrupted while waiting for a server from the pool", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (PooledServer server : servers) {
+            if (server != null) {
+                // Wait for pending undeployments before undeploying retained deployments and stopping the server
+                server.undeployer().close();
+                // Undeploy any deployments retained for reuse, in case the server is not stopped
+                server.deploymentCache().close();
+                stopper.stop(server.serverManager());
+            }
+        }
+    }
+
+    private synchronized PooledServer getOrCreate(final int index, final ExtensionContext context) {
+        PooledServer server = servers[index];
+        if (server == null) {
+            server = factory.apply(index, context);
+            servers[index] = server;
+        }
+        return server;
+    }
+
+    private void release(final int index) {
+        if (index >= 0) {
+            // Released servers are leased first, so sequential test classes reuse the same running server
+            available.addFirst(index);
+        }
+    }
+
+    private static Path createBaseDir(final ExtensionContext context, final int index) {
+        final Path jbossHome = ServerConfiguration.requireJBossHome(context::getConfigurationParameter);
+        final Path poolDir = context.getConfigurationParameter(POOL_DIR_PROPERTY)
+                .map(Path::of)
+                .orElseGet(() -> jbossHome.resolve("standalone-pool"));
+        final Path baseDir = poolDir.resolve("server-" + index);
+        final Path configDir = baseDir.resolve("configuration");
+        if (Files.notExists(configDir)) {
+            final Path source = jbossHome.resolve("standalone").resolve("configuration");
+            LOGGER.debugf("Creating base directory %s for pooled server %d", baseDir, index);
+            try (Stream<Path> paths = Files.walk(source)) {
+                paths.forEach((path) -> {
+                    final Path target = configDir.resolve(source.relativize(path).toString());
+                    try {
+                        if (Files.isDirectory(path)) {
+                            Files.createDirectories(target);
+                        } else {
+                            Files.copy(path, target);
+                        }
+                    } catch (FileAlreadyExistsException ignore) {
+                        // Already copied
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IOException | UncheckedIOException e) {
+                throw new JUnitException("Failed to create the base directory %s".formatted(baseDir), e);
+            }
+        }
+        return baseDir;
+    }
+
+    /**
+     * Creates the server manager for a server in the pool.
+     */
+    @FunctionalInterface
+    interface ServerFactory {
+
+        /**
+         * Creates the server manager.
+         *
+         * @param context    the extension context
+         * @param baseDir    the base directory for the server or {@code null} to use the default
+         * @param portOffset the port offset for the server
+         *
+         * @return the server manager
+         */
+        ServerManager create(ExtensionContext context, Path baseDir, int portOffset);
+    }
+
+    /**
+     * Stops a server when the pool is closed.
+     */
+    @FunctionalInterface
+    interface ServerStopper {
+
+        /**
+         * Stops the server.
+         *
+         * @param serverManager the server to stop
+         */
+        void stop(ServerManager serverManager);
+    }
+
+    /**
+     * A server in the pool.
+     *
+     * @param serverManager   the server manager
+     * @param portOffset      the port offset of the server
+     * @param deploymentCache the cache of the deployments on the server
+     * @param undeployer      the asynchronous undeployer for the server
+     */
+    record PooledServer(ServerManager serverManager, int portOffset, DeploymentCache deploymentCache,
+            AsyncUndeployer undeployer) {
+
+        static PooledServer of(final ServerManager serverManager, final int portOffset, final int maxRetained) {
+            return new PooledServer(serverManager, portOffset, new DeploymentCache(serverManager, maxRetained),
+                    new AsyncUndeployer());
+        }
+    }
+
+    /**
+     * A lease of a server for a test class. Closing the lease returns the server to the pool.
+     */
+    static class Lease implements AutoCloseable {
+        private final ServerPool pool;
+        private final int index;
+        private final PooledServer server;
+        private boolean closed;
+
+        private Lease(final ServerPool pool, final int index, final PooledServer server) {
+            this.pool = pool;
+            this.index = index;
+            this.server = server;
+        }
+
+        /**
+         * Returns the leased server.
+         *
+         * @return the leased server
+         */
+        ServerManager serverManager() {
+            return server.serverManager();
+        }
+
+        /**
+         * Returns the port offset of the leased server.
+         *
+         * @return the port offset
+         */
+        int portOffset() {
+            return server.portOffset();
+        }
+
+        /**
+         * Returns the cache of the deployments on the leased server.
+         *
+         * @return the deployment cache
+         */
+        DeploymentCache deploymentCache() {
+            return server.deploymentCache();
+        }
+
+        /**
+         * Returns the asynchronous undeployer of the leased server.
+         *
+         * @return the asynchronous undeployer
+         */
+        AsyncUndeployer undeployer() {
+            return server.undeployer();
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                pool.release(index);
+            }
+        }
+    }
+}
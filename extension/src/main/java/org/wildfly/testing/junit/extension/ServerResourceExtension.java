@@ -5,11 +5,16 @@
 
 package org.wildfly.testing.junit.extension;
 
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Optional;
 import java.util.ServiceLoader;
-import java.util.function.Predicate;
 import java.util.stream.StreamSupport;
 
 import org.junit.jupiter.api.extension.BeforeAllCallback;
@@ -19,7 +24,6 @@ import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junit.jupiter.api.extension.ParameterResolver;
-import org.junit.platform.commons.support.AnnotationSupport;
 import org.wildfly.testing.junit.extension.annotation.ServerResource;
 import org.wildfly.testing.junit.extension.api.ServerResourceProducer;
 
@@ -27,11 +31,20 @@ import org.wildfly.testing.junit.extension.api.ServerResourceProducer;
  * An extension for using {@linkplain ServerResourceProducer producers} to inject fields annotated with {@link ServerResource}
  * and
  * method or constructor parameters.
+ * <p>
+ * The fields to inject are found once per test class. The resulting injection plan, with each field resolved to its
+ * producer and a {@link VarHandle} to set the field, is cached in the store of the test class. The producer for a type
+ * and its annotations is looked up once per test class and cached in the store of the test class as well. The producer
+ * for a parameter of a test method, or of a method invoked for it, is looked up once per test method, as the lookup
+ * uses the context of the test method.
+ * </p>
  *
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
 public class ServerResourceExtension
         implements BeforeAllCallback, BeforeEachCallback, ParameterResolver {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+            .create("WildFly.ServerResource");
 
     private final List<ServerResourceProducer> producers;
 
@@ -42,91 +55,131 @@ public class ServerResourceExtension
 
     @Override
     public void beforeAll(final ExtensionContext context) {
-        injectStaticFields(context, context.getRequiredTestClass());
+        getPlan(context, context.getRequiredTestClass(), true).inject(context, null);
     }
 
     @Override
     public void beforeEach(final ExtensionContext context) {
         context.getRequiredTestInstances().getAllInstances()
-                .forEach(instance -> injectInstanceFields(context, instance));
+                .forEach(instance -> getPlan(context, instance.getClass(), false).inject(context, instance));
     }
 
     @Override
     public boolean supportsParameter(final ParameterContext parameterContext, final ExtensionContext extensionContext)
             throws ParameterResolutionException {
-        for (ServerResourceProducer producer : producers) {
-            if (producer.canInject(extensionContext, parameterContext.getParameter()
-                    .getType(),
-                    parameterContext.getParameter()
-                            .getAnnotations())) {
-                return true;
-            }
-        }
-        return false;
+        return findProducer(extensionContext, parameterContext.getParameter().getParameterizedType(),
+                parameterContext.getParameter().getAnnotations()).isPresent();
     }
 
     @Override
     public Object resolveParameter(final ParameterContext parameterContext, final ExtensionContext extensionContext)
             throws ParameterResolutionException {
         // Find the producer which can provide this parameter
-        ServerResourceProducer injectionProducer = null;
-        for (ServerResourceProducer producer : producers) {
-            if (producer.canInject(extensionContext, parameterContext.getParameter()
-                    .getType(),
-                    parameterContext.getParameter()
-                            .getAnnotations())) {
-                injectionProducer = producer;
-                break;
-            }
-        }
-        if (injectionProducer == null) {
+        final Class<?> type = parameterContext.getParameter().getType();
+        final Annotation[] annotations = parameterContext.getParameter().getAnnotations();
+        final Optional<ServerResourceProducer> injectionProducer = findProducer(extensionContext,
+                parameterContext.getParameter().getParameterizedType(), annotations);
+        if (injectionProducer.isEmpty()) {
             return null;
         }
         try {
-            return injectionProducer.produce(extensionContext, parameterContext.getParameter()
-                    .getType(), parameterContext.getParameter().getAnnotations());
+            return injectionProducer.get().produce(extensionContext, type, annotations);
         } catch (Throwable e) {
             throw new ParameterResolutionException(
                     "Failed to resolve parameter '%s'.".formatted(parameterContext.getParameter()), e);
         }
     }
 
-    private void injectStaticFields(final ExtensionContext context, final Class<?> testClass) {
-        injectFields(context, null, testClass, (f) -> Modifier.isStatic(f.getModifiers()));
+    private InjectionPlan getPlan(final ExtensionContext context, final Class<?> testClass, final boolean staticFields) {
+        // Cache the plan on the class, so it is computed once rather than for each test method
+        final ExtensionContext.Store store = DeploymentContext.classContext(context).getStore(NAMESPACE);
+        return store.computeIfAbsent(new PlanKey(testClass, staticFields),
+                key -> createPlan(context, testClass, staticFields), InjectionPlan.class);
     }
 
-    private void injectInstanceFields(final ExtensionContext context, final Object instance) {
-        injectFields(context, instance, instance.getClass(), (f) -> !Modifier.isStatic(f.getModifiers()));
+    private InjectionPlan createPlan(final ExtensionContext context, final Class<?> testClass,
+            final boolean staticFields) {
+        final List<FieldInjection> injections = TestClassDescriptor.of(testClass)
+                .injectionPoints(staticFields)
+                .stream()
+                .map(field -> {
+                    if (Modifier.isFinal(field.getModifiers())) {
+                        throw new ExtensionConfigurationException(
+                                "Field '%s' cannot be final for injection.".formatted(field));
+                    }
+                    // Find the producer which can provide this field
+                    final ServerResourceProducer injectionProducer = findProducer(context, field.getGenericType(),
+                            field.getAnnotations())
+                            .orElseThrow(() -> new ExtensionConfigurationException(
+                                    "Could not find InjectionProducer for field '%s' of type %s.".formatted(field,
+                                            field.getType().getName())));
+                    return new FieldInjection(field, field.getAnnotations(), injectionProducer, createSetter(field));
+                })
+                .toList();
+        return new InjectionPlan(injections);
     }
 
-    private void injectFields(final ExtensionContext context, final Object testInstance, final Class<?> testClass,
-            final Predicate<Field> predicate) {
-
-        AnnotationSupport.findAnnotatedFields(testClass, ServerResource.class, predicate).forEach(field -> {
-            if (Modifier.isFinal(field.getModifiers())) {
-                throw new ExtensionConfigurationException(
-                        "Field '%s' cannot be final for injection.".formatted(field));
-            }
-            // Find the producer which can provide this parameter
-            ServerResourceProducer injectionProducer = null;
+    @SuppressWarnings("unchecked")
+    private Optional<ServerResourceProducer> findProducer(final ExtensionContext context, final Type type,
+            final Annotation[] annotations) {
+        // Cache the producer on the class, the test class is part of the key as the store of a nested class also
+        // returns the values of the enclosing class. The test method is part of the key, so a producer which depends
+        // on the test method is asked again for each test method.
+        final ExtensionContext classContext = DeploymentContext.classContext(context);
+        final ProducerKey producerKey = new ProducerKey(classContext.getTestClass().orElse(null),
+                context.getTestMethod().orElse(null), type, List.of(annotations));
+        return classContext.getStore(NAMESPACE).computeIfAbsent(producerKey, key -> {
             for (ServerResourceProducer producer : producers) {
-                if (producer.canInject(context, field.getType(), field.getAnnotations())) {
-                    injectionProducer = producer;
-                    break;
+                if (producer.canInject(context, type, annotations)) {
+                    return Optional.of(producer);
                 }
             }
-            if (injectionProducer == null) {
-                throw new ExtensionConfigurationException(
-                        "Could not find InjectionProducer for field '%s' of type %s.".formatted(field, field.getType()
-                                .getName()));
+            return Optional.empty();
+        }, Optional.class);
+    }
+
+    private static VarHandle createSetter(final Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectVarHandle(field);
+        } catch (IllegalAccessException | SecurityException e) {
+            throw new ParameterResolutionException(
+                    "Could not make field %s accessible for injection.".formatted(field), e);
+        }
+    }
+
+    /**
+     * The fields of a test class to inject, each resolved to its producer.
+     *
+     * @param injections the fields to inject
+     */
+    private record InjectionPlan(List<FieldInjection> injections) {
+
+        void inject(final ExtensionContext context, final Object testInstance) {
+            for (FieldInjection injection : injections) {
+                injection.inject(context, testInstance);
             }
+        }
+    }
+
+    /**
+     * A field to inject.
+     *
+     * @param field       the field
+     * @param annotations the annotations of the field
+     * @param producer    the producer which produces the value of the field
+     * @param setter      the handle used to set the field
+     */
+    private record FieldInjection(Field field, Annotation[] annotations, ServerResourceProducer producer,
+            VarHandle setter) {
+
+        void inject(final ExtensionContext context, final Object testInstance) {
             try {
-                final Object value = injectionProducer.produce(context, field.getType(), field.getAnnotations());
-                if (field.trySetAccessible()) {
-                    field.set(testInstance, value);
+                final Object value = producer.produce(context, field.getType(), annotations);
+                if (testInstance == null) {
+                    setter.set(value);
                 } else {
-                    throw new ParameterResolutionException(
-                            "Could not make field %s accessible for injection.".formatted(field));
+                    setter.set(testInstance, value);
                 }
             } catch (Throwable e) {
                 if (e instanceof ParameterResolutionException pre) {
@@ -135,6 +188,12 @@ public class ServerResourceExtension
                 throw new ParameterResolutionException(
                         "Could not make field %s accessible for injection.".formatted(field), e);
             }
-        });
+        }
+    }
+
+    private record PlanKey(Class<?> testClass, boolean staticFields) {
+    }
+
+    private record ProducerKey(Class<?> testClass, Method testMethod, Type type, List<Annotation> annotations) {
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+import org.wildfly.testing.junit.extension.annotation.GenerateDeployment;
+import org.wildfly.testing.junit.extension.annotation.ManualMode;
+import org.wildfly.testing.junit.extension.annotation.ServerGroup;
+import org.wildfly.testing.junit.extension.annotation.ServerResource;
+import org.wildfly.testing.junit.extension.annotation.WildFlyDomainTest;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * The metadata of a test class, read once from its annotations and shared by the extension callbacks and the
+ * producers. This includes the test mode, the manual mode settings, the deployment methods with their server groups and
+ * the fields to inject.
+ * <p>
+ * A descriptor is computed the first time it is requested for a test class and is immutable.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+final class TestClassDescriptor {
+    private static final ClassValue<TestClassDescriptor> DESCRIPTORS = new ClassValue<>() {
+        @Override
+        protected TestClassDescriptor computeValue(final Class<?> type) {
+            return new TestClassDescriptor(type);
+        }
+    };
+
+    private final Class<?> testClass;
+    private final boolean domainTest;
+    private final ManualMode manualMode;
+    private final List<Method> generateDeploymentMethods;
+    private final List<Method> deploymentProducerMethods;
+    private final Map<Method, Set<String>> serverGroups;
+    private final List<Field> staticInjectionPoints;
+    private final List<Field> instanceInjectionPoints;
+
+    private TestClassDescriptor(final Class<?> testClass) {
+        this.testClass = testClass;
+        final boolean wildFlyTest = AnnotationSupport.findAnnotation(testClass, WildFlyTest.class).isPresent();
+        domainTest = AnnotationSupport.findAnnotation(testClass, WildFlyDomainTest.class).isPresent();
+        if (wildFlyTest && domainTest) {
+            throw new JUnitException(
+                    "Test class %s cannot have both @WildFlyTest and @WildFlyDomainTest. Use only one to specify the test mode."
+                            .formatted(testClass.getName()));
+        }
+        manualMode = AnnotationSupport.findAnnotation(testClass, ManualMode.class).orElse(null);
+        generateDeploymentMethods = List.copyOf(AnnotationSupport.findAnnotatedMethods(testClass,
+                GenerateDeployment.class, HierarchyTraversalMode.BOTTOM_UP));
+        final List<Method> producers = new ArrayList<>(AnnotationSupport.findAnnotatedMethods(testClass,
+                DeploymentProducer.class, HierarchyTraversalMode.BOTTOM_UP));
+        producers.sort(Comparator.comparingInt((Method m) -> m.getAnnotation(DeploymentProducer.class).order())
+                .thenComparing(Method::getName));
+        deploymentProducerMethods = List.copyOf(producers);
+        final Map<Method, Set<String>> groups = new HashMap<>();
+        for (Method method : generateDeploymentMethods) {
+            groups.put(method, findServerGroups(method));
+        }
+        for (Method method : deploymentProducerMethods) {
+            groups.put(method, findServerGroups(method));
+        }
+        serverGroups = Map.copyOf(groups);
+        staticInjectionPoints = List.copyOf(AnnotationSupport.findAnnotatedFields(testClass, ServerResource.class,
+                field -> Modifier.isStatic(field.getModifiers())));
+        instanceInjectionPoints = List.copyOf(AnnotationSupport.findAnnotatedFields(testClass, ServerResource.class,
+                field -> !Modifier.isStatic(field.getModifiers())));
+    }
+
+    /**
+     * Returns the descriptor of the test class.
+     *
+     * @param testClass the test class
+     *
+     * @return the descriptor
+     *
+     * @throws JUnitException if the test class has both {@link WildFlyTest} and {@link WildFlyDomainTest}
+     */
+    static TestClassDescriptor of(final Class<?> testClass) {
+        return DESCRIPTORS.get(testClass);
+    }
+
+    /**
+     * Returns the descriptor of the test class of the context.
+     *
+     * @param context the context, which requires a test class be present
+     *
+     * @return the descriptor
+     *
+     * @throws JUnitException if the test class has both {@link WildFlyTest} and {@link WildFlyDomainTest}
+     */
+    static TestClassDescriptor of(final ExtensionContext context) {
+        return of(context.getRequiredTestClass());
+    }
+
+    /**
+     * Returns the test class.
+     *
+     * @return the test class
+     */
+    Class<?> testClass() {
+        return testClass;
+    }
+
+    /**
+     * Checks whether the test class is a {@link WildFlyDomainTest}.
+     *
+     * @return {@code true} if the test runs against a domain server
+     */
+    boolean isDomainTest() {
+        return domainTest;
+    }
+
+    /**
+     * Returns the {@link ManualMode} annotation if present.
+     *
+     * @return the optional annotation
+     */
+    Optional<ManualMode> manualMode() {
+        return Optional.ofNullable(manualMode);
+    }
+
+    /**
+     * Returns the methods annotated with {@link GenerateDeployment}.
+     *
+     * @return the methods, which is empty if there are none
+     */
+    List<Method> generateDeploymentMethods() {
+        return generateDeploymentMethods;
+    }
+
+    /**
+     * Returns the methods annotated with {@link DeploymentProducer}, in the
+     * {@linkplain DeploymentProducer#order() deployment order}.
+     *
+     * @return the methods, which is empty if there are none
+     */
+    List<Method> deploymentProducerMethods() {
+        return deploymentProducerMethods;
+    }
+
+    /**
+     * Finds the deployment method with the given name.
+     *
+     * @param name the name of the method
+     *
+     * @return the deployment method, or an empty value if the test class has no deployment method with the name
+     */
+    Optional<Method> findDeploymentMethod(final String name) {
+        return Stream.concat(generateDeploymentMethods.stream(), deploymentProducerMethods.stream())
+                .filter(method -> method.getName().equals(name))
+                .findFirst();
+    }
+
+    /**
+     * Returns the server groups of the {@link ServerGroup @ServerGroup} annotation on the deployment method.
+     *
+     * @param method the deployment method
+     *
+     * @return the server groups, or an empty set if the method has no {@link ServerGroup @ServerGroup} annotation
+     */
+    Set<String> serverGroups(final Method method) {
+        final Set<String> groups = serverGroups.get(method);
+        return groups == null ? findServerGroups(method) : groups;
+    }
+
+    /**
+     * Returns the fields annotated with {@link ServerResource}.
+     *
+     * @param staticFields {@code true} for the static fields, {@code false} for the instance fields
+     *
+     * @return the fields to inject
+     */
+    List<Field> injectionPoints(final boolean staticFields) {
+        return staticFields ? staticInjectionPoints : instanceInjectionPoints;
+    }
+
+    private static Set<String> findServerGroups(final Method method) {
+        return AnnotationSupport.findAnnotation(method, ServerGroup.class)
+                .map(serverGroup -> Set.of(serverGroup.value()))
+                .orElseGet(Set::of);
+    }
+}
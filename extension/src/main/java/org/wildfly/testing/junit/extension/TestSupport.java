@@ -5,20 +5,26 @@
 
 package org.wildfly.testing.junit.extension;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
+import java.util.function.Function;
 
+import org.jboss.logging.Logger;
 import org.jboss.shrinkwrap.api.Archive;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.platform.commons.JUnitException;
-import org.junit.platform.commons.support.AnnotationSupport;
-import org.junit.platform.commons.support.HierarchyTraversalMode;
-import org.junit.platform.commons.util.AnnotationUtils;
 import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
 import org.wildfly.testing.junit.extension.annotation.GenerateDeployment;
 import org.wildfly.testing.junit.extension.annotation.ManualMode;
@@ -29,6 +35,7 @@ import org.wildfly.testing.junit.extension.annotation.ManualMode;
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
 class TestSupport {
+    private static final Logger LOGGER = Logger.getLogger(TestSupport.class);
 
     /**
      * Checks if this is a manual mode test.
@@ -38,7 +45,47 @@ class TestSupport {
      * @return {@code true} if this is a manual mode test, otherwise {@code false}
      */
     static boolean isManualMode(final ExtensionContext context) {
-        return context.getRequiredTestClass().isAnnotationPresent(ManualMode.class);
+        return TestClassDescriptor.of(context).manualMode().isPresent();
+    }
+
+    /**
+     * Checks whether a boolean configuration parameter is enabled. The parameter is enabled if it is set to an empty
+     * value or to {@code true}, ignoring case. It is not enabled if it is not set.
+     *
+     * @param parameters the function used to look up configuration parameters
+     * @param key        the key of the configuration parameter
+     *
+     * @return {@code true} if the configuration parameter is enabled, otherwise {@code false}
+     */
+    static boolean isEnabled(final Function<String, Optional<String>> parameters, final String key) {
+        return parameters.apply(key)
+                .map(value -> value.isEmpty() || Boolean.parseBoolean(value))
+                .orElse(false);
+    }
+
+    /**
+     * Loads the configuration parameters for code which runs outside a test, where the configuration parameters of
+     * the launcher are not available. The parameters are resolved from the system properties and the
+     * {@code junit-platform.properties} file of the class loader. System properties take precedence over the
+     * {@code junit-platform.properties}, the same as the launcher.
+     *
+     * @param classLoader the class loader used to find the {@code junit-platform.properties} file, may be
+     *                        {@code null}
+     *
+     * @return the function used to look up configuration parameters
+     */
+    static Function<String, Optional<String>> loadConfigurationParameters(final ClassLoader classLoader) {
+        final Properties properties = new Properties();
+        final URL url = classLoader == null ? null : classLoader.getResource("junit-platform.properties");
+        if (url != null) {
+            try (InputStream in = url.openStream()) {
+                properties.load(in);
+            } catch (IOException e) {
+                LOGGER.debugf(e, "Failed to load %s", url);
+            }
+        }
+        return key -> Optional.ofNullable(System.getProperty(key))
+                .or(() -> Optional.ofNullable(properties.getProperty(key)));
     }
 
     /**
@@ -49,21 +96,68 @@ class TestSupport {
      * @return the optional annotation
      */
     static Optional<ManualMode> getManualMode(final ExtensionContext context) {
-        return AnnotationUtils.findAnnotation(context.getRequiredTestClass(), ManualMode.class);
+        return TestClassDescriptor.of(context).manualMode();
+    }
+
+    /**
+     * Locates the deployment methods of the test class and returns the archives the methods create, in deployment
+     * order.
+     *
+     * @param context the context to find the deployment methods on
+     *
+     * @return the archives to deploy, or an empty list if the test class has no deployment methods
+     */
+    static List<TestDeployment> findDeployments(final ExtensionContext context) {
+        return findDeployments(context.getRequiredTestClass(), new ParameterTestInfo(context));
+    }
+
+    /**
+     * Locates the deployment methods of the test class and returns the archives the methods create, in deployment
+     * order.
+     *
+     * @param testClass the test class to find the deployment methods on
+     * @param testInfo  the test information passed to the deployment methods
+     *
+     * @return the archives to deploy, or an empty list if the test class has no deployment methods
+     */
+    static List<TestDeployment> findDeployments(final Class<?> testClass, final TestInfo testInfo) {
+        final Optional<TestDeployment> testDeployment = findDeploymentMethod(testClass, testInfo);
+        final List<TestDeployment> deploymentProducers = findDeploymentProducerMethods(testClass, testInfo);
+        if (testDeployment.isPresent() && !deploymentProducers.isEmpty()) {
+            throw new JUnitException(
+                    "Test %s cannot have both @GenerateDeployment and @DeploymentProducer methods. Use only one deployment method type per test class."
+                            .formatted(testClass.getName()));
+        }
+        if (testDeployment.isPresent()) {
+            return List.of(testDeployment.get());
+        }
+        return deploymentProducers;
+    }
+
+    /**
+     * Creates the test information passed to deployment methods.
+     *
+     * @param displayName the display name of the test class
+     * @param tags        the tags of the test class
+     * @param testClass   the test class
+     *
+     * @return the test information
+     */
+    static TestInfo createTestInfo(final String displayName, final Set<String> tags, final Class<?> testClass) {
+        return new ParameterTestInfo(displayName, tags, testClass);
     }
 
     /**
      * Locates the method annotated with {@link GenerateDeployment} and returns the result of invoking the method. If no
      * deployment method exists, an empty optional is returned.
      *
-     * @param context the context to find the deployment method on
+     * @param testClass the test class to find the deployment method on
+     * @param testInfo  the test information passed to the deployment method
      *
-     * @return the optional supplier
+     * @return the archive, with the method which created it
      */
-    static Optional<Archive<?>> findDeploymentMethod(final ExtensionContext context) {
-        final var testClass = context.getRequiredTestClass();
-        final var methods = AnnotationSupport.findAnnotatedMethods(testClass, GenerateDeployment.class,
-                HierarchyTraversalMode.BOTTOM_UP);
+    static Optional<TestDeployment> findDeploymentMethod(final Class<?> testClass, final TestInfo testInfo) {
+        final var methods = TestClassDescriptor.of(testClass).generateDeploymentMethods();
         if (methods.isEmpty()) {
             return Optional.empty();
         }
@@ -99,46 +193,65 @@ class TestSupport {
             throw new JUnitException("Parameter '%s' must be assignable from '%s'".formatted(parameterTypes[0],
                     deploymentType.archiveType()));
         }
-        final TestInfo testInfo;
         // Check the second parameter if applicable
         if (parameterTypes.length == 2) {
             if (!TestInfo.class.isAssignableFrom(parameterTypes[1])) {
                 throw new JUnitException(
                         "Parameter '%s' must be assignable from '%s'".formatted(parameterTypes[1], TestInfo.class));
             }
-            testInfo = new ParameterTestInfo(context);
-        } else {
-            testInfo = null;
         }
         try {
             final Archive<?> archive = ShrinkWrap.create(deploymentType.archiveType(),
                     testClass.getSimpleName() + deploymentType.extension());
-            if (testInfo == null) {
+            if (parameterTypes.length == 1) {
                 method.invoke(null, archive);
             } else {
                 method.invoke(null, archive, testInfo);
             }
 
-            return Optional.of(archive);
+            return Optional.of(new TestDeployment(archive, method));
         } catch (Exception e) {
             throw new JUnitException("Failed to execute deployment method in %s: %s".formatted(method.getName(), method),
                     e);
         }
     }
 
-    static Optional<Archive<?>> findDeploymentProducerMethod(final ExtensionContext context) {
-        final var testClass = context.getRequiredTestClass();
-        final var methods = AnnotationSupport.findAnnotatedMethods(testClass, DeploymentProducer.class,
-                HierarchyTraversalMode.BOTTOM_UP);
+    /**
+     * Locates the methods annotated with {@link DeploymentProducer} and returns the archives the methods produce. The
+     * archives are returned in the {@linkplain DeploymentProducer#order() deployment order}. If no producer method
+     * exists, an empty list is returned.
+     *
+     * @param testClass the test class to find the producer methods on
+     * @param testInfo  the test information passed to the producer methods
+     *
+     * @return the produced archives, with the method which produced them
+     */
+    static List<TestDeployment> findDeploymentProducerMethods(final Class<?> testClass, final TestInfo testInfo) {
+        final List<Method> methods = TestClassDescriptor.of(testClass).deploymentProducerMethods();
         if (methods.isEmpty()) {
-            return Optional.empty();
+            return List.of();
         }
-        final var method = validate(testClass, methods);
+        final List<TestDeployment> result = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+        for (Method method : methods) {
+            for (Archive<?> archive : invokeDeploymentProducer(testInfo, validate(testClass, method))) {
+                if (!names.add(archive.getName())) {
+                    throw new JUnitException("Found more than one deployment named %s in %s"
+                            .formatted(archive.getName(), testClass.getName()));
+                }
+                result.add(new TestDeployment(archive, method));
+            }
+        }
+        return result;
+    }
 
-        // The return type must be an Archive<?> of some type
-        if (!Archive.class.isAssignableFrom(method.getReturnType())) {
+    private static List<Archive<?>> invokeDeploymentProducer(final TestInfo testInfo, final Method method) {
+        // The return type must be an Archive<?> of some type or a collection of archives
+        final boolean collection = Collection.class.isAssignableFrom(method.getReturnType());
+        if (!collection && !Archive.class.isAssignableFrom(method.getReturnType())) {
             throw new JUnitException(
-                    "Method '%s' must return assignable from %s".formatted(method, Archive.class.getName()));
+                    "Method '%s' must return assignable from %s or %s".formatted(method, Archive.class.getName(),
+                            Collection.class.getName()));
         }
         // A single parameter of type TestInfo is allowed, but not required
         final var parameterTypes = method.getParameterTypes();
@@ -152,25 +265,32 @@ class TestSupport {
                     "Method %s parameter must be of type %s, but was %s.".formatted(method, TestInfo.class, parameterTypes[0]));
         }
 
-        final TestInfo testInfo;
-        // Check the second parameter if applicable
-        if (parameterTypes.length == 1) {
-            testInfo = new ParameterTestInfo(context);
-        } else {
-            testInfo = null;
-        }
-        final Archive<?> archive;
+        final Object value;
         try {
-            if (testInfo == null) {
-                archive = (Archive<?>) method.invoke(null);
+            if (parameterTypes.length == 0) {
+                value = method.invoke(null);
             } else {
-                archive = (Archive<?>) method.invoke(null, testInfo);
+                value = method.invoke(null, testInfo);
             }
-            return Optional.of(archive);
         } catch (Exception e) {
             throw new JUnitException("Failed to execute deployment method in %s: %s".formatted(method.getName(), method),
                     e);
         }
+        if (value == null) {
+            throw new JUnitException("Deployment method %s returned null".formatted(method));
+        }
+        if (!collection) {
+            return List.of((Archive<?>) value);
+        }
+        final List<Archive<?>> archives = new ArrayList<>();
+        for (Object archive : (Collection<?>) value) {
+            if (!(archive instanceof Archive<?>)) {
+                throw new JUnitException("Deployment method %s returned %s which is not an %s".formatted(method,
+                        archive, Archive.class.getName()));
+            }
+            archives.add((Archive<?>) archive);
+        }
+        return archives;
     }
 
     private static Method validate(final Class<?> testClass, final List<Method> methods) {
@@ -179,7 +299,10 @@ class TestSupport {
             throw new JUnitException(
                     "Found more than one deployment method in %s: %s".formatted(testClass.getName(), methods));
         }
-        final var method = methods.get(0);
+        return validate(testClass, methods.get(0));
+    }
+
+    private static Method validate(final Class<?> testClass, final Method method) {
         if (!Modifier.isStatic(method.getModifiers())) {
             throw new JUnitException(
                     "Deployment method %s in type %s must be static.".formatted(testClass.getName(), method));
@@ -197,9 +320,14 @@ class TestSupport {
         private final Class<?> testClass;
 
         ParameterTestInfo(ExtensionContext extensionContext) {
-            this.displayName = extensionContext.getDisplayName();
-            this.tags = extensionContext.getTags();
-            this.testClass = extensionContext.getTestClass().orElse(null);
+            this(extensionContext.getDisplayName(), extensionContext.getTags(),
+                    extensionContext.getTestClass().orElse(null));
+        }
+
+        ParameterTestInfo(final String displayName, final Set<String> tags, final Class<?> testClass) {
+            this.displayName = displayName;
+            this.tags = tags;
+            this.testClass = testClass;
         }
 
         @Override
@@ -230,34 +358,6 @@ class TestSupport {
 
     }
 
-    /**
-     * Finds the deployment method (either {@link GenerateDeployment} or {@link DeploymentProducer})
-     * and returns the Method reference without invoking it.
-     *
-     * @param context the extension context
-     *
-     * @return the deployment method, or empty if no deployment method exists
-     */
-    static Optional<Method> findDeploymentMethodReference(final ExtensionContext context) {
-        final var testClass = context.getRequiredTestClass();
-
-        // Check for @GenerateDeployment
-        final var generateMethods = AnnotationSupport.findAnnotatedMethods(testClass, GenerateDeployment.class,
-                HierarchyTraversalMode.BOTTOM_UP);
-        if (!generateMethods.isEmpty()) {
-            return Optional.of(validate(testClass, generateMethods));
-        }
-
-        // Check for @DeploymentProducer
-        final var producerMethods = AnnotationSupport.findAnnotatedMethods(testClass, DeploymentProducer.class,
-                HierarchyTraversalMode.BOTTOM_UP);
-        if (!producerMethods.isEmpty()) {
-            return Optional.of(validate(testClass, producerMethods));
-        }
-
-        return Optional.empty();
-    }
-
     private static Optional<GenerateDeployment.DeploymentType> inferredType(final Class<?> methodParameterType) {
         for (final var type : GenerateDeployment.DeploymentType.values()) {
             if (type == GenerateDeployment.DeploymentType.INFER) {
@@ -270,4 +370,12 @@ class TestSupport {
         return Optional.empty();
     }
 
+    /**
+     * An archive to deploy and the deployment method which created it.
+     *
+     * @param archive the archive to deploy
+     * @param method  the method which created the archive
+     */
+    record TestDeployment(Archive<?> archive, Method method) {
+    }
 }
@@ -7,10 +7,15 @@ package org.wildfly.testing.junit.extension;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.net.URI;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 
 import org.jboss.as.controller.client.helpers.Operations;
@@ -20,15 +25,23 @@ import org.junit.platform.commons.JUnitException;
 import org.kohsuke.MetaInfServices;
 import org.wildfly.plugin.tools.server.DomainManager;
 import org.wildfly.plugin.tools.server.ServerManager;
+import org.wildfly.testing.junit.extension.annotation.DeploymentName;
 import org.wildfly.testing.junit.extension.annotation.DomainServer;
 import org.wildfly.testing.junit.extension.annotation.RequestPath;
+import org.wildfly.testing.junit.extension.annotation.ServerResource;
+import org.wildfly.testing.junit.extension.annotation.Subdeployment;
 import org.wildfly.testing.junit.extension.api.ServerConfiguration;
 import org.wildfly.testing.junit.extension.api.ServerResourceProducer;
 
 /**
  * Produces {@link URI} instances for injection into test fields and parameters.
  * The URI is resolved from the deployed application's base URI, optionally
- * combined with a {@link RequestPath} qualifier.
+ * combined with a {@link RequestPath} qualifier. If the test class has more than one deployment, the
+ * {@link DeploymentName} qualifier selects the deployment. The {@link Subdeployment} qualifier selects a WAR
+ * subdeployment of an EAR. A field or parameter of type {@code Map<String, URI>} annotated with {@link ServerResource}
+ * is injected with the URI of each WAR subdeployment, keyed by the name of the subdeployment. The context roots of the
+ * deployments are resolved by
+ * {@link ContextRoots} when the deployments are deployed, so injecting a URI requires no management operations.
  *
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
@@ -39,10 +52,22 @@ public class UriProducer implements ServerResourceProducer {
         return URI.class.isAssignableFrom(clazz);
     }
 
+    @Override
+    public boolean canInject(final ExtensionContext context, final Type type, final Annotation... annotations) {
+        if (type instanceof ParameterizedType parameterizedType && Map.class.equals(parameterizedType.getRawType())) {
+            final Type[] typeArguments = parameterizedType.getActualTypeArguments();
+            return findQualifier(ServerResource.class, annotations) != null
+                    && String.class.equals(typeArguments[0]) && URI.class.equals(typeArguments[1]);
+        }
+        return ServerResourceProducer.super.canInject(context, type, annotations);
+    }
+
     @Override
     public Object produce(final ExtensionContext context, final Class<?> clazz, final Annotation... annotations)
             throws IllegalArgumentException {
-        if (!URI.class.isAssignableFrom(clazz)) {
+        // Only the raw type is known, the type arguments of a map were checked when the producer was selected
+        final boolean map = Map.class.equals(clazz) && findQualifier(ServerResource.class, annotations) != null;
+        if (!map && !canInject(context, clazz, annotations)) {
             throw new IllegalArgumentException(
                     "Type %s is not assignable to %s".formatted(clazz.getName(), URI.class.getName()));
         }
@@ -50,30 +75,78 @@ public class UriProducer implements ServerResourceProducer {
         final Optional<ServerManager> opt = WildFlyExtension.getServer(context);
         if (opt.isEmpty()) {
             // Shouldn't happen, but we have no server so we can't resolve anything
-            return URI.create(ServerConfiguration.resolveBaseUri(context));
+            if (map) {
+                return Map.of();
+            }
+            return URI.create(ServerConfiguration.resolveBaseUri(context, WildFlyExtension.getPortOffset(context)));
         }
         final ServerManager server = opt.get();
         final Supplier<URI> supplier;
 
-        // Get deployment info from cache
-        final Optional<DeploymentInfo> deploymentInfo = DeploymentContext.resolveDeployment(context);
+        // A deferred deployment must be deployed before its URI can be resolved
+        WildFlyExtension.deployLazily(context);
+
+        // Get deployment info from cache, for the named deployment if the test class has more than one
+        final DeploymentName deploymentName = findQualifier(DeploymentName.class, annotations);
+        final Optional<DeploymentInfo> deploymentInfo;
+        if (deploymentName == null) {
+            deploymentInfo = DeploymentContext.resolveDeployment(context);
+        } else {
+            deploymentInfo = DeploymentContext.resolveDeployment(context, deploymentName.value());
+            if (deploymentInfo.isEmpty() && !DeploymentContext.resolveDeployments(context).isEmpty()) {
+                throw new IllegalArgumentException("No deployment named %s found for %s".formatted(deploymentName.value(),
+                        context.getRequiredTestClass().getName()));
+            }
+        }
+        final RequestPath requestPath = findQualifier(RequestPath.class, annotations);
+        if (map) {
+            return deploymentInfo.map(info -> createUris(context, server, info, requestPath))
+                    .orElseGet(Map::of);
+        }
+        final Subdeployment subdeployment = findQualifier(Subdeployment.class, annotations);
+        if (subdeployment != null) {
+            if (deploymentInfo.isEmpty()) {
+                throw new IllegalArgumentException("No deployment found for %s with subdeployment %s"
+                        .formatted(context.getRequiredTestClass().getName(), subdeployment.value()));
+            }
+            final String contextRoot = resolveContextRoots(server, deploymentInfo.get()).get(subdeployment.value());
+            if (contextRoot == null) {
+                throw new IllegalArgumentException("No web subdeployment named %s found in %s".formatted(
+                        subdeployment.value(), deploymentInfo.get().deploymentName()));
+            }
+            final URI baseUri = DeploymentContext.computeIfAbsent(context,
+                    deploymentInfo.get().deploymentName() + "/" + subdeployment.value(),
+                    () -> createDeploymentUri(context, contextRoot));
+            return requestPath == null ? baseUri : createUri(baseUri, requestPath.value());
+        }
         if (deploymentInfo.isEmpty()) {
-            supplier = () -> URI.create(ServerConfiguration.resolveBaseUri(context));
+            supplier = () -> URI.create(ServerConfiguration.resolveBaseUri(context, WildFlyExtension.getPortOffset(context)));
         } else {
             // Create the supplier for cases when we have not yet resolved the URI
             final DomainServer domainServer = findQualifier(DomainServer.class, annotations);
-            if (domainServer == null) {
-                supplier = () -> resolveDeploymentUri(context, server, deploymentInfo.get().deploymentName());
+            if (domainServer != null && !(server instanceof DomainManager)) {
+                throw new JUnitException("ServerManager %s is not a DomainManager".formatted(server));
+            }
+            if (deploymentInfo.get().contextRoots() != null) {
+                // The context roots were resolved when the deployment was deployed
+                supplier = () -> createDeploymentUri(context, deploymentInfo.get().contextRoot().orElse(null));
+            } else if (domainServer == null) {
+                // Reuse the URI of a cached deployment shared with other test classes
+                final Supplier<URI> resolver = () -> resolveDeploymentUri(context, server,
+                        deploymentInfo.get().deploymentName());
+                supplier = () -> WildFlyExtension.getDeploymentCache(context)
+                        .map(cache -> cache.uri(deploymentInfo.get(), resolver))
+                        .orElseGet(resolver);
             } else {
                 supplier = () -> resolveDeploymentUri(context, server, deploymentInfo.get()
                         .deploymentName(), domainServer.value());
             }
         }
 
-        final URI baseUri = DeploymentContext.computeIfAbsent(context, supplier);
+        final URI baseUri = DeploymentContext.computeIfAbsent(context,
+                deploymentInfo.map(DeploymentInfo::deploymentName).orElse(null), supplier);
 
         // Check for RequestPath qualifier to append to base URI
-        final RequestPath requestPath = findQualifier(RequestPath.class, annotations);
         if (requestPath != null) {
             return createUri(baseUri, requestPath.value());
         }
@@ -105,6 +178,64 @@ public class UriProducer implements ServerResourceProducer {
         return URI.create("%s/%s".formatted(uriString, path));
     }
 
+    /**
+     * Creates the URIs of each web deployment within the deployment. The URIs of the WAR subdeployments of an EAR are
+     * keyed by the name of the subdeployment. The URI of a WAR is keyed by the name of the deployment.
+     *
+     * @param context        the extension context
+     * @param serverManager  the server manager
+     * @param deploymentInfo the deployment
+     * @param requestPath    the path appended to each URI or {@code null} if no path is appended
+     *
+     * @return the URIs keyed by the name of the subdeployment
+     */
+    private Map<String, URI> createUris(final ExtensionContext context, final ServerManager serverManager,
+            final DeploymentInfo deploymentInfo, final RequestPath requestPath) {
+        final Map<String, URI> uris = new TreeMap<>();
+        resolveContextRoots(serverManager, deploymentInfo).forEach((name, contextRoot) -> {
+            final URI uri = createDeploymentUri(context, contextRoot);
+            uris.put(name.isEmpty() ? deploymentInfo.deploymentName() : name,
+                    requestPath == null ? uri : createUri(uri, requestPath.value()));
+        });
+        return Collections.unmodifiableMap(uris);
+    }
+
+    /**
+     * Returns the context roots resolved when the deployment was deployed. If these were not resolved, all context
+     * roots of the deployment are resolved with a single operation.
+     *
+     * @param serverManager  the server manager
+     * @param deploymentInfo the deployment
+     *
+     * @return the context roots keyed by the name of the subdeployment, or an empty string for the deployment itself
+     */
+    private static Map<String, String> resolveContextRoots(final ServerManager serverManager,
+            final DeploymentInfo deploymentInfo) {
+        if (deploymentInfo.contextRoots() != null) {
+            return deploymentInfo.contextRoots();
+        }
+        final Map<String, String> contextRoots = ContextRoots.resolve(serverManager, List.of(deploymentInfo))
+                .get(0)
+                .contextRoots();
+        return contextRoots == null ? Map.of() : contextRoots;
+    }
+
+    /**
+     * Creates the URI of a deployment from the base URI of the server and the context root of the deployment.
+     *
+     * @param context     the extension context
+     * @param contextRoot the context root of the deployment or {@code null} if this is not a web deployment
+     *
+     * @return the URI of the deployment
+     */
+    private static URI createDeploymentUri(final ExtensionContext context, final String contextRoot) {
+        final String baseUri = ServerConfiguration.resolveBaseUri(context, WildFlyExtension.getPortOffset(context));
+        if (contextRoot == null) {
+            return URI.create(baseUri);
+        }
+        return URI.create(baseUri + (contextRoot.startsWith("/") ? contextRoot : "/" + contextRoot));
+    }
+
     /**
      * Finds a qualifier annotation in an array of annotations.
      *
@@ -136,7 +267,7 @@ public class UriProducer implements ServerResourceProducer {
      */
     private URI resolveDeploymentUri(final ExtensionContext context, final ServerManager serverManager,
             final String deploymentName) {
-        String baseUri = ServerConfiguration.resolveBaseUri(context);
+        String baseUri = ServerConfiguration.resolveBaseUri(context, WildFlyExtension.getPortOffset(context));
 
         // Try to get the context-root from Undertow subsystem
         final ModelNode address = resolveAddress(serverManager, null, deploymentName);
@@ -163,7 +294,7 @@ public class UriProducer implements ServerResourceProducer {
             final String deploymentName,
             final String domainServer) {
         if (serverManager instanceof DomainManager) {
-            String baseUri = ServerConfiguration.resolveBaseUri(context);
+            String baseUri = ServerConfiguration.resolveBaseUri(context, WildFlyExtension.getPortOffset(context));
 
             try {
                 // Try to get the context-root from Undertow subsystem
@@ -5,22 +5,40 @@
 
 package org.wildfly.testing.junit.extension;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.jboss.logging.Logger;
 import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.exporter.StreamExporter;
 import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.api.exporter.ZipStoredExporter;
 import org.junit.jupiter.api.extension.AfterAllCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.platform.commons.JUnitException;
-import org.junit.platform.commons.support.AnnotationSupport;
 import org.wildfly.plugin.tools.Deployment;
 import org.wildfly.plugin.tools.DeploymentResult;
+import org.wildfly.plugin.tools.SimpleDeploymentDescription;
 import org.wildfly.plugin.tools.UndeployDescription;
 import org.wildfly.plugin.tools.server.Configuration;
 import org.wildfly.plugin.tools.server.ServerManager;
@@ -28,7 +46,6 @@ import org.wildfly.plugin.tools.server.ServerManagerListener;
 import org.wildfly.testing.junit.extension.annotation.ManualMode;
 import org.wildfly.testing.junit.extension.annotation.ServerGroup;
 import org.wildfly.testing.junit.extension.annotation.WildFlyDomainTest;
-import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
 import org.wildfly.testing.junit.extension.api.DomainConfigurationFactory;
 import org.wildfly.testing.junit.extension.api.ServerConfiguration;
 import org.wildfly.testing.junit.extension.api.StandaloneConfigurationFactory;
@@ -36,32 +53,75 @@ import org.wildfly.testing.junit.extension.api.StandaloneConfigurationFactory;
 /**
  * JUnit extension that manages WildFly server lifecycle and per-test-class deployments.
  * <p>
- * The server is started once and shared across all test classes (suite-level lifecycle).
+ * The server is started once and shared across all test classes (suite-level lifecycle). If the
+ * {@link EagerServerStartListener} started the server when the launcher session was opened, the first test class waits
+ * for that server instead of starting a new one. If the {@code wildfly.server.attach} configuration parameter is
+ * enabled and a server is already running, the extension attaches to that server and never stops it.
+ * </p>
+ * <p>
+ * When the {@code wildfly.server.pool.size} configuration parameter is greater than {@code 1}, a pool of
+ * standalone servers is used instead. Each test class leases a server from the pool for its whole lifecycle, which
+ * allows test classes to be executed concurrently. {@link org.junit.jupiter.api.Nested @Nested} test classes use the
+ * server leased by the enclosing test class.
+ * </p>
+ * <p>
  * Deployments are managed per-test-class (class-level lifecycle):
+ * </p>
  * <ul>
  * <li>{@code beforeAll}: Start server (if needed) and deploy test's application</li>
  * <li>{@code afterAll}: Undeploy test's application</li>
  * </ul>
+ * <p>
+ * {@link org.junit.jupiter.api.Nested @Nested} test classes without deployment methods of their own use the
+ * deployments of the enclosing test class, which stay deployed until the enclosing test class completes.
+ * </p>
+ * <p>
+ * The following configuration parameters change how deployments are created and deployed:
+ * </p>
+ * <ul>
+ * <li>{@code wildfly.deployment.lazy}: the deployment is deferred to the first {@code beforeEach} or the first
+ * injection of a {@link java.net.URI}. If no test of the class executes, nothing is deployed.</li>
+ * <li>{@code wildfly.deployment.cache}: test classes with deployments of the same name and content share a single
+ * deployment, which stays deployed until it is replaced or the session ends.</li>
+ * <li>{@code wildfly.deployment.exploded}: deployments are written exploded to the local file system and deployed as
+ * unmanaged deployments. With {@code wildfly.deployment.exploded.incremental} enabled, an exploded deployment is
+ * kept deployed and updated in place for the next test class with a deployment of the same name.</li>
+ * <li>{@code wildfly.deployment.prebuilt}: the archives exported at build time by the {@code export-deployments} goal
+ * of the {@code wildfly-junit-extension-maven-plugin} are deployed instead, as long as the classes have not changed
+ * since.</li>
+ * <li>{@code wildfly.archive.compression}: archives are exported compressed, unless set to {@code stored}. Nested
+ * archives, such as libraries, are then stored uncompressed as well.</li>
+ * </ul>
+ * <p>
+ * If the {@link DeploymentPrefetchListener} prepared the deployments of the test class in the background, only the upload
+ * and deployment remain. See the documentation for all configuration parameters.
+ * </p>
  *
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
-public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
+public class WildFlyExtension implements BeforeAllCallback, BeforeEachCallback, AfterAllCallback {
     private static final Logger LOGGER = Logger.getLogger(WildFlyExtension.class);
 
     private static final String SERVER_KEY = "wildfly.server";
+    private static final String ATTACHED_SERVER_KEY = "wildfly.server.attached";
+    private static final String SERVER_LEASE_KEY = "wildfly.server.lease";
     private static final String SERVER_LISTENER_KEY = "wildfly.server.listener";
+    static final String SERVER_NAMESPACE_NAME = "WildFly.Server";
+    static final String ARCHIVE_COMPRESSION_PROPERTY = "wildfly.archive.compression";
+    static final String LAZY_DEPLOYMENT_PROPERTY = "wildfly.deployment.lazy";
+    private static final String LAZY_DEPLOYMENT_KEY = "wildfly.deployment.lazy";
     private static final ExtensionContext.Namespace SERVER_NAMESPACE = ExtensionContext.Namespace
-            .create("WildFly.Server");
+            .create(SERVER_NAMESPACE_NAME);
 
     @Override
     public void beforeAll(final ExtensionContext context) throws Exception {
-        // Validate test mode annotations first - runs for every test class
-        validateTestModeAnnotations(context);
+        // Reading the descriptor validates the test mode annotations first - runs for every test class
+        final TestClassDescriptor descriptor = TestClassDescriptor.of(context);
 
-        // Start server (if not already started) - shared across all test classes
-        final ServerManager serverManager = getOrCreateServerManager(context);
+        // Lease a server (starting it if not already started) for the lifecycle of the test class
+        final ServerManager serverManager = leaseServer(context);
 
-        final Optional<ManualMode> manualMode = TestSupport.getManualMode(context);
+        final Optional<ManualMode> manualMode = descriptor.manualMode();
 
         if (manualMode.isEmpty()) {
             if (!serverManager.isRunning()) {
@@ -70,8 +130,13 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
                 // Start the server
                 serverManager.start(timeout, TimeUnit.SECONDS);
             }
-            // Deploy any deployments and cache the deployment information
-            deploy(serverManager, context);
+            if (isLazyDeployment(context)) {
+                // Deploy once the first test of the class executes
+                deferDeployment(serverManager, context);
+            } else {
+                // Deploy any deployments and cache the deployment information
+                deploy(serverManager, context);
+            }
         } else {
             final var autoStart = manualMode.get().value();
             if (autoStart) {
@@ -86,6 +151,7 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
                 if (serverManager.isRunning()) {
                     LOGGER.debugf("Shutting down server for manual mode test %s", context.getRequiredTestClass()
                             .getName());
+                    drainUndeployments(context);
                     stopServer(context, serverManager);
                 }
                 final var listener = new ExtensionServerManagerListener(context, serverManager);
@@ -95,6 +161,11 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
         }
     }
 
+    @Override
+    public void beforeEach(final ExtensionContext context) {
+        deployLazily(context);
+    }
+
     @Override
     public void afterAll(final ExtensionContext context) {
         final Optional<ServerManager> opt = getServer(context);
@@ -103,35 +174,90 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
         }
         final ServerManager serverManager = opt.get();
         // Get deployment info
-        final Optional<DeploymentInfo> deploymentInfo = DeploymentContext.resolveDeployment(context);
-        if (deploymentInfo.isEmpty()) {
+        final List<DeploymentInfo> deployments = DeploymentContext.resolveClassDeployments(context);
+        if (deployments.isEmpty()) {
             return;
         }
-        undeploy(context, serverManager, deploymentInfo.get());
+        undeploy(context, serverManager, deployments);
+    }
+
+    /**
+     * Deploys the deployments of the test class, and of any enclosing test classes, which have been deferred with the
+     * {@code wildfly.deployment.lazy} configuration parameter. Deployments which have already been deployed are not
+     * deployed again.
+     * Package-private to allow access from {@link UriProducer}.
+     *
+     * @param context the extension context
+     */
+    static void deployLazily(final ExtensionContext context) {
+        // Deploy the outermost test class first
+        final Deque<ExtensionContext> classContexts = new ArrayDeque<>();
+        Optional<ExtensionContext> current = Optional.of(context);
+        while (current.isPresent() && current.get().getTestClass().isPresent()) {
+            if (current.get().getTestMethod().isEmpty()) {
+                classContexts.push(current.get());
+            }
+            current = current.get().getParent();
+        }
+        for (ExtensionContext classContext : classContexts) {
+            final LazyDeployment lazyDeployment = classContext.getStore(SERVER_NAMESPACE)
+                    .get(lazyDeploymentKey(classContext.getRequiredTestClass()), LazyDeployment.class);
+            if (lazyDeployment != null) {
+                lazyDeployment.deploy();
+            }
+        }
+    }
+
+    /**
+     * Defers the deployments of the test class until {@link #deployLazily(ExtensionContext)} is invoked for the test
+     * class or one of its tests.
+     * Package-private for testing.
+     *
+     * @param serverManager the server manager to deploy to
+     * @param context       the extension context of the test class
+     */
+    void deferDeployment(final ServerManager serverManager, final ExtensionContext context) {
+        getClassStore(context).put(lazyDeploymentKey(context.getRequiredTestClass()),
+                new LazyDeployment(serverManager, context));
+    }
+
+    static boolean isLazyDeployment(final ExtensionContext context) {
+        return TestSupport.isEnabled(context::getConfigurationParameter, LAZY_DEPLOYMENT_PROPERTY);
+    }
+
+    private static String lazyDeploymentKey(final Class<?> testClass) {
+        return LAZY_DEPLOYMENT_KEY + "-" + testClass.getName();
     }
 
     /**
-     * Gets or starts the shared WildFly server instance.
-     * The server is stored in the root context store and shared across all test classes.
+     * Leases a server from the pool for the test class. The pool is stored in the root context store and shared across
+     * all test classes. The lease is stored in the class store and returns the server to the pool once the test class
+     * has completed. If an enclosing test class already holds a lease, that server is used.
      *
      * @param context the extension context
      *
      * @return the server manager
      */
     @SuppressWarnings("resource")
-    private ServerManager getOrCreateServerManager(final ExtensionContext context) {
-        final ExtensionContext.Store store = getGlobalStore(context);
-
-        return store.computeIfAbsent(SERVER_KEY, key -> {
-            // Start the server
-            final ServerManager serverManager = createServer(context);
-            // Return a CloseableResource that stops server on cleanup
-            return new ServerResource(serverManager, context);
-        }, ServerResource.class).get();
+    private ServerManager leaseServer(final ExtensionContext context) {
+        final ExtensionContext.Store classStore = getClassStore(context);
+        final ServerPool.Lease existing = classStore.get(SERVER_LEASE_KEY, ServerPool.Lease.class);
+        if (existing != null) {
+            return existing.serverManager();
+        }
+        final ServerPool pool = getGlobalStore(context).computeIfAbsent(SERVER_KEY, key -> {
+            final boolean isDomainTest = TestClassDescriptor.of(context).isDomainTest();
+            // The pool stops the servers on cleanup
+            return ServerPool.create(context, !isDomainTest, this::createServer,
+                    (serverManager) -> stopServer(context, serverManager));
+        }, ServerPool.class);
+        final ServerPool.Lease lease = pool.lease(context);
+        classStore.put(SERVER_LEASE_KEY, lease);
+        return lease.serverManager();
     }
 
     /**
-     * Gets the already-started server, if available.
+     * Gets the server leased for the test class, if available.
      * Package-private to allow access from {@link ServerManagerProducer}.
      *
      * @param context the extension context
@@ -139,37 +265,130 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
      * @return the server manager, or empty if not started
      */
     static Optional<ServerManager> getServer(final ExtensionContext context) {
-        final ExtensionContext.Store store = getGlobalStore(context);
-        final ServerResource resource = store.get(SERVER_KEY, ServerResource.class);
-        return Optional.ofNullable(resource).map(ServerResource::get);
+        return getLease(context).map(ServerPool.Lease::serverManager);
     }
 
     /**
-     * Validates that a test class doesn't have conflicting test mode annotations.
+     * Gets the port offset of the server leased for the test class. For the default, single server, this is always
+     * {@code 0}.
      *
      * @param context the extension context
      *
-     * @throws JUnitException if both @WildFlyTest and @WildFlyDomainTest are present
+     * @return the port offset of the server
      */
-    private void validateTestModeAnnotations(final ExtensionContext context) {
-        final Class<?> testClass = context.getRequiredTestClass();
-        final boolean hasWildFlyTest = AnnotationSupport
-                .findAnnotation(testClass, WildFlyTest.class).isPresent();
-        final boolean hasDomainTest = AnnotationSupport
-                .findAnnotation(testClass, WildFlyDomainTest.class).isPresent();
+    static int getPortOffset(final ExtensionContext context) {
+        return getLease(context).map(ServerPool.Lease::portOffset).orElse(0);
+    }
 
-        if (hasWildFlyTest && hasDomainTest) {
-            throw new JUnitException(
-                    "Test class %s cannot have both @WildFlyTest and @WildFlyDomainTest. Use only one to specify the test mode."
-                            .formatted(testClass.getName()));
+    /**
+     * Gets the deployment cache of the server leased for the test class. The cache is only available if the
+     * {@code wildfly.deployment.cache} or {@code wildfly.deployment.exploded.incremental} configuration parameter is
+     * enabled and the test is not in {@linkplain ManualMode manual mode}.
+     *
+     * @param context the extension context
+     *
+     * @return the deployment cache, or empty if deployments should not be cached
+     */
+    static Optional<DeploymentCache> getDeploymentCache(final ExtensionContext context) {
+        final boolean enabled = TestSupport.isEnabled(context::getConfigurationParameter,
+                DeploymentCache.CACHE_PROPERTY) || ExplodedDeployment.isIncremental(context);
+        if (!enabled || TestSupport.isManualMode(context)) {
+            return Optional.empty();
         }
+        return getLease(context).map(ServerPool.Lease::deploymentCache);
     }
 
-    private ServerManager createServer(final ExtensionContext context) {
+    /**
+     * Gets the deployment cache for the archive. If the archive is not {@linkplain DeploymentCache#isCacheable(Archive)
+     * cacheable}, a deployment with the same name which is no longer referenced is undeployed from the cache and no
+     * cache is returned.
+     *
+     * @param context        the extension context
+     * @param deploymentInfo the deployment information of the archive
+     * @param archive        the archive to deploy
+     *
+     * @return the deployment cache or an empty value if the archive is deployed without the cache
+     */
+    private static Optional<DeploymentCache> getDeploymentCache(final ExtensionContext context,
+            final DeploymentInfo deploymentInfo, final Archive<?> archive) {
+        final Optional<DeploymentCache> deploymentCache = getDeploymentCache(context);
+        if (deploymentCache.isPresent() && !DeploymentCache.isCacheable(archive)) {
+            deploymentCache.get().evict(deploymentInfo);
+            return Optional.empty();
+        }
+        return deploymentCache;
+    }
+
+    /**
+     * Gets the asynchronous undeployer of the server leased for the test class. The undeployer is only available if
+     * the {@code wildfly.deployment.undeploy.async} configuration parameter is enabled and the test is not in
+     * {@linkplain ManualMode manual mode}.
+     *
+     * @param context the extension context
+     *
+     * @return the asynchronous undeployer, or empty if deployments should be undeployed synchronously
+     */
+    private static Optional<AsyncUndeployer> getUndeployer(final ExtensionContext context) {
+        if (!AsyncUndeployer.isEnabled(context) || TestSupport.isManualMode(context)) {
+            return Optional.empty();
+        }
+        return getLease(context).map(ServerPool.Lease::undeployer);
+    }
+
+    /**
+     * Gets the deployments exported at build time. These are only available if the
+     * {@code wildfly.deployment.prebuilt} configuration parameter is set.
+     *
+     * @param context the extension context
+     *
+     * @return the prebuilt deployments, or empty if prebuilt deployments should not be used
+     */
+    private static Optional<PrebuiltDeployments> getPrebuiltDeployments(final ExtensionContext context) {
+        return context.getConfigurationParameter(PrebuiltDeployments.PREBUILT_PROPERTY)
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(value -> getGlobalStore(context).computeIfAbsent(PrebuiltDeployments.PREBUILT_PROPERTY,
+                        key -> PrebuiltDeployments.load(Path.of(value)), PrebuiltDeployments.class));
+    }
+
+    /**
+     * Waits for all pending asynchronous undeployments on the server leased for the test class.
+     *
+     * @param context the extension context
+     */
+    private static void drainUndeployments(final ExtensionContext context) {
+        getLease(context).map(ServerPool.Lease::undeployer).ifPresent(AsyncUndeployer::drain);
+    }
+
+    private static Optional<ServerPool.Lease> getLease(final ExtensionContext context) {
+        return Optional.ofNullable(getClassStore(context).get(SERVER_LEASE_KEY, ServerPool.Lease.class));
+    }
+
+    private ServerManager createServer(final ExtensionContext context, final Path baseDir, final int portOffset) {
         // Determine configuration based on launch type
         final Class<?> testClass = context.getRequiredTestClass();
-        final boolean hasDomainTest = AnnotationSupport
-                .findAnnotation(testClass, WildFlyDomainTest.class).isPresent();
+        final boolean hasDomainTest = TestClassDescriptor.of(testClass).isDomainTest();
+
+        if (baseDir == null && portOffset == 0) {
+            // Attach to an already running server, if enabled, for the default server
+            final Optional<ServerManager> attached = ServerAttach.attach(context::getConfigurationParameter,
+                    hasDomainTest);
+            if (attached.isPresent()) {
+                getGlobalStore(context).put(ATTACHED_SERVER_KEY, attached.get());
+                return attached.get();
+            }
+            // Use the server started when the launcher session was opened, if any
+            final EagerServerStartListener.StartingServer startingServer = getGlobalStore(context)
+                    .remove(EagerServerStartListener.STARTING_SERVER_KEY, EagerServerStartListener.StartingServer.class);
+            if (startingServer != null) {
+                if (startingServer.isDomain() == hasDomainTest) {
+                    return startingServer.join();
+                }
+                LOGGER.warnf("The server started with %s does not match the launch type of %s. Stopping it.",
+                        EagerServerStartListener.EAGER_START_PROPERTY, testClass.getName());
+                startingServer.close();
+            }
+        }
 
         final Configuration<?> configuration;
         if (hasDomainTest) {
@@ -177,7 +396,7 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
                     .configuration(context);
         } else {
             configuration = StandaloneConfigurationFactory.create()
-                    .configuration(context);
+                    .configuration(context, baseDir, portOffset);
         }
         return ServerManager.of(configuration);
     }
@@ -189,6 +408,11 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
      * @param serverManager the server manager to stop
      */
     private void stopServer(final ExtensionContext context, final ServerManager serverManager) {
+        if (getGlobalStore(context).get(ATTACHED_SERVER_KEY, ServerManager.class) == serverManager) {
+            // The server was not launched by us, leave it running. The client is closed with the session store.
+            LOGGER.debugf("Not stopping the attached server for %s", context.getDisplayName());
+            return;
+        }
         try {
             // Get timeout from configuration (defaults to 60 seconds)
             final long timeout = ServerConfiguration.timeout(context);
@@ -201,7 +425,7 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
     }
 
     /**
-     * Deploys an archive to the server.
+     * Deploys the archives of the test class to the server.
      *
      * @param serverManager the server manager
      * @param context       the extension context
@@ -210,63 +434,361 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
      */
     private void deploy(final ServerManager serverManager, final ExtensionContext context) {
         // Check if deployment already exists in cache (shouldn't happen, but be defensive)
-        if (DeploymentContext.resolveDeployment(context).isPresent()) {
+        if (!DeploymentContext.resolveClassDeployments(context).isEmpty()) {
             return; // Already deployed
         }
 
-        // Find deployment method for this test class
-        final Optional<Archive<?>> deploymentArchive = resolveDeployment(context);
+        // Use the deployments exported at build time or prepared in the background if available, otherwise find the
+        // deployment methods
+        final Class<?> testClass = context.getRequiredTestClass();
+        final Optional<DeploymentPrefetcher> prefetcher = Optional
+                .ofNullable(getGlobalStore(context).get(DeploymentPrefetcher.PREFETCHER_KEY, DeploymentPrefetcher.class));
+        Optional<DeploymentPrefetcher.PreparedDeployments> prepared = getPrebuiltDeployments(context)
+                .flatMap(prebuilt -> prebuilt.take(testClass));
+        if (prepared.isPresent()) {
+            prefetcher.ifPresent(p -> p.discard(testClass));
+        } else {
+            prepared = prefetcher.flatMap(p -> p.take(testClass));
+        }
+        final List<TestSupport.TestDeployment> deployments = prepared
+                .map(DeploymentPrefetcher.PreparedDeployments::deployments)
+                .orElseGet(() -> TestSupport.findDeployments(context));
+        final Map<String, byte[]> exported = prepared.map(DeploymentPrefetcher.PreparedDeployments::content)
+                .orElseGet(Map::of);
 
-        if (deploymentArchive.isEmpty()) {
+        if (deployments.isEmpty()) {
             return; // No deployment for this test
         }
+        // Wait for a pending asynchronous undeployment of a deployment with the same name
+        getLease(context).map(ServerPool.Lease::undeployer)
+                .ifPresent(undeployer -> undeployer.await(deployments.stream()
+                        .map(deployment -> deployment.archive().getName())
+                        .toList()));
+        final List<DeploymentInfo> deployed;
+        if (deployments.size() == 1) {
+            deployed = List.of(deploy(serverManager, context, deployments.get(0), exported));
+        } else {
+            deployed = deploy(serverManager, context, deployments, exported);
+        }
+        // Resolve the context roots once, so injecting a URI requires no management operations
+        DeploymentContext.cache(context, ContextRoots.resolve(serverManager, deployed));
+    }
 
-        // Invoke deployment method to get Archive
-        final Archive<?> archive = deploymentArchive.get();
+    /**
+     * Deploys a single archive to the server.
+     *
+     * @param serverManager  the server manager
+     * @param context        the extension context
+     * @param testDeployment the archive to deploy
+     * @param exported       the archives which have already been exported, keyed by name
+     *
+     * @return the information of the deployment
+     *
+     * @throws JUnitException if deployment fails
+     */
+    private DeploymentInfo deploy(final ServerManager serverManager, final ExtensionContext context,
+            final TestSupport.TestDeployment testDeployment, final Map<String, byte[]> exported) {
+        final Archive<?> archive = testDeployment.archive();
         final String deploymentName = archive.getName();
-        // Check for @WildFlyDomainTest and get server groups from deployment method
-        final boolean isDomainTest = AnnotationSupport
-                .findAnnotation(context.getRequiredTestClass(), WildFlyDomainTest.class).isPresent();
-        final Set<String> serverGroups;
-        if (isDomainTest) {
-            serverGroups = resolveServerGroups(context);
-            if (serverGroups.isEmpty()) {
-                throw new JUnitException("No server groups defined for domain deployment. " +
-                        "Add @ServerGroup annotation to the deployment method.");
+        final Set<String> serverGroups = resolveServerGroups(context, testDeployment.method());
+
+        DeploymentInfo deploymentInfo = new DeploymentInfo(deploymentName, serverGroups);
+        // Reuse an identical deployment from a previous test class, if enabled
+        final Optional<DeploymentCache> deploymentCache = getDeploymentCache(context, deploymentInfo, archive);
+        final boolean incremental = deploymentCache.isPresent() && ExplodedDeployment.isIncremental(context);
+        final NavigableMap<String, String> entryHashes = deploymentCache
+                .map(cache -> DeploymentCache.entryHashes(archive))
+                .orElse(null);
+        final String hash = entryHashes == null ? null : DeploymentCache.hash(entryHashes);
+        if (deploymentCache.isPresent()) {
+            final DeploymentCache cache = deploymentCache.get();
+            // Update a previous exploded deployment in place with only the entries which changed
+            if (incremental) {
+                final Optional<DeploymentCache.CachedDeployment> cached = cache.takeForUpdate(deploymentInfo, hash);
+                if (cached.isPresent() && redeploy(serverManager, cache, archive, cached.get(), entryHashes)) {
+                    final DeploymentInfo updated = cached.get().deploymentInfo();
+                    cache.add(updated, hash, entryHashes);
+                    return updated;
+                }
+            }
+            if (cache.acquire(deploymentInfo, hash)) {
+                return deploymentInfo;
+            }
+        }
+
+        if (ExplodedDeployment.isEnabled(context)) {
+            // Write the archive exploded and let the server read the content in place
+            final Path content = ExplodedDeployment.export(context, archive);
+            deploymentInfo = new DeploymentInfo(deploymentName, serverGroups, content);
+            try (var deployment = Deployment.local(content)) {
+                deploy(serverManager, deployment, deploymentInfo);
+            } catch (IOException e) {
+                ExplodedDeployment.delete(content);
+                throw new JUnitException("Failed to deploy %s".formatted(deploymentName), e);
+            } catch (RuntimeException e) {
+                ExplodedDeployment.delete(content);
+                throw e;
             }
         } else {
-            serverGroups = Set.of();
+            // Convert Archive to Deployment
+            try (
+                    var in = openContent(context, archive, exported);
+                    var deployment = Deployment.of(in, deploymentName)) {
+                deploy(serverManager, deployment, deploymentInfo);
+            } catch (IOException e) {
+                throw new JUnitException("Failed to export archive %s as deployment".formatted(deploymentName), e);
+            }
+        }
+        final DeploymentInfo deployed = deploymentInfo;
+        deploymentCache.ifPresent(cache -> cache.add(deployed, hash, incremental ? entryHashes : null));
+        return deploymentInfo;
+    }
+
+    /**
+     * Deploys several archives to the server in a single composite operation. Either all archives are deployed or
+     * none are. Archives which are already deployed by the deployment cache are reused. Exploded deployments are not
+     * updated incrementally.
+     *
+     * @param serverManager   the server manager
+     * @param context         the extension context
+     * @param testDeployments the archives to deploy in deployment order
+     * @param exported        the archives which have already been exported, keyed by name
+     *
+     * @return the information of each deployment in deployment order
+     *
+     * @throws JUnitException if deployment fails
+     */
+    private List<DeploymentInfo> deploy(final ServerManager serverManager, final ExtensionContext context,
+            final List<TestSupport.TestDeployment> testDeployments, final Map<String, byte[]> exported) {
+        final Optional<DeploymentCache> deploymentCache = getDeploymentCache(context);
+        final boolean exploded = ExplodedDeployment.isEnabled(context);
+        final List<DeploymentInfo> result = new ArrayList<>();
+        final List<DeploymentInfo> acquired = new ArrayList<>();
+        final Map<DeploymentInfo, String> added = new LinkedHashMap<>();
+        // The composite operation deploys the archives in the iteration order of the set
+        final Set<Deployment> toDeploy = new LinkedHashSet<>();
+        try {
+            for (TestSupport.TestDeployment testDeployment : testDeployments) {
+                final Archive<?> archive = testDeployment.archive();
+                final String deploymentName = archive.getName();
+                final Set<String> serverGroups = resolveServerGroups(context, testDeployment.method());
+                DeploymentInfo deploymentInfo = new DeploymentInfo(deploymentName, serverGroups);
+                final String hash = getDeploymentCache(context, deploymentInfo, archive)
+                        .map(cache -> DeploymentCache.hash(archive))
+                        .orElse(null);
+                if (hash != null && deploymentCache.get().acquire(deploymentInfo, hash)) {
+                    acquired.add(deploymentInfo);
+                    result.add(deploymentInfo);
+                    continue;
+                }
+                final Deployment deployment;
+                if (exploded) {
+                    final Path content = ExplodedDeployment.export(context, archive);
+                    deploymentInfo = new DeploymentInfo(deploymentName, serverGroups, content);
+                    deployment = Deployment.local(content);
+                } else {
+                    deployment = Deployment.of(openContent(context, archive, exported), deploymentName);
+                }
+                // Set the server groups, which could be empty for a standalone server
+                deployment.setServerGroups(serverGroups);
+                toDeploy.add(deployment);
+                added.put(deploymentInfo, hash);
+                result.add(deploymentInfo);
+            }
+            if (!toDeploy.isEmpty()) {
+                final DeploymentResult deploymentResult = serverManager.deploymentManager().deploy(toDeploy);
+                if (!deploymentResult.successful()) {
+                    throw new JUnitException("Failed to deploy %s to server: %s".formatted(added.keySet().stream()
+                            .map(DeploymentInfo::deploymentName)
+                            .toList(), deploymentResult.getFailureMessage()));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The composite operation is rolled back, release what was reused and delete what was exported
+            deploymentCache.ifPresent(cache -> acquired.forEach(cache::release));
+            added.keySet().stream()
+                    .map(DeploymentInfo::content)
+                    .filter(Objects::nonNull)
+                    .forEach(ExplodedDeployment::delete);
+            if (e instanceof JUnitException junitException) {
+                throw junitException;
+            }
+            throw new JUnitException("Failed to deploy the deployments of %s"
+                    .formatted(context.getRequiredTestClass().getName()), e);
+        } finally {
+            toDeploy.forEach(Deployment::close);
+        }
+        LOGGER.debugf("Deployed %d archives for %s in a single operation", toDeploy.size(),
+                context.getRequiredTestClass().getName());
+        // Archives which cannot be cached have no hash and are undeployed once the test class completes
+        deploymentCache.ifPresent(cache -> added.forEach((deploymentInfo, hash) -> {
+            if (hash != null) {
+                cache.add(deploymentInfo, hash);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Updates an exploded deployment with the entries which differ from the new archive and redeploys it. If the
+     * update fails, the previous deployment is undeployed.
+     *
+     * @param serverManager the server manager
+     * @param cache         the deployment cache the deployment was taken from
+     * @param archive       the new archive
+     * @param cached        the previous deployment
+     * @param entryHashes   the entry hashes of the new archive
+     *
+     * @return {@code true} if the deployment was updated, {@code false} if the archive must be deployed
+     */
+    private static boolean redeploy(final ServerManager serverManager, final DeploymentCache cache,
+            final Archive<?> archive, final DeploymentCache.CachedDeployment cached,
+            final NavigableMap<String, String> entryHashes) {
+        final DeploymentInfo deploymentInfo = cached.deploymentInfo();
+        try {
+            final int changes = ExplodedDeployment.update(deploymentInfo.content(), archive, cached.entryHashes(),
+                    entryHashes);
+            final DeploymentResult result = serverManager.deploymentManager()
+                    .redeployToRuntime(SimpleDeploymentDescription.of(deploymentInfo.deploymentName(),
+                            deploymentInfo.serverGroups()));
+            if (result.successful()) {
+                LOGGER.debugf("Redeployed %s with %d changed entries", deploymentInfo.deploymentName(), changes);
+                return true;
+            }
+            LOGGER.warnf("Failed to redeploy %s, deploying it again: %s", deploymentInfo.deploymentName(),
+                    result.getFailureMessage());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warnf(e, "Failed to update %s, deploying it again.", deploymentInfo.deploymentName());
+        }
+        cache.undeploy(deploymentInfo);
+        return false;
+    }
+
+    private static void deploy(final ServerManager serverManager, final Deployment deployment,
+            final DeploymentInfo deploymentInfo) throws IOException {
+        // Set the server groups, which could be empty for a standalone server
+        deployment.setServerGroups(deploymentInfo.serverGroups());
+
+        // Deploy to server
+        final var deploymentResult = serverManager.deploymentManager().deploy(deployment);
+        if (!deploymentResult.successful()) {
+            throw new JUnitException("Failed to deploy %s to server: %s".formatted(deploymentInfo.deploymentName(),
+                    deploymentResult.getFailureMessage()));
+        }
+    }
+
+    private static InputStream openContent(final ExtensionContext context, final Archive<?> archive,
+            final Map<String, byte[]> exported) {
+        final byte[] content = exported.get(archive.getName());
+        if (content != null) {
+            return new ByteArrayInputStream(content);
         }
+        return export(archive, exporter(context::getConfigurationParameter)).exportAsInputStream();
+    }
 
-        // Convert Archive to Deployment
-        try (
-                var in = archive.as(ZipExporter.class).exportAsInputStream();
-                var deployment = Deployment.of(in, deploymentName)) {
-            // Set the server groups, which could be empty for a standalone server
-            deployment.setServerGroups(serverGroups);
+    /**
+     * Prepares the archive to be exported with the exporter. When the entries are stored uncompressed, the entries of
+     * nested archives, such as libraries, are stored uncompressed as well.
+     *
+     * @param archive  the archive to export
+     * @param exporter the exporter type returned by {@link #exporter(Function)}
+     *
+     * @return the exporter for the archive
+     */
+    static StreamExporter export(final Archive<?> archive, final Class<? extends StreamExporter> exporter) {
+        if (exporter == ZipStoredExporter.class) {
+            storeNestedArchives(archive);
+        }
+        return archive.as(exporter);
+    }
 
-            // Deploy to server
-            final var deploymentResult = serverManager.deploymentManager().deploy(deployment);
-            if (!deploymentResult.successful()) {
-                throw new JUnitException("Failed to deploy %s to server: %s".formatted(deploymentName,
-                        deploymentResult.getFailureMessage()));
+    /**
+     * ShrinkWrap exports nested archives with the {@link ZipExporter}, regardless of the exporter of the archive, so
+     * the nested archives are replaced with ones exported with the {@link ZipStoredExporter}.
+     */
+    private static void storeNestedArchives(final Archive<?> archive) {
+        for (Node node : List.copyOf(archive.getContent().values())) {
+            if (node.getAsset() instanceof ArchiveAsset asset) {
+                storeNestedArchives(asset.getArchive());
+                archive.delete(node.getPath());
+                archive.add(new ArchiveAsset(asset.getArchive(), ZipStoredExporter.class), node.getPath());
             }
-            DeploymentContext.cache(context, new DeploymentInfo(deploymentName, serverGroups));
-        } catch (IOException e) {
-            throw new JUnitException("Failed to export archive %s as deployment".formatted(deploymentName), e);
         }
     }
 
+    /**
+     * Determines the exporter used to export archives as a ZIP.
+     *
+     * @param parameters the function used to look up configuration parameters
+     *
+     * @return the exporter type
+     */
+    static Class<? extends StreamExporter> exporter(final Function<String, Optional<String>> parameters) {
+        // Storing the entries uncompressed avoids compressing an archive which the server decompresses right away
+        return parameters.apply(ARCHIVE_COMPRESSION_PROPERTY)
+                .filter("stored"::equalsIgnoreCase)
+                .<Class<? extends StreamExporter>> map(value -> ZipStoredExporter.class)
+                .orElse(ZipExporter.class);
+    }
+
     private void undeploy(final ExtensionContext context, final ServerManager serverManager,
-            final DeploymentInfo deploymentInfo) {
-        // Check for @WildFlyDomainTest annotation
-        final boolean isDomainTest = AnnotationSupport
-                .findAnnotation(context.getRequiredTestClass(), WildFlyDomainTest.class).isPresent();
-        final String deploymentName = deploymentInfo.deploymentName();
-        final UndeployDescription undeployDescription = UndeployDescription.of(deploymentName);
-        if (isDomainTest) {
-            undeployDescription.addServerGroups(deploymentInfo.serverGroups());
+            final List<DeploymentInfo> deployments) {
+        // Deployments managed by the cache stay deployed for reuse by other test classes
+        final Optional<DeploymentCache> deploymentCache = getDeploymentCache(context);
+        final List<DeploymentInfo> toUndeploy = new ArrayList<>();
+        for (DeploymentInfo deploymentInfo : deployments) {
+            if (!deploymentCache.map(cache -> cache.release(deploymentInfo)).orElse(false)) {
+                toUndeploy.add(deploymentInfo);
+            }
+        }
+        if (!toUndeploy.isEmpty()) {
+            final Optional<AsyncUndeployer> undeployer = getUndeployer(context);
+            if (undeployer.isPresent()) {
+                // Undeploy in the background, the next deployment with the same name waits for it
+                undeployer.get().submit(toUndeploy.stream().map(DeploymentInfo::deploymentName).toList(),
+                        () -> undeploy(serverManager, toUndeploy));
+            } else {
+                undeploy(serverManager, toUndeploy);
+            }
+        }
+
+        // Remove from cache
+        DeploymentContext.remove(context);
+    }
+
+    private static void undeploy(final ServerManager serverManager, final List<DeploymentInfo> deployments) {
+        if (deployments.size() == 1) {
+            undeploy(serverManager, deployments.get(0));
+            return;
+        }
+        // Undeploy in the reverse order of the deployment in a single composite operation
+        final Set<UndeployDescription> undeployDescriptions = new LinkedHashSet<>();
+        for (int i = deployments.size() - 1; i >= 0; i--) {
+            final DeploymentInfo deploymentInfo = deployments.get(i);
+            undeployDescriptions.add(UndeployDescription.of(deploymentInfo.deploymentName())
+                    .addServerGroups(deploymentInfo.serverGroups()));
+        }
+        final List<String> deploymentNames = deployments.stream().map(DeploymentInfo::deploymentName).toList();
+        try {
+            final DeploymentResult result = serverManager.deploymentManager().undeploy(undeployDescriptions);
+            if (!result.successful()) {
+                LOGGER.warnf("Failed to undeploy applications %s: %s", deploymentNames, result.getFailureMessage());
+            }
+        } catch (Exception e) {
+            LOGGER.warnf(e, "Failed to undeploy applications %s.", deploymentNames);
         }
+        // Delete the content of exploded deployments
+        deployments.stream()
+                .map(DeploymentInfo::content)
+                .filter(Objects::nonNull)
+                .forEach(ExplodedDeployment::delete);
+    }
+
+    private static void undeploy(final ServerManager serverManager, final DeploymentInfo deploymentInfo) {
+        final String deploymentName = deploymentInfo.deploymentName();
+        // The server groups are empty for a standalone server
+        final UndeployDescription undeployDescription = UndeployDescription.of(deploymentName)
+                .addServerGroups(deploymentInfo.serverGroups());
         // Undeploy from server
         try {
             final DeploymentResult result = serverManager.deploymentManager()
@@ -277,9 +799,10 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
         } catch (Exception e) {
             LOGGER.warnf(e, "Failed to undeploy application %s.", deploymentName);
         }
-
-        // Remove from cache
-        DeploymentContext.remove(context);
+        // Delete the content of an exploded deployment
+        if (deploymentInfo.content() != null) {
+            ExplodedDeployment.delete(deploymentInfo.content());
+        }
     }
 
     private static ExtensionContext.Store getGlobalStore(final ExtensionContext context) {
@@ -297,61 +820,49 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
         return usingContext.getStore(SERVER_NAMESPACE);
     }
 
-    private static Optional<Archive<?>> resolveDeployment(final ExtensionContext context) {
-        final Class<?> testClass = context.getRequiredTestClass();
-        final Optional<Archive<?>> testDeployment = TestSupport.findDeploymentMethod(context);
-        final Optional<Archive<?>> deploymentProducer = TestSupport.findDeploymentProducerMethod(context);
-        if (testDeployment.isPresent() && deploymentProducer.isPresent()) {
-            throw new JUnitException(
-                    "Test %s cannot have both @GenerateDeployment and @DeploymentProducer methods. Use only one deployment method type per test class."
-                            .formatted(testClass.getName()));
-        }
-        if (testDeployment.isPresent()) {
-            return testDeployment;
-        }
-        return deploymentProducer;
-    }
-
     /**
-     * Resolves server groups from the {@link ServerGroup @ServerGroup} annotation on the deployment method.
+     * Resolves server groups from the {@link ServerGroup @ServerGroup} annotation on the deployment method. Server
+     * groups are only resolved for a {@link WildFlyDomainTest @WildFlyDomainTest}, where they are required.
      *
      * @param context the extension context
+     * @param method  the deployment method
      *
-     * @return set of server group names, or empty set if no {@link ServerGroup @ServerGroup} annotation found
+     * @return set of server group names, or empty set for a standalone server
+     *
+     * @throws JUnitException if no server groups are defined for a domain deployment
      */
-    private static Set<String> resolveServerGroups(final ExtensionContext context) {
-        final Optional<java.lang.reflect.Method> deploymentMethod = TestSupport.findDeploymentMethodReference(context);
-
-        if (deploymentMethod.isEmpty()) {
+    private static Set<String> resolveServerGroups(final ExtensionContext context, final Method method) {
+        final TestClassDescriptor descriptor = TestClassDescriptor.of(context);
+        if (!descriptor.isDomainTest()) {
             return Set.of();
         }
-
-        final Method method = deploymentMethod.get();
-        final Optional<ServerGroup> serverGroupAnnotation = AnnotationSupport.findAnnotation(method, ServerGroup.class);
-
-        return serverGroupAnnotation.map(serverGroup -> Set.of(serverGroup.value())).orElseGet(Set::of);
-
+        final Set<String> serverGroups = descriptor.serverGroups(method);
+        if (serverGroups.isEmpty()) {
+            throw new JUnitException("No server groups defined for domain deployment. " +
+                    "Add @ServerGroup annotation to the deployment method.");
+        }
+        return serverGroups;
     }
 
     /**
-     * Wrapper for ServerManager that implements AutoCloseable for automatic cleanup.
+     * A deployment deferred until the first test of the test class executes.
      */
-    private class ServerResource implements AutoCloseable {
+    private class LazyDeployment {
         private final ServerManager serverManager;
         private final ExtensionContext context;
+        private boolean deployed;
 
-        ServerResource(final ServerManager serverManager, final ExtensionContext context) {
+        private LazyDeployment(final ServerManager serverManager, final ExtensionContext context) {
             this.serverManager = serverManager;
             this.context = context;
         }
 
-        ServerManager get() {
-            return serverManager;
-        }
-
-        @Override
-        public void close() {
-            stopServer(context, serverManager);
+        synchronized void deploy() {
+            if (!deployed) {
+                WildFlyExtension.this.deploy(serverManager, context);
+                // Only mark as deployed on success, the next test retries a failed deployment
+                deployed = true;
+            }
         }
     }
 
@@ -372,12 +883,13 @@ public class WildFlyExtension implements BeforeAllCallback, AfterAllCallback {
 
         @Override
         public void beforeShutdown(final ServerManager serverManager) {
+            drainUndeployments(context);
             // Get deployment info
-            final Optional<DeploymentInfo> deploymentInfo = DeploymentContext.resolveDeployment(context);
-            if (deploymentInfo.isEmpty()) {
+            final List<DeploymentInfo> deployments = DeploymentContext.resolveClassDeployments(context);
+            if (deployments.isEmpty()) {
                 return;
             }
-            undeploy(context, serverManager, deploymentInfo.get());
+            undeploy(context, serverManager, deployments);
         }
 
         @Override
@@ -0,0 +1,58 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.URI;
+
+/**
+ * Qualifies the injection point for a {@link URI} to indicate which deployment the URI is resolved for. This is
+ * required when a test class has more than one deployment, for example several {@link DeploymentProducer} methods. If
+ * not present, the URI is resolved for the first web deployment.
+ *
+ * <pre>
+ * &#x40;WildFlyTest
+ * public class OrderTest {
+ *
+ *     &#x40;DeploymentProducer(order = 0)
+ *     public static JavaArchive ejbs() {
+ *         return ShrinkWrap.create(JavaArchive.class, "orders-ejb.jar")
+ *                 .addClasses(OrderService.class);
+ *     }
+ *
+ *     &#x40;DeploymentProducer(order = 1)
+ *     public static WebArchive client() {
+ *         return ShrinkWrap.create(WebArchive.class, "orders-client.war")
+ *                 .addClasses(OrderServlet.class);
+ *     }
+ *
+ *     &#x40;ServerResource
+ *     &#x40;DeploymentName("orders-client.war")
+ *     &#x40;RequestPath("orders")
+ *     private URI uri;
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@Inherited
+@Documented
+@Target({ ElementType.FIELD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DeploymentName {
+
+    /**
+     * The name of the deployment, which is the name of the archive.
+     *
+     * @return the name of the deployment
+     */
+    String value();
+}
@@ -14,11 +14,16 @@ import java.lang.annotation.Target;
 
 /**
  * Used to identify a method as a method which creates a deployment. The method must be static and must have a return
- * type of any valid {@link org.jboss.shrinkwrap.api.Archive}.
+ * type of any valid {@link org.jboss.shrinkwrap.api.Archive} or a {@link java.util.Collection} of archives.
  * <p>
  * The method can have no parameters or at most one parameter of type {@link org.junit.jupiter.api.TestInfo}.
  * </p>
  * <p>
+ * A test class may have more than one {@link DeploymentProducer} method. All archives are deployed in a single
+ * composite operation, in the {@linkplain #order() order} of the methods, and undeployed in a single composite
+ * operation in the reverse order. Each archive must have a unique name.
+ * </p>
+ * <p>
  * A {@link DeploymentProducer} method cannot be present on the same test that includes a {@link GenerateDeployment}. These are
  * mutually exclusive deployment descriptors.
  * </p>
@@ -30,4 +35,14 @@ import java.lang.annotation.Target;
 @Target({ ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 public @interface DeploymentProducer {
+
+    /**
+     * The order in which the archives of this method are deployed relative to the archives of other
+     * {@link DeploymentProducer} methods on the test class. Lower values are deployed first. Methods with the same
+     * order are deployed in the order of their names. Archives returned in a collection are deployed in the iteration
+     * order of the collection.
+     *
+     * @return the deployment order
+     */
+    int order() default 0;
 }
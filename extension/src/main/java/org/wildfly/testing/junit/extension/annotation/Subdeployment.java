@@ -0,0 +1,62 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.URI;
+
+/**
+ * Qualifies the injection point for a {@link URI} to indicate which WAR subdeployment of an EAR the URI is resolved
+ * for. If not present, the URI is resolved for the first WAR subdeployment, ordered by name. This can be combined with
+ * {@link DeploymentName} if the test class has more than one deployment.
+ * <p>
+ * To inject the URIs of all WAR subdeployments, inject a {@code Map<String, URI>}, which is keyed by the name of the
+ * subdeployment.
+ * </p>
+ *
+ * <pre>
+ * &#x40;WildFlyTest
+ * public class ShopTest {
+ *
+ *     &#x40;DeploymentProducer
+ *     public static EnterpriseArchive shop() {
+ *         return ShrinkWrap.create(EnterpriseArchive.class, "shop.ear")
+ *                 .addAsModule(ShrinkWrap.create(WebArchive.class, "orders.war")
+ *                         .addClasses(OrderServlet.class))
+ *                 .addAsModule(ShrinkWrap.create(WebArchive.class, "users.war")
+ *                         .addClasses(UserServlet.class));
+ *     }
+ *
+ *     &#x40;ServerResource
+ *     &#x40;Subdeployment("users.war")
+ *     &#x40;RequestPath("users")
+ *     private URI usersUri;
+ *
+ *     &#x40;ServerResource
+ *     private Map&lt;String, URI&gt; uris;
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@Inherited
+@Documented
+@Target({ ElementType.FIELD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Subdeployment {
+
+    /**
+     * The name of the WAR subdeployment within the EAR.
+     *
+     * @return the name of the subdeployment
+     */
+    String value();
+}
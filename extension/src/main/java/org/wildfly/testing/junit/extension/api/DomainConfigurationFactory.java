@@ -8,9 +8,9 @@ package org.wildfly.testing.junit.extension.api;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
-import org.junit.platform.commons.JUnitException;
 import org.wildfly.core.launcher.DomainCommandBuilder;
 import org.wildfly.plugin.tools.server.Configuration;
 import org.wildfly.plugin.tools.server.DomainConfiguration;
@@ -49,22 +49,32 @@ public class DomainConfigurationFactory {
      * @return the domain configuration
      */
     public final DomainConfiguration configuration(final ExtensionContext context) {
-        final Path jbossHome = ServerConfiguration.resolveJBossHome(context).orElseThrow(() -> new JUnitException(
-                "Server home not configured. Set jboss.home in junit-platform.properties, " +
-                        "jboss.home system property, or JBOSS_HOME environment variable."));
+        return configuration(context::getConfigurationParameter);
+    }
+
+    /**
+     * Creates a domain configuration from configuration parameters which are not resolved from an
+     * {@link ExtensionContext}. This is used to create the configuration before any tests are executed.
+     *
+     * @param parameters the function used to look up configuration parameters
+     *
+     * @return the domain configuration
+     */
+    public final DomainConfiguration configuration(final Function<String, Optional<String>> parameters) {
+        final Path jbossHome = ServerConfiguration.requireJBossHome(parameters);
 
         final DomainCommandBuilder commandBuilder = DomainCommandBuilder.of(jbossHome);
 
         // Configure optional properties
-        ServerConfiguration.resolveJavaHome(context).ifPresent(commandBuilder::setJavaHome);
+        ServerConfiguration.resolveJavaHome(parameters).ifPresent(commandBuilder::setJavaHome);
 
-        ServerConfiguration.resolveModulePath(context)
+        ServerConfiguration.resolveModulePath(parameters)
                 .ifPresent(modulePath -> commandBuilder.setModuleDirs(modulePath));
 
-        final var protocolOpt = context.getConfigurationParameter(ServerConfiguration.PROTOCOL_PROPERTY);
-        final var portOpt = context.getConfigurationParameter(ServerConfiguration.PORT_PROPERTY, Integer::parseInt);
+        final var protocolOpt = parameters.apply(ServerConfiguration.PROTOCOL_PROPERTY);
+        final var portOpt = parameters.apply(ServerConfiguration.PORT_PROPERTY).map(Integer::parseInt);
 
-        context.getConfigurationParameter("wildfly.java.opts").ifPresent(value -> {
+        parameters.apply("wildfly.java.opts").ifPresent(value -> {
             final var javaOpts = ServerConfiguration.splitArguments(value);
             commandBuilder.addHostControllerJavaOptions(javaOpts);
             commandBuilder.addProcessControllerJavaOptions(javaOpts);
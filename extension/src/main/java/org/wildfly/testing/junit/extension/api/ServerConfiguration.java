@@ -9,10 +9,12 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.JUnitException;
 
 /**
  * The configuration settings for the server.
@@ -25,6 +27,8 @@ public class ServerConfiguration {
 
     static final String PROTOCOL_PROPERTY = "wildfly.http.protocol";
     static final String PORT_PROPERTY = "wildfly.http.port";
+    static final String MANAGEMENT_PORT_PROPERTY = "wildfly.management.port";
+    static final int DEFAULT_MANAGEMENT_PORT = 9990;
 
     /**
      * Resolves the servers base directory. This first uses the
@@ -37,32 +41,60 @@ public class ServerConfiguration {
      * @return the path to the server
      */
     static Optional<Path> resolveJBossHome(final ExtensionContext context) {
-        return context.getConfigurationParameter("jboss.home")
+        return resolveJBossHome(context::getConfigurationParameter);
+    }
+
+    /**
+     * Resolves the servers base directory the same way as {@link #resolveJBossHome(ExtensionContext)}, using the
+     * function to look up the configuration parameters.
+     *
+     * @param parameters the function used to look up configuration parameters
+     *
+     * @return the path to the server
+     */
+    static Optional<Path> resolveJBossHome(final Function<String, Optional<String>> parameters) {
+        return parameters.apply("jboss.home")
                 .or(() -> Optional.ofNullable(System.getenv("JBOSS_HOME")))
-                .or(() -> context.getConfigurationParameter("jboss.home.dir"))
+                .or(() -> parameters.apply("jboss.home.dir"))
                 .map(Path::of);
     }
 
     /**
-     * Resolves the {@code wildfly.java.home} property from the context.
+     * Resolves the servers base directory the same way as {@link #resolveJBossHome(ExtensionContext)}, failing if it
+     * is not configured.
+     *
+     * @param parameters the function used to look up configuration parameters
+     *
+     * @return the path to the server
+     *
+     * @throws JUnitException if the servers base directory is not configured
+     */
+    public static Path requireJBossHome(final Function<String, Optional<String>> parameters) {
+        return resolveJBossHome(parameters).orElseThrow(() -> new JUnitException(
+                "Server home not configured. Set jboss.home in junit-platform.properties, " +
+                        "jboss.home system property, or JBOSS_HOME environment variable."));
+    }
+
+    /**
+     * Resolves the {@code wildfly.java.home} configuration parameter.
      *
-     * @param context the extension context
+     * @param parameters the function used to look up configuration parameters
      *
      * @return the value of the {@code wildfly.java.home}, otherwise empty
      */
-    static Optional<Path> resolveJavaHome(final ExtensionContext context) {
-        return context.getConfigurationParameter("wildfly.java.home", Path::of);
+    static Optional<Path> resolveJavaHome(final Function<String, Optional<String>> parameters) {
+        return parameters.apply("wildfly.java.home").map(Path::of);
     }
 
     /**
-     * Resolves the {@code wildfly.module.path} property from the context.
+     * Resolves the {@code wildfly.module.path} configuration parameter.
      *
-     * @param context the extension context
+     * @param parameters the function used to look up configuration parameters
      *
      * @return the value of the {@code wildfly.module.path}, otherwise empty
      */
-    static Optional<String> resolveModulePath(final ExtensionContext context) {
-        return context.getConfigurationParameter("wildfly.module.path");
+    static Optional<String> resolveModulePath(final Function<String, Optional<String>> parameters) {
+        return parameters.apply("wildfly.module.path");
     }
 
     /**
@@ -74,7 +106,19 @@ public class ServerConfiguration {
      * @return the timeout
      */
     public static long timeout(final ExtensionContext context) {
-        return context.getConfigurationParameter("wildfly.timeout", Long::parseLong).orElse(60L);
+        return timeout(context::getConfigurationParameter);
+    }
+
+    /**
+     * Resolves the timeout the same way as {@link #timeout(ExtensionContext)}, using the function to look up the
+     * configuration parameters.
+     *
+     * @param parameters the function used to look up configuration parameters
+     *
+     * @return the timeout
+     */
+    public static long timeout(final Function<String, Optional<String>> parameters) {
+        return parameters.apply("wildfly.timeout").map(Long::parseLong).orElse(60L);
     }
 
     /**
@@ -109,6 +153,19 @@ public class ServerConfiguration {
      * @return the base URI
      */
     public static String resolveBaseUri(final ExtensionContext context) {
+        return resolveBaseUri(context, 0);
+    }
+
+    /**
+     * Resolves the base URI the same way as {@link #resolveBaseUri(ExtensionContext)}, adding the port offset to the
+     * resolved port. This is used for servers started with a {@code jboss.socket.binding.port-offset}.
+     *
+     * @param context    the context to resolve the values from
+     * @param portOffset the port offset of the server
+     *
+     * @return the base URI
+     */
+    public static String resolveBaseUri(final ExtensionContext context, final int portOffset) {
         // Resolve the protocol
         final String protocol = context.getConfigurationParameter(PROTOCOL_PROPERTY).orElse("http");
 
@@ -123,7 +180,7 @@ public class ServerConfiguration {
             return 8080;
         });
 
-        return "%s://%s:%d".formatted(protocol, host, port);
+        return "%s://%s:%d".formatted(protocol, host, port + portOffset);
     }
 
     /**
@@ -6,6 +6,8 @@
 package org.wildfly.testing.junit.extension.api;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
 
@@ -20,6 +22,10 @@ public interface ServerResourceProducer {
 
     /**
      * Indicates the type can be produced from this producer.
+     * <p>
+     * The result is cached. For a field, it is cached per test class and the context may be the context of any test
+     * in the class. For a parameter, it is cached per test method, or per test class if there is no test method.
+     * </p>
      *
      * @param context     the current extension context
      * @param clazz       the type to check
@@ -29,6 +35,28 @@ public interface ServerResourceProducer {
      */
     boolean canInject(ExtensionContext context, Class<?> clazz, Annotation... annotations);
 
+    /**
+     * Indicates the generic type of a field or parameter can be produced from this producer. A producer overrides
+     * this method to check the type arguments of a parameterized type. The default implementation checks the raw type
+     * with {@link #canInject(ExtensionContext, Class, Annotation...)}. The result is cached the same way.
+     *
+     * @param context     the current extension context
+     * @param type        the generic type to check
+     * @param annotations the annotations, if any, for the field or parameter
+     *
+     * @return {@code true} if this producer can create this type, otherwise {@code false}
+     */
+    default boolean canInject(final ExtensionContext context, final Type type, final Annotation... annotations) {
+        if (type instanceof Class<?> clazz) {
+            return canInject(context, clazz, annotations);
+        }
+        if (type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() instanceof Class<?> rawType) {
+            return canInject(context, rawType, annotations);
+        }
+        return false;
+    }
+
     /**
      * Creates the object which can be injected into a static field, an instance field or a parameter.
      *
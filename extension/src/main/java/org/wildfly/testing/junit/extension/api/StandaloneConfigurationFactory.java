@@ -8,9 +8,9 @@ package org.wildfly.testing.junit.extension.api;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
-import org.junit.platform.commons.JUnitException;
 import org.wildfly.core.launcher.StandaloneCommandBuilder;
 import org.wildfly.plugin.tools.server.Configuration;
 import org.wildfly.plugin.tools.server.StandaloneConfiguration;
@@ -40,6 +40,13 @@ import org.wildfly.plugin.tools.server.StandaloneConfiguration;
  * <li>{@code wildfly.debug.suspend} - Suspend on startup (default: true)</li>
  * </ul>
  *
+ * <p>
+ * A server created with a port offset, for example an additional server of a server pool, adds the port offset to the
+ * debug port as well. This allows each server to listen for a debugger on its own port. As such a server is typically
+ * started while other tests are running, it only suspends on startup if {@code wildfly.debug.suspend} is explicitly
+ * set.
+ * </p>
+ *
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
 public class StandaloneConfigurationFactory {
@@ -52,23 +59,57 @@ public class StandaloneConfigurationFactory {
      * @return the standalone configuration
      */
     public final StandaloneConfiguration configuration(final ExtensionContext context) {
-        final Path jbossHome = ServerConfiguration.resolveJBossHome(context).orElseThrow(() -> new JUnitException(
-                "Server home not configured. Set jboss.home in junit-platform.properties, " +
-                        "jboss.home system property, or JBOSS_HOME environment variable."));
+        return configuration(context::getConfigurationParameter, null, 0);
+    }
+
+    /**
+     * Creates a standalone configuration for a server which uses its own base directory and port offset. This is
+     * used to run several servers from the same installation at the same time.
+     *
+     * @param context    the extension context for accessing JUnit configuration
+     * @param baseDir    the base directory for the server or {@code null} to use the default base directory
+     * @param portOffset the offset for all ports of the server, including the management port
+     *
+     * @return the standalone configuration
+     */
+    public final StandaloneConfiguration configuration(final ExtensionContext context, final Path baseDir,
+            final int portOffset) {
+        return configuration(context::getConfigurationParameter, baseDir, portOffset);
+    }
+
+    /**
+     * Creates a standalone configuration from configuration parameters which are not resolved from an
+     * {@link ExtensionContext}. This is used to create the configuration before any tests are executed.
+     *
+     * @param parameters the function used to look up configuration parameters
+     * @param baseDir    the base directory for the server or {@code null} to use the default base directory
+     * @param portOffset the offset for all ports of the server, including the management port
+     *
+     * @return the standalone configuration
+     */
+    public final StandaloneConfiguration configuration(final Function<String, Optional<String>> parameters,
+            final Path baseDir, final int portOffset) {
+        final Path jbossHome = ServerConfiguration.requireJBossHome(parameters);
 
         final StandaloneCommandBuilder commandBuilder = StandaloneCommandBuilder.of(jbossHome);
+        if (baseDir != null) {
+            commandBuilder.setBaseDirectory(baseDir);
+        }
+        if (portOffset > 0) {
+            commandBuilder.addJavaOption("-Djboss.socket.binding.port-offset=" + portOffset);
+        }
 
         // Configure optional properties
-        ServerConfiguration.resolveJavaHome(context).ifPresent(commandBuilder::setJavaHome);
+        ServerConfiguration.resolveJavaHome(parameters).ifPresent(commandBuilder::setJavaHome);
 
-        ServerConfiguration.resolveModulePath(context)
+        ServerConfiguration.resolveModulePath(parameters)
                 .ifPresent(modulePath -> commandBuilder.setModuleDirs(modulePath));
 
-        context.getConfigurationParameter("wildfly.java.opts")
+        parameters.apply("wildfly.java.opts")
                 .ifPresent(value -> commandBuilder.addJavaOptions(ServerConfiguration.splitArguments(value)));
 
-        final var protocolOpt = context.getConfigurationParameter(ServerConfiguration.PROTOCOL_PROPERTY);
-        final var portOpt = context.getConfigurationParameter(ServerConfiguration.PORT_PROPERTY, Integer::parseInt);
+        final var protocolOpt = parameters.apply(ServerConfiguration.PROTOCOL_PROPERTY);
+        final var portOpt = parameters.apply(ServerConfiguration.PORT_PROPERTY).map(Integer::parseInt);
 
         if (portOpt.isPresent()) {
             final int port = portOpt.get();
@@ -78,26 +119,35 @@ public class StandaloneConfigurationFactory {
                 commandBuilder.addJavaOption("-Djboss.http.port=%d".formatted(port));
             }
         }
-        // Check the context parameters for wildfly.debug, wildfly.debug.port and wildfly.debug.suspend
-        final var debugProperty = context.getConfigurationParameter("wildfly.debug");
+        // Check the configuration parameters for wildfly.debug, wildfly.debug.port and wildfly.debug.suspend
+        final var debugProperty = parameters.apply("wildfly.debug");
         if (debugProperty.isPresent()) {
             final var debugEnabled = debugProperty.get().isEmpty() || Boolean.parseBoolean(debugProperty.get());
             if (debugEnabled) {
-                final int port = context.getConfigurationParameter("wildfly.debug.port")
-                        .map(Integer::parseInt).orElse(8787);
-                final boolean suspend = context.getConfigurationParameter("wildfly.debug.suspend")
+                // Each server with a port offset needs its own debug port
+                final int port = parameters.apply("wildfly.debug.port")
+                        .map(Integer::parseInt).orElse(8787) + Math.max(portOffset, 0);
+                final boolean suspend = parameters.apply("wildfly.debug.suspend")
                         .map((value) -> {
                             if (value.isEmpty()) {
                                 return true;
                             }
                             return Boolean.parseBoolean(value);
                         })
-                        .orElse(true);
+                        .orElse(portOffset <= 0);
                 commandBuilder.setDebug(suspend, port);
             }
         }
 
-        return configure(commandBuilder);
+        final StandaloneConfiguration configuration = configure(commandBuilder);
+        // The management port of the server is the configured port shifted by the port offset
+        final var managementPort = parameters.apply(ServerConfiguration.MANAGEMENT_PORT_PROPERTY)
+                .map(Integer::parseInt);
+        if (managementPort.isPresent() || portOffset > 0) {
+            configuration.managementPort(managementPort.orElse(ServerConfiguration.DEFAULT_MANAGEMENT_PORT)
+                    + Math.max(portOffset, 0));
+        }
+        return configuration;
     }
 
     /**
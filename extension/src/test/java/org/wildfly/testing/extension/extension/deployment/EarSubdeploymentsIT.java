@@ -0,0 +1,79 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.extension.extension.deployment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.EnterpriseArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+import org.wildfly.testing.junit.extension.annotation.RequestPath;
+import org.wildfly.testing.junit.extension.annotation.ServerResource;
+import org.wildfly.testing.junit.extension.annotation.Subdeployment;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * Tests injecting the URIs of each WAR subdeployment of an EAR.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@WildFlyTest
+public class EarSubdeploymentsIT {
+
+    @ServerResource
+    @RequestPath("/test")
+    private Map<String, URI> uris;
+
+    @DeploymentProducer
+    public static EnterpriseArchive deployment() {
+        return ShrinkWrap.create(EnterpriseArchive.class, "subdeployments.ear")
+                .addAsModule(ShrinkWrap.create(WebArchive.class, "first.war")
+                        .addClasses(TestServlet.class))
+                .addAsModule(ShrinkWrap.create(WebArchive.class, "second.war")
+                        .addClasses(TestServlet.class));
+    }
+
+    @Test
+    public void allSubdeployments() throws Exception {
+        Assertions.assertEquals(2, uris.size(), () -> "Expected a URI for each WAR: %s".formatted(uris));
+        Assertions.assertTrue(uris.get("first.war").getPath().startsWith("/first/"),
+                () -> "Expected the URI of the first WAR: %s".formatted(uris));
+        Assertions.assertTrue(uris.get("second.war").getPath().startsWith("/second/"),
+                () -> "Expected the URI of the second WAR: %s".formatted(uris));
+        for (URI uri : uris.values()) {
+            checkResponse(uri);
+        }
+    }
+
+    @Test
+    public void defaultSubdeployment(@ServerResource @RequestPath("/test") final URI uri) throws Exception {
+        Assertions.assertEquals(uris.get("first.war"), uri);
+    }
+
+    @Test
+    public void namedSubdeployment(@ServerResource @Subdeployment("second.war") @RequestPath("/test") final URI uri)
+            throws Exception {
+        Assertions.assertEquals(uris.get("second.war"), uri);
+        checkResponse(uri);
+    }
+
+    private static void checkResponse(final URI uri) throws Exception {
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+                .GET()
+                .build();
+        final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(),
+                () -> "Expected HTTP status code %d: %s".formatted(response.statusCode(), response.body()));
+    }
+}
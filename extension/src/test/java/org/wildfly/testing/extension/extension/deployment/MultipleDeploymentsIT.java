@@ -0,0 +1,83 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.extension.extension.deployment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.wildfly.plugin.tools.server.ServerManager;
+import org.wildfly.testing.junit.extension.annotation.DeploymentName;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+import org.wildfly.testing.junit.extension.annotation.RequestPath;
+import org.wildfly.testing.junit.extension.annotation.ServerResource;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * Tests more than one {@link DeploymentProducer} method on a single test class.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@WildFlyTest
+public class MultipleDeploymentsIT {
+
+    @ServerResource
+    private ServerManager serverManager;
+
+    @DeploymentProducer
+    public static JavaArchive library() {
+        return ShrinkWrap.create(JavaArchive.class, "multiple-library.jar")
+                .addClasses(TestServlet.class);
+    }
+
+    @DeploymentProducer(order = 1)
+    public static List<WebArchive> clients() {
+        return List.of(
+                ShrinkWrap.create(WebArchive.class, "multiple-first.war")
+                        .addClasses(TestServlet.class),
+                ShrinkWrap.create(WebArchive.class, "multiple-second.war")
+                        .addClasses(TestServlet.class));
+    }
+
+    @Test
+    public void deployed() throws Exception {
+        Assertions.assertTrue(serverManager.deploymentManager().hasDeployment("multiple-library.jar"));
+        Assertions.assertTrue(serverManager.deploymentManager().hasDeployment("multiple-first.war"));
+        Assertions.assertTrue(serverManager.deploymentManager().hasDeployment("multiple-second.war"));
+    }
+
+    @Test
+    public void defaultUri(@ServerResource @RequestPath("/test") final URI uri) throws Exception {
+        Assertions.assertTrue(uri.getPath().startsWith("/multiple-first/"),
+                () -> "Expected the URI of the first WAR: %s".formatted(uri));
+        checkResponse(uri);
+    }
+
+    @Test
+    public void namedUri(@ServerResource @DeploymentName("multiple-second.war") @RequestPath("/test") final URI uri)
+            throws Exception {
+        Assertions.assertTrue(uri.getPath().startsWith("/multiple-second/"),
+                () -> "Expected the URI of the second WAR: %s".formatted(uri));
+        checkResponse(uri);
+    }
+
+    private static void checkResponse(final URI uri) throws Exception {
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+                .GET()
+                .build();
+        final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(),
+                () -> "Expected HTTP status code %d: %s".formatted(response.statusCode(), response.body()));
+    }
+}
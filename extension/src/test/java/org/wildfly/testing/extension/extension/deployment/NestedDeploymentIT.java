@@ -0,0 +1,80 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.extension.extension.deployment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.wildfly.plugin.tools.server.ServerManager;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+import org.wildfly.testing.junit.extension.annotation.RequestPath;
+import org.wildfly.testing.junit.extension.annotation.ServerResource;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * Tests that {@link Nested @Nested} test classes use the deployment of the enclosing test class.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@WildFlyTest
+public class NestedDeploymentIT {
+
+    @DeploymentProducer
+    public static WebArchive deployment() {
+        return ShrinkWrap.create(WebArchive.class, "nested.war")
+                .addClasses(TestServlet.class);
+    }
+
+    @ServerResource
+    @RequestPath("/test")
+    private URI uri;
+
+    @Test
+    public void outerUri() throws Exception {
+        checkResponse(uri);
+    }
+
+    @Nested
+    public class InheritedDeployment {
+
+        @ServerResource
+        @RequestPath("/test")
+        private URI nestedUri;
+
+        @ServerResource
+        private ServerManager serverManager;
+
+        @Test
+        public void sameUri() throws Exception {
+            Assertions.assertEquals(uri, nestedUri);
+            checkResponse(nestedUri);
+        }
+
+        @Test
+        public void notRedeployed() throws Exception {
+            Assertions.assertEquals(1, serverManager.deploymentManager().getDeploymentNames().stream()
+                    .filter("nested.war"::equals)
+                    .count());
+        }
+    }
+
+    private static void checkResponse(final URI uri) throws Exception {
+        final HttpClient client = HttpClient.newHttpClient();
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+                .GET()
+                .build();
+        final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode(),
+                () -> "Expected HTTP status code %d: %s".formatted(response.statusCode(), response.body()));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests waiting for the undeployments submitted to an {@link AsyncUndeployer}.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class AsyncUndeployerTestCase {
+
+    @Test
+    public void await() throws Exception {
+        try (AsyncUndeployer undeployer = new AsyncUndeployer()) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicBoolean undeployed = new AtomicBoolean();
+            undeployer.submit(List.of("first.war", "second.jar"), () -> {
+                await(latch);
+                undeployed.set(true);
+            });
+
+            // Deployments with other names do not wait for the pending undeployment
+            undeployer.await(List.of("other.war"));
+            Assertions.assertFalse(undeployed.get());
+
+            final CompletableFuture<Void> awaiting = CompletableFuture.runAsync(
+                    () -> undeployer.await(List.of("second.jar")));
+            Assertions.assertThrows(TimeoutException.class, () -> awaiting.get(200, TimeUnit.MILLISECONDS));
+            latch.countDown();
+            awaiting.get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(undeployed.get());
+        }
+    }
+
+    @Test
+    public void drain() throws Exception {
+        final AsyncUndeployer undeployer = new AsyncUndeployer();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicBoolean first = new AtomicBoolean();
+        final AtomicBoolean second = new AtomicBoolean();
+        undeployer.submit(List.of("first.war"), () -> {
+            await(latch);
+            first.set(true);
+        });
+        undeployer.submit(List.of("second.war"), () -> second.set(true));
+        // A failed undeployment is logged and does not fail the waiting test class
+        undeployer.submit(List.of("failed.war"), () -> {
+            throw new IllegalStateException("Undeploy failed");
+        });
+
+        final CompletableFuture<Void> closing = CompletableFuture.runAsync(undeployer::close);
+        Assertions.assertThrows(TimeoutException.class, () -> closing.get(200, TimeUnit.MILLISECONDS));
+        latch.countDown();
+        closing.get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(first.get());
+        Assertions.assertTrue(second.get());
+
+        // A closed undeployer starts a new thread for further undeployments
+        final AtomicBoolean third = new AtomicBoolean();
+        undeployer.submit(List.of("third.war"), () -> third.set(true));
+        undeployer.drain();
+        Assertions.assertTrue(third.get());
+        undeployer.close();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the latch");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
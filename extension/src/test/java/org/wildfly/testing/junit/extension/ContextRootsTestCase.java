@@ -0,0 +1,106 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests resolving the context roots of deployments from the result of a composite operation.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class ContextRootsTestCase {
+
+    @Test
+    public void resolve() {
+        final TestServerManager server = new TestServerManager();
+        final List<ModelNode> executed = new ArrayList<>();
+        server.setOperationHandler((op) -> {
+            executed.add(op);
+            final ModelNode result = new ModelNode();
+            result.get("step-1").set(TestServerManager.success(new ModelNode("/app")));
+            // A wildcard address returns the result of each subdeployment with its address
+            final ModelNode subdeployments = new ModelNode().setEmptyList();
+            subdeployments.add(subdeploymentResult("web.war", TestServerManager.success(new ModelNode("/web"))));
+            subdeployments.add(subdeploymentResult("admin.war", TestServerManager.failure("No context root")));
+            subdeployments.add(subdeploymentResult("rest.war", TestServerManager.success(new ModelNode("/rest"))));
+            result.get("step-2").set(TestServerManager.success(subdeployments));
+            result.get("step-3").set(TestServerManager.failure("Undertow is not available"));
+            return TestServerManager.success(result);
+        });
+        final List<DeploymentInfo> resolved = ContextRoots.resolve(server.serverManager(), List.of(
+                deployment("app.war"), deployment("lib.jar"), deployment("app.ear"), deployment("missing.WAR")));
+
+        // Only the web deployments are resolved, in a single composite operation
+        Assertions.assertEquals(1, executed.size());
+        final List<ModelNode> steps = executed.get(0).get(ClientConstants.STEPS).asList();
+        Assertions.assertEquals(3, steps.size());
+        Assertions.assertEquals(address("app.war", null), Operations.getOperationAddress(steps.get(0)));
+        Assertions.assertEquals(address("app.ear", "*"), Operations.getOperationAddress(steps.get(1)));
+        Assertions.assertEquals("context-root", steps.get(0).get(ClientConstants.NAME).asString());
+
+        Assertions.assertEquals(List.of("app.war", "lib.jar", "app.ear", "missing.WAR"), resolved.stream()
+                .map(DeploymentInfo::deploymentName)
+                .toList());
+        Assertions.assertEquals(Map.of("", "/app"), resolved.get(0).contextRoots());
+        Assertions.assertEquals(Map.of(), resolved.get(1).contextRoots());
+        Assertions.assertEquals(Map.of("web.war", "/web", "rest.war", "/rest"), resolved.get(2).contextRoots());
+        Assertions.assertEquals(Map.of(), resolved.get(3).contextRoots(),
+                "A failed step should resolve no context roots");
+    }
+
+    @Test
+    public void noWebDeployments() {
+        final TestServerManager server = new TestServerManager();
+        server.setOperationHandler((op) -> {
+            throw new AssertionError("No operation should be executed for " + op);
+        });
+        final List<DeploymentInfo> resolved = ContextRoots.resolve(server.serverManager(),
+                List.of(deployment("lib.jar")));
+        Assertions.assertEquals(Map.of(), resolved.get(0).contextRoots());
+    }
+
+    @Test
+    public void failed() {
+        final List<DeploymentInfo> deployments = List.of(deployment("app.war"), deployment("lib.jar"));
+        final TestServerManager server = new TestServerManager();
+        // The deployments are returned unchanged, the context root is resolved when a URI is injected
+        server.setOperationHandler((op) -> TestServerManager.failure("Composite operation failed"));
+        Assertions.assertEquals(deployments, ContextRoots.resolve(server.serverManager(), deployments));
+
+        server.setOperationHandler((op) -> {
+            throw new IllegalStateException("Connection failed");
+        });
+        Assertions.assertEquals(deployments, ContextRoots.resolve(server.serverManager(), deployments));
+    }
+
+    private static ModelNode subdeploymentResult(final String subdeployment, final ModelNode result) {
+        result.get(ClientConstants.OP_ADDR).set(address("app.ear", subdeployment));
+        return result;
+    }
+
+    private static ModelNode address(final String deploymentName, final String subdeployment) {
+        final ModelNode address = new ModelNode().setEmptyList();
+        address.add(ClientConstants.DEPLOYMENT, deploymentName);
+        if (subdeployment != null) {
+            address.add("subdeployment", subdeployment);
+        }
+        return address.add(ClientConstants.SUBSYSTEM, "undertow");
+    }
+
+    private static DeploymentInfo deployment(final String name) {
+        return new DeploymentInfo(name, Set.of());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.InputStreamAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.JUnitException;
+
+/**
+ * Tests acquiring, releasing and undeploying deployments in the {@link DeploymentCache}.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class DeploymentCacheTestCase {
+
+    @Test
+    public void reuse() {
+        final TestServerManager server = new TestServerManager();
+        final DeploymentCache cache = new DeploymentCache(server.serverManager(), 10);
+        final DeploymentInfo deployment = deployment("test.war");
+        Assertions.assertFalse(cache.acquire(deployment, "1"), "An empty cache should not contain the deployment");
+        cache.add(deployment, "1");
+
+        // A second class with the same content shares the deployment
+        Assertions.assertTrue(cache.acquire(deployment, "1"));
+        // Different content cannot replace a deployment which is still referenced
+        Assertions.assertThrows(JUnitException.class, () -> cache.acquire(deployment, "2"));
+
+        Assertions.assertTrue(cache.release(deployment));
+        Assertions.assertTrue(cache.release(deployment));
+        Assertions.assertTrue(server.operations().isEmpty(), "Released deployments should stay deployed");
+
+        // Once no longer referenced, a deployment with different content replaces it
+        Assertions.assertFalse(cache.acquire(deployment, "2"));
+        Assertions.assertEquals(List.of("undeploy:test.war"), server.operations());
+    }
+
+    @Test
+    public void releaseNotCached() {
+        final TestServerManager server = new TestServerManager();
+        final DeploymentCache cache = new DeploymentCache(server.serverManager(), 10);
+        cache.add(new DeploymentInfo("test.war", Set.of("main-server-group")), "1");
+        Assertions.assertFalse(cache.release(deployment("other.war")));
+        Assertions.assertFalse(cache.release(deployment("test.war")),
+                "A deployment with different server groups is not managed by the cache");
+        Assertions.assertTrue(server.operations().isEmpty());
+    }
+
+    @Test
+    public void retainLimit() {
+        final TestServerManager server = new TestServerManager();
+        final DeploymentCache cache = new DeploymentCache(server.serverManager(), 2);
+        final DeploymentInfo first = deployment("first.war");
+        final DeploymentInfo second = deployment("second.war");
+        final DeploymentInfo third = deployment("third.war");
+        cache.add(first, "1");
+        cache.add(second, "2");
+        cache.add(third, "3");
+
+        Assertions.assertTrue(cache.release(first));
+        Assertions.assertTrue(cache.release(second));
+        Assertions.assertTrue(server.operations().isEmpty());
+
+        // Reacquiring the first deployment makes the second the eldest unreferenced deployment
+        Assertions.assertTrue(cache.acquire(first, "1"));
+        Assertions.assertTrue(cache.release(first));
+        Assertions.assertTrue(cache.release(third));
+        Assertions.assertEquals(List.of("undeploy:second.war"), server.operations());
+
+        // The evicted deployment is no longer in the cache
+        Assertions.assertFalse(cache.acquire(second, "2"));
+        Assertions.assertTrue(cache.acquire(first, "1"));
+        Assertions.assertTrue(cache.acquire(third, "3"));
+    }
+
+    @Test
+    public void retainNone() {
+        final TestServerManager server = new TestServerManager();
+        final DeploymentCache cache = new DeploymentCache(server.serverManager(), 0);
+        final DeploymentInfo deployment = deployment("test.war");
+        cache.add(deployment, "1");
+        Assertions.assertTrue(cache.acquire(deployment, "1"));
+
+        Assertions.assertTrue(cache.release(deployment));
+        Assertions.assertTrue(server.operations().isEmpty(), "The deployment is still referenced");
+        Assertions.assertTrue(cache.release(deployment));
+        Assertions.assertEquals(List.of("undeploy:test.war"), server.operations());
+        Assertions.assertFalse(cache.acquire(deployment, "1"));
+    }
+
+    @Test
+    public void takeForUpdate() {
+        final TestServerManager server = new TestServerManager();
+        final DeploymentCache cache = new DeploymentCache(server.serverManager(), 10);
+        final DeploymentInfo deployment = new DeploymentInfo("test.war", Set.of(), Path.of("exploded", "test.war"));
+        final NavigableMap<String, String> entryHashes = new TreeMap<>(Map.of("/index.html", "1"));
+        cache.add(deployment, "1", entryHashes);
+
+        // A referenced deployment cannot be updated
+        Assertions.assertTrue(cache.takeForUpdate(deployment("test.war"), "2").isEmpty());
+        cache.release(deployment);
+        // The same content does not require an update and a deployment with a different name cannot be updated
+        Assertions.assertTrue(cache.takeForUpdate(deployment("test.war"), "1").isEmpty());
+        Assertions.assertTrue(cache.takeForUpdate(deployment("other.war"), "2").isEmpty());
+
+        final Optional<DeploymentCache.CachedDeployment> cached = cache.takeForUpdate(deployment("test.war"), "2");
+        Assertions.assertTrue(cached.isPresent());
+        Assertions.assertEquals(deployment, cached.get().deploymentInfo());
+        Assertions.assertEquals(entryHashes, cached.get().entryHashes());
+        // The deployment is taken from the cache until it is added again
+        Assertions.assertTrue(cache.takeForUpdate(deployment("test.war"), "2").isEmpty());
+        Assertions.assertTrue(server.operations().isEmpty(), "A deployment taken for an update stays deployed");
+    }
+
+    @Test
+    public void evict() {
+        final TestServerManager server = new TestServerManager();
+        final DeploymentCache cache = new DeploymentCache(server.serverManager(), 10);
+        final DeploymentInfo deployment = deployment("test.war");
+        cache.add(deployment, "1");
+
+        // A deployment which is still referenced cannot be replaced
+        Assertions.assertThrows(JUnitException.class, () -> cache.evict(deployment));
+        cache.release(deployment);
+        cache.evict(deployment("other.war"));
+        Assertions.assertTrue(server.operations().isEmpty());
+
+        cache.evict(deployment);
+        Assertions.assertEquals(List.of("undeploy:test.war"), server.operations());
+        Assertions.assertFalse(cache.release(deployment), "An evicted deployment is no longer in the cache");
+    }
+
+    @Test
+    public void cacheable() {
+        final WebArchive archive = ShrinkWrap.create(WebArchive.class, "test.war")
+                .addAsWebResource(new StringAsset("index"), "index.html");
+        Assertions.assertTrue(DeploymentCache.isCacheable(archive));
+
+        // An entry which can only be read once would be empty once exported
+        final JavaArchive library = ShrinkWrap.create(JavaArchive.class, "library.jar")
+                .add(new InputStreamAsset(new ByteArrayInputStream("once".getBytes(StandardCharsets.UTF_8))),
+                        "once.txt");
+        archive.addAsLibrary(library);
+        Assertions.assertFalse(DeploymentCache.isCacheable(archive));
+        Assertions.assertFalse(DeploymentCache.isCacheable(library));
+    }
+
+    @Test
+    public void close() {
+        final TestServerManager server = new TestServerManager();
+        final DeploymentCache cache = new DeploymentCache(server.serverManager(), 10);
+        cache.add(deployment("first.war"), "1");
+        cache.add(deployment("second.war"), "2");
+        cache.release(deployment("second.war"));
+        cache.close();
+        Assertions.assertEquals(Set.of("undeploy:first.war", "undeploy:second.war"), Set.copyOf(server.operations()));
+
+        // Nothing is undeployed from a server which is no longer running
+        server.clear();
+        server.setRunning(false);
+        final DeploymentCache stopped = new DeploymentCache(server.serverManager(), 10);
+        stopped.add(deployment("test.war"), "1");
+        stopped.close();
+        Assertions.assertTrue(server.operations().isEmpty());
+    }
+
+    private static DeploymentInfo deployment(final String name) {
+        return new DeploymentInfo(name, Set.of());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Tests resolving the deployments cached for a test class.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class DeploymentContextTestCase {
+
+    @Test
+    public void primaryDeployment() {
+        final ExtensionContext context = TestExtensionContext.of(TestExtensionContext.of(Map.of()),
+                DeploymentContextTestCase.class);
+        Assertions.assertTrue(DeploymentContext.resolveDeployment(context).isEmpty());
+
+        // The first web deployment is the primary deployment
+        DeploymentContext.cache(context, List.of(deployment("lib.jar"), deployment("first.war"),
+                deployment("second.ear")));
+        Assertions.assertEquals(Optional.of(deployment("first.war")), DeploymentContext.resolveDeployment(context));
+        Assertions.assertEquals(Optional.of(deployment("second.ear")),
+                DeploymentContext.resolveDeployment(context, "second.ear"));
+        Assertions.assertTrue(DeploymentContext.resolveDeployment(context, "missing.war").isEmpty());
+
+        // Without a web deployment, the first deployment is the primary deployment
+        DeploymentContext.cache(context, List.of(deployment("first.jar"), deployment("second.rar")));
+        Assertions.assertEquals(Optional.of(deployment("first.jar")), DeploymentContext.resolveDeployment(context));
+
+        DeploymentContext.remove(context);
+        Assertions.assertTrue(DeploymentContext.resolveDeployments(context).isEmpty());
+    }
+
+    @Test
+    public void nestedInheritsDeployments() {
+        final ExtensionContext outer = TestExtensionContext.of(TestExtensionContext.of(Map.of()), OuterTest.class);
+        final ExtensionContext nested = TestExtensionContext.of(outer, OuterTest.NestedTest.class);
+        final ExtensionContext deepNested = TestExtensionContext.of(nested, OuterTest.NestedTest.DeepNestedTest.class);
+        DeploymentContext.cache(outer, List.of(deployment("lib.jar"), deployment("outer.war")));
+
+        // Nested test classes without deployments use the deployments of the closest enclosing test class
+        Assertions.assertEquals(List.of(deployment("lib.jar"), deployment("outer.war")),
+                DeploymentContext.resolveDeployments(deepNested));
+        Assertions.assertEquals(Optional.of(deployment("outer.war")), DeploymentContext.resolveDeployment(nested));
+        Assertions.assertTrue(DeploymentContext.resolveClassDeployments(nested).isEmpty(),
+                "The deployments of the enclosing test class are not deployed by the nested test class");
+
+        // The URIs are resolved once and shared with the test class which owns the deployments
+        final URI uri = URI.create("http://localhost:8080/outer");
+        Assertions.assertEquals(uri, DeploymentContext.computeIfAbsent(deepNested, "outer.war", () -> uri));
+        Assertions.assertEquals(uri, DeploymentContext.computeIfAbsent(outer, "outer.war", () -> {
+            throw new AssertionError("The URI should have been resolved by the nested test class");
+        }));
+    }
+
+    @Test
+    public void nestedOwnDeployments() {
+        final ExtensionContext outer = TestExtensionContext.of(TestExtensionContext.of(Map.of()), OuterTest.class);
+        final ExtensionContext nested = TestExtensionContext.of(outer, OuterTest.NestedTest.class);
+        final ExtensionContext deepNested = TestExtensionContext.of(nested, OuterTest.NestedTest.DeepNestedTest.class);
+        DeploymentContext.cache(outer, deployment("outer.war"));
+        DeploymentContext.cache(nested, deployment("nested.war"));
+
+        // The closest test class with deployments owns the deployments
+        Assertions.assertEquals(List.of(deployment("nested.war")), DeploymentContext.resolveDeployments(deepNested));
+        Assertions.assertEquals(List.of(deployment("nested.war")), DeploymentContext.resolveClassDeployments(nested));
+        Assertions.assertEquals(List.of(deployment("outer.war")), DeploymentContext.resolveDeployments(outer));
+
+        final URI outerUri = URI.create("http://localhost:8080/outer");
+        final URI nestedUri = URI.create("http://localhost:8080/nested");
+        Assertions.assertEquals(outerUri, DeploymentContext.computeIfAbsent(outer, "outer.war", () -> outerUri));
+        Assertions.assertEquals(nestedUri, DeploymentContext.computeIfAbsent(deepNested, "nested.war", () -> nestedUri));
+        Assertions.assertEquals(nestedUri, DeploymentContext.computeIfAbsent(nested, "nested.war", () -> outerUri));
+
+        // Removing the deployments of the nested test class makes the enclosing test class the owner again
+        DeploymentContext.remove(nested);
+        Assertions.assertEquals(List.of(deployment("outer.war")), DeploymentContext.resolveDeployments(deepNested));
+        Assertions.assertEquals(outerUri, DeploymentContext.computeIfAbsent(deepNested, "outer.war", () -> nestedUri));
+    }
+
+    @Test
+    public void noOwner() {
+        final ExtensionContext outer = TestExtensionContext.of(TestExtensionContext.of(Map.of()), OuterTest.class);
+        final ExtensionContext nested = TestExtensionContext.of(outer, OuterTest.NestedTest.class);
+        Assertions.assertTrue(DeploymentContext.resolveDeployments(nested).isEmpty());
+
+        // Without deployments, the URI is cached for the test class itself
+        final URI nestedUri = URI.create("http://localhost:8080/");
+        final URI outerUri = URI.create("http://localhost:8180/");
+        Assertions.assertEquals(nestedUri, DeploymentContext.computeIfAbsent(nested, null, () -> nestedUri));
+        Assertions.assertEquals(outerUri, DeploymentContext.computeIfAbsent(outer, null, () -> outerUri));
+        Assertions.assertEquals(nestedUri, DeploymentContext.computeIfAbsent(nested, null, () -> outerUri));
+    }
+
+    private static DeploymentInfo deployment(final String name) {
+        return new DeploymentInfo(name, Set.of());
+    }
+
+    public static class OuterTest {
+
+        public class NestedTest {
+
+            public class DeepNestedTest {
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.OutputDirectoryCreator;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.EngineDescriptor;
+import org.junit.platform.engine.support.store.Namespace;
+import org.junit.platform.engine.support.store.NamespacedHierarchicalStore;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.wildfly.testing.junit.extension.DeploymentPrefetchListener.PrefetchExecutionListener;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * Tests preparing the deployments of upcoming test classes from a test plan.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class DeploymentPrefetcherTestCase {
+    private static final Namespace NAMESPACE = Namespace.create(WildFlyExtension.SERVER_NAMESPACE_NAME);
+    private static final Map<Class<?>, AtomicInteger> INVOCATIONS = Map.of(
+            FirstTest.class, new AtomicInteger(),
+            SecondTest.class, new AtomicInteger(),
+            ThirdTest.class, new AtomicInteger());
+
+    @BeforeEach
+    public void resetInvocations() {
+        INVOCATIONS.values().forEach(count -> count.set(0));
+    }
+
+    @Test
+    public void notEnabled() {
+        Assertions.assertTrue(DeploymentPrefetcher.create(testPlan(Map.of(), FirstTest.class)).isEmpty());
+        Assertions.assertTrue(DeploymentPrefetcher.create(testPlan(Map.of(DeploymentPrefetcher.PREFETCH_PROPERTY, "0"),
+                FirstTest.class)).isEmpty());
+        // Only test classes using the extension are prepared
+        Assertions.assertTrue(DeploymentPrefetcher.create(testPlan(Map.of(DeploymentPrefetcher.PREFETCH_PROPERTY, "1"),
+                DeploymentPrefetcherTestCase.class)).isEmpty());
+    }
+
+    @Test
+    public void prefetch() {
+        final TestPlan testPlan = testPlan(Map.of(DeploymentPrefetcher.PREFETCH_PROPERTY, "1"), FirstTest.class,
+                DeploymentPrefetcherTestCase.class, SecondTest.class, ThirdTest.class);
+        try (DeploymentPrefetcher prefetcher = DeploymentPrefetcher.create(testPlan).orElseThrow()) {
+            final Optional<DeploymentPrefetcher.PreparedDeployments> first = prefetcher.take(FirstTest.class);
+            Assertions.assertTrue(first.isPresent(), "The deployments of the first test class should be prepared");
+            Assertions.assertEquals(List.of("FirstTest.war"), first.get().deployments().stream()
+                    .map(deployment -> deployment.archive().getName())
+                    .toList());
+            Assertions.assertTrue(first.get().content().get("FirstTest.war").length > 0,
+                    "The archive should be exported");
+            // The deployments are only prepared once
+            Assertions.assertTrue(prefetcher.take(FirstTest.class).isEmpty());
+
+            // Taking the first test class prepares the next one, skipping the test class which is not a WildFly test
+            prefetcher.discard(SecondTest.class);
+            final Optional<DeploymentPrefetcher.PreparedDeployments> third = prefetcher.take(ThirdTest.class);
+            Assertions.assertTrue(third.isPresent(), "The deployments of the third test class should be prepared");
+            Assertions.assertEquals(1, INVOCATIONS.get(FirstTest.class).get());
+            Assertions.assertEquals(1, INVOCATIONS.get(ThirdTest.class).get());
+            // A discarded test class is not prepared again
+            Assertions.assertTrue(prefetcher.take(SecondTest.class).isEmpty());
+        }
+    }
+
+    @Test
+    public void skipped() {
+        final TestPlan testPlan = testPlan(Map.of(DeploymentPrefetcher.PREFETCH_PROPERTY, "1"), FirstTest.class,
+                SecondTest.class);
+        final NamespacedHierarchicalStore<Namespace> store = new NamespacedHierarchicalStore<>(null);
+        final PrefetchExecutionListener listener = new PrefetchExecutionListener(store);
+        listener.testPlanExecutionStarted(testPlan);
+        try {
+            final DeploymentPrefetcher prefetcher = store.get(NAMESPACE, DeploymentPrefetcher.PREFETCHER_KEY,
+                    DeploymentPrefetcher.class);
+            Assertions.assertNotNull(prefetcher, "The prefetcher should be registered");
+            // The first test class is skipped, for example if it is disabled, which frees its slot for the next one
+            final TestIdentifier skipped = testPlan.getRoots().stream()
+                    .flatMap(root -> testPlan.getChildren(root).stream())
+                    .filter(identifier -> identifier.getSource().equals(Optional.of(ClassSource.from(FirstTest.class))))
+                    .findFirst()
+                    .orElseThrow();
+            listener.executionSkipped(skipped, "disabled");
+            final Optional<DeploymentPrefetcher.PreparedDeployments> second = prefetcher.take(SecondTest.class);
+            Assertions.assertTrue(second.isPresent(),
+                    "The deployments of the test class after the skipped test class should be prepared");
+            Assertions.assertEquals(1, INVOCATIONS.get(SecondTest.class).get());
+            Assertions.assertTrue(prefetcher.take(FirstTest.class).isEmpty());
+        } finally {
+            listener.testPlanExecutionFinished(testPlan);
+        }
+    }
+
+    @Test
+    public void exploded() {
+        final TestPlan testPlan = testPlan(Map.of(DeploymentPrefetcher.PREFETCH_PROPERTY, "2",
+                ExplodedDeployment.EXPLODED_PROPERTY, "true"), FirstTest.class);
+        try (DeploymentPrefetcher prefetcher = DeploymentPrefetcher.create(testPlan).orElseThrow()) {
+            final DeploymentPrefetcher.PreparedDeployments prepared = prefetcher.take(FirstTest.class).orElseThrow();
+            Assertions.assertEquals(1, prepared.deployments().size());
+            Assertions.assertTrue(prepared.content().isEmpty(), "Exploded deployments should not be exported");
+        }
+    }
+
+    private static TestPlan testPlan(final Map<String, String> parameters, final Class<?>... testClasses) {
+        final UniqueId engineId = UniqueId.forEngine("test");
+        final EngineDescriptor engine = new EngineDescriptor(engineId, "test");
+        for (Class<?> testClass : testClasses) {
+            engine.addChild(new ClassDescriptor(engineId.append("class", testClass.getName()), testClass));
+        }
+        return TestPlan.from(true, List.of(engine), new ConfigurationParameters() {
+            @Override
+            public Optional<String> get(final String key) {
+                return Optional.ofNullable(parameters.get(key));
+            }
+
+            @Override
+            public Optional<Boolean> getBoolean(final String key) {
+                return get(key).map(Boolean::parseBoolean);
+            }
+
+            @Override
+            public Set<String> keySet() {
+                return parameters.keySet();
+            }
+        }, new OutputDirectoryCreator() {
+            @Override
+            public Path getRootDirectory() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Path createOutputDirectory(final TestDescriptor testDescriptor) {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+
+    private static WebArchive createDeployment(final Class<?> testClass) {
+        INVOCATIONS.get(testClass).incrementAndGet();
+        return ShrinkWrap.create(WebArchive.class, testClass.getSimpleName() + ".war")
+                .addAsWebResource(new StringAsset(testClass.getName()), "index.html");
+    }
+
+    private static class ClassDescriptor extends AbstractTestDescriptor {
+
+        private ClassDescriptor(final UniqueId uniqueId, final Class<?> testClass) {
+            super(uniqueId, testClass.getSimpleName(), ClassSource.from(testClass));
+        }
+
+        @Override
+        public Type getType() {
+            return Type.CONTAINER;
+        }
+    }
+
+    @WildFlyTest
+    public static class FirstTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment() {
+            return createDeployment(FirstTest.class);
+        }
+    }
+
+    @WildFlyTest
+    public static class SecondTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment() {
+            return createDeployment(SecondTest.class);
+        }
+    }
+
+    @WildFlyTest
+    public static class ThirdTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment() {
+            return createDeployment(ThirdTest.class);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.engine.support.store.Namespace;
+import org.junit.platform.engine.support.store.NamespacedHierarchicalStore;
+import org.junit.platform.launcher.LauncherSession;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * Tests the {@link EagerServerStartListener} and the server it starts, without launching a server.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class EagerServerStartListenerTestCase {
+    private static final Namespace NAMESPACE = Namespace.create(WildFlyExtension.SERVER_NAMESPACE_NAME);
+
+    @Test
+    public void notEnabled() {
+        final String previous = System.clearProperty(EagerServerStartListener.EAGER_START_PROPERTY);
+        try (NamespacedHierarchicalStore<Namespace> store = new NamespacedHierarchicalStore<>(null)) {
+            new EagerServerStartListener().launcherSessionOpened(session(store));
+            Assertions.assertNull(store.get(NAMESPACE, EagerServerStartListener.STARTING_SERVER_KEY));
+        } finally {
+            restore(previous);
+        }
+    }
+
+    @Test
+    public void invalidMode() {
+        final String previous = System.setProperty(EagerServerStartListener.EAGER_START_PROPERTY, "invalid");
+        try (NamespacedHierarchicalStore<Namespace> store = new NamespacedHierarchicalStore<>(null)) {
+            new EagerServerStartListener().launcherSessionOpened(session(store));
+            Assertions.assertNull(store.get(NAMESPACE, EagerServerStartListener.STARTING_SERVER_KEY),
+                    "No server should be started for an invalid mode");
+        } finally {
+            restore(previous);
+        }
+    }
+
+    @Test
+    public void join() {
+        final ServerManager serverManager = new TestServerManager().serverManager();
+        final EagerServerStartListener.StartingServer startingServer = new EagerServerStartListener.StartingServer(
+                serverManager, false, 10L, CompletableFuture.completedFuture(serverManager));
+        Assertions.assertFalse(startingServer.isDomain());
+        Assertions.assertSame(serverManager, startingServer.join());
+    }
+
+    @Test
+    public void joinFailed() {
+        final ServerManager serverManager = new TestServerManager().serverManager();
+        final IOException cause = new IOException("boot failed");
+        final EagerServerStartListener.StartingServer startingServer = new EagerServerStartListener.StartingServer(
+                serverManager, true, 10L, CompletableFuture.failedFuture(cause));
+        Assertions.assertTrue(startingServer.isDomain());
+        final JUnitException e = Assertions.assertThrows(JUnitException.class, startingServer::join);
+        Assertions.assertSame(cause, e.getCause());
+    }
+
+    @Test
+    public void closeUnclaimed() {
+        final TestServerManager server = new TestServerManager();
+        final CompletableFuture<ServerManager> future = new CompletableFuture<>();
+        final EagerServerStartListener.StartingServer startingServer = new EagerServerStartListener.StartingServer(
+                server.serverManager(), false, 10L, future);
+        startingServer.close();
+        Assertions.assertTrue(future.isCancelled(), "The start should be cancelled when the session is closed");
+        Assertions.assertEquals(List.of("shutdown:server"), server.operations());
+    }
+
+    private static LauncherSession session(final NamespacedHierarchicalStore<Namespace> store) {
+        return (LauncherSession) Proxy.newProxyInstance(EagerServerStartListenerTestCase.class.getClassLoader(),
+                new Class<?>[] { LauncherSession.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getStore")) {
+                        return store;
+                    }
+                    throw new UnsupportedOperationException(method.toString());
+                });
+    }
+
+    private static void restore(final String previous) {
+        if (previous == null) {
+            System.clearProperty(EagerServerStartListener.EAGER_START_PROPERTY);
+        } else {
+            System.setProperty(EagerServerStartListener.EAGER_START_PROPERTY, previous);
+        }
+    }
+}
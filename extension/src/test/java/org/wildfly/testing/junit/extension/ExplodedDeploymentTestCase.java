@@ -0,0 +1,101 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests exporting archives exploded for unmanaged deployments.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class ExplodedDeploymentTestCase {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void incrementalImpliesExploded() {
+        final ExtensionContext incremental = TestExtensionContext.of(
+                Map.of(ExplodedDeployment.INCREMENTAL_PROPERTY, "true"));
+        Assertions.assertTrue(ExplodedDeployment.isEnabled(incremental));
+        Assertions.assertTrue(ExplodedDeployment.isIncremental(incremental));
+        Assertions.assertFalse(ExplodedDeployment.isIncremental(TestExtensionContext.of(
+                Map.of(ExplodedDeployment.EXPLODED_PROPERTY, "true"))));
+    }
+
+    @Test
+    public void exportAndDelete() throws IOException {
+        final Path explodedDir = tempDir.resolve("exploded");
+        final ExtensionContext context = TestExtensionContext.of(Map.of(
+                ExplodedDeployment.EXPLODED_PROPERTY, "true",
+                ExplodedDeployment.EXPLODED_DIR_PROPERTY, explodedDir.toString()));
+        final WebArchive archive = ShrinkWrap.create(WebArchive.class, "test.war")
+                .addAsWebResource(new StringAsset("index"), "index.html")
+                .addAsLibrary(ShrinkWrap.create(JavaArchive.class, "lib.jar")
+                        .addAsResource(new StringAsset("lib"), "lib.txt"));
+
+        final Path content = ExplodedDeployment.export(context, archive);
+        Assertions.assertEquals("test.war", content.getFileName().toString());
+        Assertions.assertEquals(explodedDir.toAbsolutePath(), content.getParent().getParent());
+        Assertions.assertEquals("index", Files.readString(content.resolve("index.html")));
+        // Nested archives are exploded as well
+        Assertions.assertEquals("lib", Files.readString(content.resolve("WEB-INF/lib/lib.jar/lib.txt")));
+
+        // Each export uses its own directory
+        final Path second = ExplodedDeployment.export(context, archive);
+        Assertions.assertNotEquals(content.getParent(), second.getParent());
+
+        ExplodedDeployment.delete(content);
+        Assertions.assertTrue(Files.notExists(content.getParent()), "The export directory should be deleted");
+        Assertions.assertTrue(Files.exists(second), "Only the directory of the deleted deployment should be deleted");
+    }
+
+    @Test
+    public void updateChangedEntries() throws IOException {
+        final ExtensionContext context = TestExtensionContext.of(Map.of(
+                ExplodedDeployment.INCREMENTAL_PROPERTY, "true",
+                ExplodedDeployment.EXPLODED_DIR_PROPERTY, tempDir.toString()));
+        final WebArchive previous = ShrinkWrap.create(WebArchive.class, "test.war")
+                .addAsWebResource(new StringAsset("unchanged"), "unchanged.html")
+                .addAsWebResource(new StringAsset("before"), "changed.html")
+                .addAsWebResource(new StringAsset("removed"), "removed/removed.html");
+        final Path content = ExplodedDeployment.export(context, previous);
+        // Set an old modification time to detect whether the unchanged entry is written again
+        final FileTime modified = FileTime.fromMillis(0L);
+        Files.setLastModifiedTime(content.resolve("unchanged.html"), modified);
+
+        final WebArchive current = ShrinkWrap.create(WebArchive.class, "test.war")
+                .addAsWebResource(new StringAsset("unchanged"), "unchanged.html")
+                .addAsWebResource(new StringAsset("after"), "changed.html")
+                .addAsWebResource(new StringAsset("added"), "added.html");
+        final int changes = ExplodedDeployment.update(content, current, DeploymentCache.entryHashes(previous),
+                DeploymentCache.entryHashes(current));
+
+        // The changed and added entries are written, the removed entry and its directory are deleted
+        Assertions.assertEquals(4, changes);
+        Assertions.assertEquals("after", Files.readString(content.resolve("changed.html")));
+        Assertions.assertEquals("added", Files.readString(content.resolve("added.html")));
+        Assertions.assertTrue(Files.notExists(content.resolve("removed")));
+        Assertions.assertEquals(modified, Files.getLastModifiedTime(content.resolve("unchanged.html")),
+                "The unchanged entry should not be written");
+        Assertions.assertEquals(0, ExplodedDeployment.update(content, current, DeploymentCache.entryHashes(current),
+                DeploymentCache.entryHashes(current)));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.JUnitException;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+
+/**
+ * Tests deferring the deployments of a test class until its first test executes.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class LazyDeploymentTestCase {
+    private static final AtomicInteger FAILURES = new AtomicInteger();
+
+    @BeforeEach
+    public void resetFailures() {
+        FAILURES.set(0);
+    }
+
+    @Test
+    public void notDeferred() {
+        final TestServerManager server = new TestServerManager();
+        // Nothing is deployed for a test class without deferred deployments
+        WildFlyExtension.deployLazily(TestExtensionContext.of(TestExtensionContext.of(Map.of()), LazyTest.class));
+        Assertions.assertTrue(server.operations().isEmpty());
+    }
+
+    @Test
+    public void deployOnce() {
+        final TestServerManager server = new TestServerManager();
+        final ExtensionContext context = TestExtensionContext.of(TestExtensionContext.of(Map.of()), LazyTest.class);
+        new WildFlyExtension().deferDeployment(server.serverManager(), context);
+        Assertions.assertTrue(server.operations().isEmpty(), "Deferred deployments should not be deployed");
+
+        WildFlyExtension.deployLazily(context);
+        Assertions.assertEquals(List.of("deploy:LazyTest.war"), server.operations());
+        Assertions.assertEquals(List.of("LazyTest.war"), deploymentNames(context));
+
+        // Subsequent tests of the test class do not deploy again
+        WildFlyExtension.deployLazily(context);
+        Assertions.assertEquals(List.of("deploy:LazyTest.war"), server.operations());
+    }
+
+    @Test
+    public void enclosingFirst() {
+        final TestServerManager server = new TestServerManager();
+        final WildFlyExtension extension = new WildFlyExtension();
+        final ExtensionContext outer = TestExtensionContext.of(TestExtensionContext.of(Map.of()), LazyTest.class);
+        final ExtensionContext nested = TestExtensionContext.of(outer, LazyTest.NestedTest.class);
+        extension.deferDeployment(server.serverManager(), outer);
+        extension.deferDeployment(server.serverManager(), nested);
+
+        // The deployments of the enclosing test class are deployed before the deployments of the nested test class
+        WildFlyExtension.deployLazily(nested);
+        Assertions.assertEquals(List.of("deploy:LazyTest.war", "deploy:NestedTest.war"), server.operations());
+        WildFlyExtension.deployLazily(outer);
+        Assertions.assertEquals(2, server.operations().size());
+    }
+
+    @Test
+    public void retryFailed() {
+        final TestServerManager server = new TestServerManager();
+        final ExtensionContext context = TestExtensionContext.of(TestExtensionContext.of(Map.of()), FailingTest.class);
+        new WildFlyExtension().deferDeployment(server.serverManager(), context);
+        FAILURES.set(1);
+
+        Assertions.assertThrows(JUnitException.class, () -> WildFlyExtension.deployLazily(context));
+        Assertions.assertTrue(server.operations().isEmpty());
+        // A failed deployment is retried by the next test
+        WildFlyExtension.deployLazily(context);
+        Assertions.assertEquals(List.of("deploy:FailingTest.war"), server.operations());
+    }
+
+    private static List<String> deploymentNames(final ExtensionContext context) {
+        return DeploymentContext.resolveClassDeployments(context).stream()
+                .map(DeploymentInfo::deploymentName)
+                .toList();
+    }
+
+    private static WebArchive createDeployment(final Class<?> testClass) {
+        return ShrinkWrap.create(WebArchive.class, testClass.getSimpleName() + ".war")
+                .addAsWebResource(new StringAsset(testClass.getName()), "index.html");
+    }
+
+    public static class LazyTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment() {
+            return createDeployment(LazyTest.class);
+        }
+
+        public static class NestedTest {
+
+            @DeploymentProducer
+            public static WebArchive deployment() {
+                return createDeployment(NestedTest.class);
+            }
+        }
+    }
+
+    public static class FailingTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment() {
+            if (FAILURES.getAndDecrement() > 0) {
+                throw new IllegalStateException("Failed to create the deployment");
+            }
+            return createDeployment(FailingTest.class);
+        }
+    }
+}
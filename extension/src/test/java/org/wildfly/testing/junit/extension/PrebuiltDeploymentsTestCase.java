@@ -0,0 +1,207 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+import org.wildfly.testing.junit.extension.annotation.WildFlyTest;
+
+/**
+ * Tests exporting the deployments of test classes at build time with the {@link DeploymentExporter} and looking up
+ * the exported archives with the {@link PrebuiltDeployments}.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class PrebuiltDeploymentsTestCase {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path classesDir;
+    private Path outputDir;
+
+    @BeforeEach
+    public void copyClasses() throws IOException {
+        classesDir = tempDir.resolve("classes");
+        outputDir = tempDir.resolve("deployments");
+        for (Class<?> type : List.of(ExportedTest.class, TestInfoTest.class, FailingTest.class, NoDeploymentTest.class,
+                NotWildFlyTest.class)) {
+            copyClass(type);
+        }
+    }
+
+    @Test
+    public void exportAndTake() throws Exception {
+        Assertions.assertEquals(1, exportDeployments());
+        Assertions.assertTrue(Files.exists(outputDir.resolve(PrebuiltDeployments.MANIFEST_NAME)));
+
+        final PrebuiltDeployments prebuilt = PrebuiltDeployments.load(outputDir);
+        final DeploymentPrefetcher.PreparedDeployments prepared = prebuilt.take(ExportedTest.class).orElseThrow();
+        Assertions.assertEquals(List.of("first.jar", "second.war"), prepared.deployments().stream()
+                .map(deployment -> deployment.archive().getName())
+                .toList());
+        Assertions.assertEquals(List.of("first", "second"), prepared.deployments().stream()
+                .map(deployment -> deployment.method().getName())
+                .toList());
+        Assertions.assertTrue(prepared.deployments().get(1).archive().contains("index.html"));
+        Assertions.assertArrayEquals(Files.readAllBytes(PrebuiltDeployments.archivePath(outputDir, ExportedTest.class,
+                "second.war")), prepared.content().get("second.war"));
+
+        // Test classes which were not exported are not available
+        Assertions.assertTrue(prebuilt.take(TestInfoTest.class).isEmpty(),
+                "Deployments of methods accepting a TestInfo should not be exported");
+        Assertions.assertTrue(prebuilt.take(FailingTest.class).isEmpty());
+        Assertions.assertTrue(prebuilt.take(NoDeploymentTest.class).isEmpty());
+        Assertions.assertTrue(prebuilt.take(NotWildFlyTest.class).isEmpty());
+    }
+
+    @Test
+    public void modifiedArchive() throws Exception {
+        Assertions.assertEquals(1, exportDeployments());
+        final Path archive = PrebuiltDeployments.archivePath(outputDir, ExportedTest.class, "second.war");
+        Files.write(archive, new byte[] { 0 });
+        Assertions.assertTrue(PrebuiltDeployments.load(outputDir).take(ExportedTest.class).isEmpty(),
+                "A modified archive should not be used");
+    }
+
+    @Test
+    public void changedClasses() throws Exception {
+        Assertions.assertEquals(1, exportDeployments());
+        Assertions.assertTrue(PrebuiltDeployments.load(outputDir).take(ExportedTest.class).isPresent());
+
+        // Any change in the class directories invalidates all prebuilt deployments
+        Files.writeString(classesDir.resolve("changed.properties"), "changed=true");
+        Assertions.assertTrue(PrebuiltDeployments.load(outputDir).take(ExportedTest.class).isEmpty());
+    }
+
+    @Test
+    public void changedDependency() throws Exception {
+        final Path dependency = tempDir.resolve("fixtures.jar");
+        Files.write(dependency, new byte[] { 1 });
+        Assertions.assertEquals(1, exportDeployments(List.of(classesDir, dependency), Map.of()));
+        Assertions.assertTrue(PrebuiltDeployments.load(outputDir).take(ExportedTest.class).isPresent());
+
+        // A changed JAR on the class path invalidates all prebuilt deployments
+        Files.write(dependency, new byte[] { 1, 2 });
+        Assertions.assertTrue(PrebuiltDeployments.load(outputDir).take(ExportedTest.class).isEmpty(),
+                "A changed dependency should invalidate the prebuilt deployments");
+    }
+
+    @Test
+    public void storedEntries() throws Exception {
+        Assertions.assertEquals(1, exportDeployments(List.of(), Map.of(WildFlyExtension.ARCHIVE_COMPRESSION_PROPERTY,
+                "stored")));
+        try (ZipFile zip = new ZipFile(PrebuiltDeployments.archivePath(outputDir, ExportedTest.class, "second.war")
+                .toFile())) {
+            Assertions.assertTrue(zip.stream().allMatch(entry -> entry.getMethod() == ZipEntry.STORED),
+                    "The archive should be exported with the configured compression");
+            // The entries of libraries should be stored uncompressed as well
+            try (ZipInputStream library = new ZipInputStream(zip.getInputStream(
+                    zip.getEntry("WEB-INF/lib/library.jar")))) {
+                ZipEntry entry;
+                int count = 0;
+                while ((entry = library.getNextEntry()) != null) {
+                    Assertions.assertEquals(ZipEntry.STORED, entry.getMethod(),
+                            "Entry %s of the library should be stored uncompressed".formatted(entry.getName()));
+                    count++;
+                }
+                Assertions.assertTrue(count > 0, "The library has no entries");
+            }
+        }
+    }
+
+    @Test
+    public void noManifest() {
+        Assertions.assertTrue(PrebuiltDeployments.load(tempDir.resolve("missing")).take(ExportedTest.class).isEmpty());
+    }
+
+    private int exportDeployments() throws IOException {
+        return exportDeployments(List.of(), Map.of());
+    }
+
+    private int exportDeployments(final List<Path> classPath, final Map<String, String> parameters)
+            throws IOException {
+        return DeploymentExporter.export(outputDir, List.of(classesDir), classPath, parameters,
+                PrebuiltDeploymentsTestCase.class.getClassLoader());
+    }
+
+    private void copyClass(final Class<?> type) throws IOException {
+        final String resource = type.getName().replace('.', '/') + ".class";
+        final Path target = classesDir.resolve(resource);
+        Files.createDirectories(target.getParent());
+        try (var in = type.getClassLoader().getResourceAsStream(resource)) {
+            Assertions.assertNotNull(in, () -> "Could not find the class file of " + type.getName());
+            Files.copy(in, target);
+        }
+    }
+
+    @WildFlyTest
+    public static class ExportedTest {
+
+        @DeploymentProducer
+        public static JavaArchive first() {
+            return ShrinkWrap.create(JavaArchive.class, "first.jar")
+                    .addAsResource(new StringAsset("first"), "first.txt");
+        }
+
+        @DeploymentProducer(order = 1)
+        public static WebArchive second() {
+            return ShrinkWrap.create(WebArchive.class, "second.war")
+                    .addAsWebResource(new StringAsset("second"), "index.html")
+                    .addAsLibrary(ShrinkWrap.create(JavaArchive.class, "library.jar")
+                            .addAsResource(new StringAsset("library"), "library.txt"));
+        }
+    }
+
+    @WildFlyTest
+    public static class TestInfoTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment(final TestInfo testInfo) {
+            return ShrinkWrap.create(WebArchive.class, testInfo.getDisplayName() + ".war")
+                    .addAsWebResource(new StringAsset("test-info"), "index.html");
+        }
+    }
+
+    @WildFlyTest
+    public static class FailingTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment() {
+            throw new IllegalStateException("Failed to create the deployment");
+        }
+    }
+
+    @WildFlyTest
+    public static class NoDeploymentTest {
+    }
+
+    public static class NotWildFlyTest {
+
+        @DeploymentProducer
+        public static WebArchive deployment() {
+            return ShrinkWrap.create(WebArchive.class, "not-wildfly.war")
+                    .addAsWebResource(new StringAsset("not-wildfly"), "index.html");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.dmr.ModelNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.JUnitException;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * Tests attaching to a running server with a fake management client.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class ServerAttachTestCase {
+
+    @Test
+    public void notEnabled() {
+        final Optional<ServerManager> attached = ServerAttach.attach(parameters(Map.of()), false, (host, port) -> {
+            throw new AssertionError("No client should be created when attaching is not enabled");
+        });
+        Assertions.assertTrue(attached.isEmpty());
+    }
+
+    @Test
+    public void attachStandalone() {
+        final TestServerManager server = runningServer("STANDALONE");
+        final AtomicReference<String> address = new AtomicReference<>();
+        final Optional<ServerManager> attached = ServerAttach.attach(parameters(Map.of(
+                ServerAttach.ATTACH_PROPERTY, "true",
+                ServerAttach.MANAGEMENT_HOST_PROPERTY, "127.0.0.2",
+                ServerAttach.MANAGEMENT_PORT_PROPERTY, "10090")), false, (host, port) -> {
+                    address.set(host + ":" + port);
+                    return server.client();
+                });
+        Assertions.assertTrue(attached.isPresent(), "Expected to attach to the running server");
+        Assertions.assertEquals("127.0.0.2:10090", address.get());
+        Assertions.assertSame(server.client(), attached.get().client());
+        Assertions.assertFalse(server.isClientClosed());
+    }
+
+    @Test
+    public void notRunning() {
+        final TestServerManager server = new TestServerManager();
+        server.setOperationHandler((op) -> TestServerManager.failure("Server not available"));
+        final Optional<ServerManager> attached = ServerAttach.attach(
+                parameters(Map.of(ServerAttach.ATTACH_PROPERTY, "true")), false, (host, port) -> {
+                    Assertions.assertEquals("localhost", host);
+                    Assertions.assertEquals(9990, port);
+                    return server.client();
+                });
+        Assertions.assertTrue(attached.isEmpty(), "No server should be attached if none is running");
+        Assertions.assertTrue(server.isClientClosed(), "The client should be closed if no server is running");
+    }
+
+    @Test
+    public void launchTypeMismatch() {
+        final TestServerManager server = runningServer("STANDALONE");
+        Assertions.assertThrows(JUnitException.class, () -> ServerAttach.attach(
+                parameters(Map.of(ServerAttach.ATTACH_PROPERTY, "true")), true, (host, port) -> server.client()));
+        Assertions.assertTrue(server.isClientClosed(), "The client should be closed if the launch type differs");
+    }
+
+    @Test
+    public void unknownHost() {
+        Assertions.assertThrows(JUnitException.class, () -> ServerAttach.attach(
+                parameters(Map.of(ServerAttach.ATTACH_PROPERTY, "true")), false, (host, port) -> {
+                    throw new UnknownHostException(host);
+                }));
+    }
+
+    private static TestServerManager runningServer(final String launchType) {
+        final TestServerManager server = new TestServerManager();
+        server.setOperationHandler((op) -> switch (op.get(ClientConstants.NAME).asString()) {
+            case "launch-type" -> TestServerManager.success(new ModelNode(launchType));
+            case "server-state" -> TestServerManager.success(new ModelNode(ClientConstants.CONTROLLER_PROCESS_STATE_RUNNING));
+            default -> TestServerManager.failure("Unexpected operation " + op);
+        });
+        return server;
+    }
+
+    private static Function<String, Optional<String>> parameters(final Map<String, String> parameters) {
+        return (key) -> Optional.ofNullable(parameters.get(key));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.commons.JUnitException;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * Tests leasing and releasing servers from a {@link ServerPool}.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class ServerPoolTestCase {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void singleServerShared() {
+        final List<CreatedServer> created = new ArrayList<>();
+        final List<ServerManager> stopped = new ArrayList<>();
+        try (ServerPool pool = ServerPool.create(TestExtensionContext.of(Map.of()), true, factory(created),
+                stopped::add)) {
+            final ExtensionContext context = TestExtensionContext.of(Map.of());
+            try (
+                    ServerPool.Lease first = pool.lease(context);
+                    ServerPool.Lease second = pool.lease(context)) {
+                Assertions.assertSame(first.serverManager(), second.serverManager());
+                Assertions.assertSame(first.deploymentCache(), second.deploymentCache());
+                Assertions.assertEquals(0, first.portOffset());
+            }
+            Assertions.assertEquals(1, created.size());
+            Assertions.assertNull(created.get(0).baseDir());
+            Assertions.assertTrue(stopped.isEmpty(), "Servers should not be stopped before the pool is closed");
+        }
+        Assertions.assertEquals(1, stopped.size());
+    }
+
+    @Test
+    public void notPooled() {
+        final List<CreatedServer> created = new ArrayList<>();
+        final ExtensionContext context = TestExtensionContext.of(Map.of(ServerPool.POOL_SIZE_PROPERTY, "3"));
+        try (ServerPool pool = ServerPool.create(context, false, factory(created), (serverManager) -> {
+        })) {
+            try (
+                    ServerPool.Lease first = pool.lease(context);
+                    ServerPool.Lease second = pool.lease(context)) {
+                Assertions.assertSame(first.serverManager(), second.serverManager());
+            }
+        }
+        Assertions.assertEquals(1, created.size());
+    }
+
+    @Test
+    public void invalidSize() {
+        final ExtensionContext context = TestExtensionContext.of(Map.of(ServerPool.POOL_SIZE_PROPERTY, "0"));
+        Assertions.assertThrows(JUnitException.class, () -> ServerPool.create(context, true,
+                factory(new ArrayList<>()), (serverManager) -> {
+                }));
+    }
+
+    @Test
+    public void invalidRetain() {
+        final ExtensionContext context = TestExtensionContext.of(Map.of(DeploymentCache.RETAIN_PROPERTY, "-1"));
+        Assertions.assertThrows(JUnitException.class, () -> ServerPool.create(context, true,
+                factory(new ArrayList<>()), (serverManager) -> {
+                }));
+    }
+
+    @Test
+    public void leaseBlocksUntilReleased() throws Exception {
+        final Path jbossHome = createServerHome();
+        final Path poolDir = tempDir.resolve("pool");
+        final ExtensionContext context = TestExtensionContext.of(Map.of(
+                ServerPool.POOL_SIZE_PROPERTY, "2",
+                ServerPool.POOL_DIR_PROPERTY, poolDir.toString(),
+                ServerPool.PORT_OFFSET_PROPERTY, "50",
+                "jboss.home", jbossHome.toString()));
+        final List<CreatedServer> created = new CopyOnWriteArrayList<>();
+        final List<ServerManager> stopped = new CopyOnWriteArrayList<>();
+        try (ServerPool pool = ServerPool.create(context, true, factory(created), stopped::add)) {
+            final ServerPool.Lease first = pool.lease(context);
+            final ServerPool.Lease second = pool.lease(context);
+            Assertions.assertNotSame(first.serverManager(), second.serverManager());
+            Assertions.assertEquals(0, first.portOffset());
+            Assertions.assertEquals(50, second.portOffset());
+
+            // The second server has its own base directory with a copy of the configuration
+            Assertions.assertEquals(2, created.size());
+            Assertions.assertNull(created.get(0).baseDir());
+            Assertions.assertEquals(poolDir.resolve("server-1"), created.get(1).baseDir());
+            Assertions.assertEquals(50, created.get(1).portOffset());
+            Assertions.assertEquals("<server/>",
+                    Files.readString(poolDir.resolve("server-1").resolve("configuration").resolve("standalone.xml")));
+
+            // All servers are leased, the next lease waits for a server to be released
+            final CompletableFuture<ServerPool.Lease> third = CompletableFuture.supplyAsync(() -> pool.lease(context));
+            Assertions.assertThrows(TimeoutException.class,
+                    () -> third.get(200, TimeUnit.MILLISECONDS));
+            second.close();
+            // Closing a lease more than once must not release the server twice
+            second.close();
+            final ServerPool.Lease thirdLease = third.get(5, TimeUnit.SECONDS);
+            Assertions.assertSame(second.serverManager(), thirdLease.serverManager());
+            Assertions.assertEquals(2, created.size(), "A released server should be reused");
+
+            // The server was released only once, so another lease must wait again
+            final CompletableFuture<ServerPool.Lease> fourth = CompletableFuture.supplyAsync(() -> pool.lease(context));
+            Assertions.assertThrows(TimeoutException.class,
+                    () -> fourth.get(200, TimeUnit.MILLISECONDS));
+            first.close();
+            Assertions.assertSame(first.serverManager(), fourth.get(5, TimeUnit.SECONDS).serverManager());
+        }
+        Assertions.assertEquals(2, stopped.size());
+    }
+
+    @Test
+    public void sequentialLeasesReuseServer() throws Exception {
+        final ExtensionContext context = TestExtensionContext.of(Map.of(
+                ServerPool.POOL_SIZE_PROPERTY, "3",
+                ServerPool.POOL_DIR_PROPERTY, tempDir.resolve("pool").toString(),
+                "jboss.home", createServerHome().toString()));
+        final List<CreatedServer> created = new ArrayList<>();
+        try (ServerPool pool = ServerPool.create(context, true, factory(created), (serverManager) -> {
+        })) {
+            for (int i = 0; i < 5; i++) {
+                try (ServerPool.Lease lease = pool.lease(context)) {
+                    Assertions.assertEquals(0, lease.portOffset());
+                }
+            }
+        }
+        Assertions.assertEquals(1, created.size(), "Sequential leases should only create a single server");
+    }
+
+    private Path createServerHome() throws IOException {
+        final Path jbossHome = tempDir.resolve("wildfly");
+        final Path configDir = Files.createDirectories(jbossHome.resolve("standalone").resolve("configuration"));
+        Files.writeString(configDir.resolve("standalone.xml"), "<server/>");
+        return jbossHome;
+    }
+
+    private static ServerPool.ServerFactory factory(final List<CreatedServer> created) {
+        return (context, baseDir, portOffset) -> {
+            final ServerManager serverManager = new TestServerManager().serverManager();
+            created.add(new CreatedServer(serverManager, baseDir, portOffset));
+            return serverManager;
+        };
+    }
+
+    private record CreatedServer(ServerManager serverManager, Path baseDir, int portOffset) {
+    }
+}
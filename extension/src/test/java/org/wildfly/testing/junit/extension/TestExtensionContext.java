@@ -0,0 +1,173 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * An {@link ExtensionContext} for unit tests which only supports configuration parameters, the test class, the parent
+ * context and the stores.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class TestExtensionContext {
+    private final Map<String, String> configuration;
+    private final Class<?> testClass;
+    private final ExtensionContext parent;
+    private final Map<ExtensionContext.Namespace, TestStore> stores;
+    private final ExtensionContext context;
+
+    private TestExtensionContext(final Map<String, String> configuration, final Class<?> testClass,
+            final ExtensionContext parent) {
+        this.configuration = Map.copyOf(configuration);
+        this.testClass = testClass;
+        this.parent = parent;
+        this.stores = new ConcurrentHashMap<>();
+        this.context = (ExtensionContext) Proxy.newProxyInstance(TestExtensionContext.class.getClassLoader(),
+                new Class<?>[] { ExtensionContext.class }, this::invoke);
+    }
+
+    /**
+     * Creates a root context with the configuration parameters.
+     *
+     * @param configuration the configuration parameters
+     *
+     * @return the context
+     */
+    static ExtensionContext of(final Map<String, String> configuration) {
+        return new TestExtensionContext(configuration, null, null).context;
+    }
+
+    /**
+     * Creates a context for the test class which resolves the configuration parameters from the parent context.
+     *
+     * @param parent    the parent context
+     * @param testClass the test class
+     *
+     * @return the context
+     */
+    static ExtensionContext of(final ExtensionContext parent, final Class<?> testClass) {
+        return new TestExtensionContext(Map.of(), testClass, parent).context;
+    }
+
+    private Object invoke(final Object proxy, final Method method, final Object[] args)
+            throws Throwable {
+        return switch (method.getName()) {
+            case "getConfigurationParameter" -> {
+                final Optional<String> value = Optional.ofNullable(configuration.get((String) args[0]))
+                        .or(() -> parent == null ? Optional.empty()
+                                : parent.getConfigurationParameter((String) args[0]));
+                if (args.length == 1) {
+                    yield value;
+                }
+                @SuppressWarnings("unchecked")
+                final Function<String, ?> transformer = (Function<String, ?>) args[1];
+                yield value.map(transformer);
+            }
+            case "getTestClass" -> Optional.ofNullable(testClass);
+            case "getTestMethod" -> Optional.empty();
+            case "getParent" -> Optional.ofNullable(parent);
+            case "getRoot" -> parent == null ? proxy : parent.getRoot();
+            case "getUniqueId" -> testClass == null ? "[engine:test]"
+                    : "[engine:test]/[class:" + testClass.getName() + "]";
+            case "getDisplayName" -> testClass == null ? "test" : testClass.getSimpleName();
+            case "getTags" -> Set.of();
+            case "getStore" -> {
+                final ExtensionContext.Namespace namespace = (ExtensionContext.Namespace) args[args.length - 1];
+                yield stores.computeIfAbsent(namespace, (ns) -> new TestStore(
+                        parent == null ? null : parent.getStore(ns)));
+            }
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "TestExtensionContext[" + context.getUniqueId() + "]";
+            default -> {
+                if (method.isDefault()) {
+                    yield InvocationHandler.invokeDefault(proxy, method, args);
+                }
+                throw new UnsupportedOperationException(method.toString());
+            }
+        };
+    }
+
+    /**
+     * A store which looks up values in the store of the parent context if the value is not present in this store.
+     */
+    private static class TestStore implements ExtensionContext.Store {
+        private final ExtensionContext.Store parent;
+        private final Map<Object, Object> values;
+
+        private TestStore(final ExtensionContext.Store parent) {
+            this.parent = parent;
+            this.values = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public Object get(final Object key) {
+            final Object value = values.get(key);
+            if (value == null && parent != null) {
+                return parent.get(key);
+            }
+            return value;
+        }
+
+        @Override
+        public <V> V get(final Object key, final Class<V> requiredType) {
+            return requiredType.cast(get(key));
+        }
+
+        @Override
+        @Deprecated
+        public <K, V> Object getOrComputeIfAbsent(final K key, final Function<? super K, ? extends V> defaultCreator) {
+            return computeIfAbsent(key, defaultCreator);
+        }
+
+        @Override
+        public <K, V> Object computeIfAbsent(final K key, final Function<? super K, ? extends V> defaultCreator) {
+            final Object value = get(key);
+            if (value != null) {
+                return value;
+            }
+            return values.computeIfAbsent(key, (k) -> defaultCreator.apply(key));
+        }
+
+        @Override
+        @Deprecated
+        public <K, V> V getOrComputeIfAbsent(final K key, final Function<? super K, ? extends V> defaultCreator,
+                final Class<V> requiredType) {
+            return computeIfAbsent(key, defaultCreator, requiredType);
+        }
+
+        @Override
+        public <K, V> V computeIfAbsent(final K key, final Function<? super K, ? extends V> defaultCreator,
+                final Class<V> requiredType) {
+            return requiredType.cast(computeIfAbsent(key, defaultCreator));
+        }
+
+        @Override
+        public void put(final Object key, final Object value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public Object remove(final Object key) {
+            return values.remove(key);
+        }
+
+        @Override
+        public <V> V remove(final Object key, final Class<V> requiredType) {
+            return requiredType.cast(remove(key));
+        }
+    }
+}
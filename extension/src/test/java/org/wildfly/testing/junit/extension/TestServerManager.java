@@ -0,0 +1,231 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.dmr.ModelNode;
+import org.wildfly.plugin.tools.DeploymentDescription;
+import org.wildfly.plugin.tools.DeploymentManager;
+import org.wildfly.plugin.tools.DeploymentResult;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * A {@link ServerManager} which does not connect to a server. Deployment operations are recorded and management
+ * operations are answered by an operation handler.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+class TestServerManager {
+    private final List<String> operations;
+    private final ServerManager serverManager;
+    private volatile boolean running;
+    private volatile boolean clientClosed;
+    private volatile Function<ModelNode, ModelNode> operationHandler;
+
+    TestServerManager() {
+        this.operations = new ArrayList<>();
+        this.running = true;
+        this.operationHandler = (op) -> failure("Unexpected operation " + op);
+        final ModelControllerClient client = proxy(ModelControllerClient.class, (proxy, method, args) -> {
+            if (method.getName().equals("execute")) {
+                final ModelNode op = args[0] instanceof Operation operation ? operation.getOperation()
+                        : (ModelNode) args[0];
+                return operationHandler.apply(op);
+            }
+            if (method.getName().equals("close")) {
+                clientClosed = true;
+                return null;
+            }
+            throw new UnsupportedOperationException(method.toString());
+        });
+        final DeploymentManager deploymentManager = proxy(DeploymentManager.class, (proxy, method, args) -> {
+            if (args == null || args.length != 1) {
+                throw new UnsupportedOperationException(method.toString());
+            }
+            record(method.getName(), args[0]);
+            return successfulResult();
+        });
+        this.serverManager = proxy(ServerManager.class, (proxy, method, args) -> switch (method.getName()) {
+            case "client" -> client;
+            case "deploymentManager" -> deploymentManager;
+            case "isRunning" -> running;
+            case "shutdown", "kill" -> {
+                record(method.getName(), "server");
+                running = false;
+                yield method.getReturnType() == void.class ? null : CompletableFuture.completedFuture(proxy);
+            }
+            default -> {
+                if (method.isDefault()) {
+                    yield InvocationHandler.invokeDefault(proxy, method, args);
+                }
+                throw new UnsupportedOperationException(method.toString());
+            }
+        });
+    }
+
+    /**
+     * Returns the server manager.
+     *
+     * @return the server manager
+     */
+    ServerManager serverManager() {
+        return serverManager;
+    }
+
+    /**
+     * Returns the management client.
+     *
+     * @return the management client
+     */
+    ModelControllerClient client() {
+        return serverManager.client();
+    }
+
+    /**
+     * Indicates whether the management client has been closed.
+     *
+     * @return {@code true} if the client has been closed
+     */
+    boolean isClientClosed() {
+        return clientClosed;
+    }
+
+    /**
+     * Sets whether the server reports it is running.
+     *
+     * @param running {@code true} if the server is running
+     */
+    void setRunning(final boolean running) {
+        this.running = running;
+    }
+
+    /**
+     * Sets the handler which answers management operations executed with the client.
+     *
+     * @param operationHandler the handler which returns the result for an operation
+     */
+    void setOperationHandler(final Function<ModelNode, ModelNode> operationHandler) {
+        this.operationHandler = operationHandler;
+    }
+
+    /**
+     * Returns the recorded operations in the form {@code operation:name}, e.g. {@code undeploy:test.war}.
+     *
+     * @return a copy of the recorded operations
+     */
+    synchronized List<String> operations() {
+        return List.copyOf(operations);
+    }
+
+    /**
+     * Clears the recorded operations.
+     */
+    synchronized void clear() {
+        operations.clear();
+    }
+
+    private synchronized void record(final String operation, final Object arg) {
+        if (arg instanceof Collection<?> descriptions) {
+            descriptions.forEach((description) -> record(operation, description));
+        } else if (arg instanceof DeploymentDescription description) {
+            operations.add(operation + ":" + description.getName());
+        } else {
+            operations.add(operation + ":" + arg);
+        }
+    }
+
+    /**
+     * Creates a successful operation result.
+     *
+     * @param result the result of the operation
+     *
+     * @return the successful operation result
+     */
+    static ModelNode success(final ModelNode result) {
+        final ModelNode node = new ModelNode();
+        node.get(ClientConstants.OUTCOME).set(ClientConstants.SUCCESS);
+        node.get(ClientConstants.RESULT).set(result);
+        return node;
+    }
+
+    /**
+     * Creates a failed operation result.
+     *
+     * @param message the failure description
+     *
+     * @return the failed operation result
+     */
+    static ModelNode failure(final String message) {
+        final ModelNode node = new ModelNode();
+        node.get(ClientConstants.OUTCOME).set(ClientConstants.FAILED);
+        node.get(ClientConstants.FAILURE_DESCRIPTION).set(message);
+        return node;
+    }
+
+    /**
+     * Creates a successful deployment result.
+     *
+     * @return a successful deployment result
+     */
+    static DeploymentResult successfulResult() {
+        return createResult(success(new ModelNode()));
+    }
+
+    /**
+     * Creates a failed deployment result.
+     *
+     * @param message the failure message
+     *
+     * @return a failed deployment result
+     */
+    static DeploymentResult failedResult(final String message) {
+        return createResult(failure(message));
+    }
+
+    private static DeploymentResult createResult(final ModelNode result) {
+        try {
+            final Constructor<DeploymentResult> constructor = DeploymentResult.class.getDeclaredConstructor(
+                    ModelNode.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(result);
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException
+                | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TestServerManager.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return objectMethod(proxy, method, args);
+                    }
+                    return handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object objectMethod(final Object proxy, final Method method, final Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> "TestServerManager proxy";
+        };
+    }
+}
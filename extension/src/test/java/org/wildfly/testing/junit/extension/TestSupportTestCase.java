@@ -0,0 +1,156 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.JUnitException;
+import org.wildfly.testing.junit.extension.annotation.DeploymentProducer;
+import org.wildfly.testing.junit.extension.annotation.GenerateDeployment;
+
+/**
+ * Tests finding the deployment methods of a test class and the order of the archives they create.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class TestSupportTestCase {
+
+    @Test
+    public void enabled() {
+        Assertions.assertFalse(TestSupport.isEnabled(parameters(Map.of()), "flag"));
+        Assertions.assertTrue(TestSupport.isEnabled(parameters(Map.of("flag", "")), "flag"));
+        Assertions.assertTrue(TestSupport.isEnabled(parameters(Map.of("flag", "true")), "flag"));
+        Assertions.assertTrue(TestSupport.isEnabled(parameters(Map.of("flag", "TRUE")), "flag"));
+        Assertions.assertFalse(TestSupport.isEnabled(parameters(Map.of("flag", "false")), "flag"));
+        Assertions.assertFalse(TestSupport.isEnabled(parameters(Map.of("flag", "yes")), "flag"));
+        Assertions.assertFalse(TestSupport.isEnabled(parameters(Map.of("other", "true")), "flag"));
+    }
+
+    @Test
+    public void deploymentOrder() {
+        final List<TestSupport.TestDeployment> deployments = findDeployments(OrderedProducers.class);
+        Assertions.assertEquals(List.of("first.jar", "a.war", "b.war", "second.jar", "third.jar"), deployments.stream()
+                .map(deployment -> deployment.archive().getName())
+                .toList());
+        Assertions.assertEquals("first", deployments.get(0).method().getName());
+        Assertions.assertEquals("collection", deployments.get(1).method().getName());
+        Assertions.assertEquals("collection", deployments.get(2).method().getName());
+    }
+
+    @Test
+    public void generateDeployment() {
+        final List<TestSupport.TestDeployment> deployments = findDeployments(GeneratedDeployment.class);
+        Assertions.assertEquals(1, deployments.size());
+        Assertions.assertEquals(GeneratedDeployment.class.getSimpleName() + ".war",
+                deployments.get(0).archive().getName());
+        Assertions.assertTrue(deployments.get(0).archive().contains("index.html"));
+    }
+
+    @Test
+    public void noDeployments() {
+        Assertions.assertTrue(findDeployments(TestSupportTestCase.class).isEmpty());
+    }
+
+    @Test
+    public void duplicateNames() {
+        Assertions.assertThrows(JUnitException.class, () -> findDeployments(DuplicateNames.class));
+    }
+
+    @Test
+    public void mixedDeploymentMethods() {
+        Assertions.assertThrows(JUnitException.class, () -> findDeployments(MixedDeploymentMethods.class));
+    }
+
+    @Test
+    public void nullDeployment() {
+        Assertions.assertThrows(JUnitException.class, () -> findDeployments(NullDeployment.class));
+    }
+
+    private static List<TestSupport.TestDeployment> findDeployments(final Class<?> testClass) {
+        return TestSupport.findDeployments(testClass, TestSupport.createTestInfo(testClass.getSimpleName(), Set.of(),
+                testClass));
+    }
+
+    private static Function<String, Optional<String>> parameters(final Map<String, String> parameters) {
+        return (key) -> Optional.ofNullable(parameters.get(key));
+    }
+
+    public static class OrderedProducers {
+
+        @DeploymentProducer(order = 2)
+        public static JavaArchive third() {
+            return ShrinkWrap.create(JavaArchive.class, "third.jar");
+        }
+
+        // Methods with the same order are deployed in the order of their names
+        @DeploymentProducer(order = 1)
+        public static JavaArchive second() {
+            return ShrinkWrap.create(JavaArchive.class, "second.jar");
+        }
+
+        @DeploymentProducer(order = 1)
+        public static List<Archive<?>> collection() {
+            return List.of(ShrinkWrap.create(WebArchive.class, "a.war"), ShrinkWrap.create(WebArchive.class, "b.war"));
+        }
+
+        @DeploymentProducer
+        public static JavaArchive first() {
+            return ShrinkWrap.create(JavaArchive.class, "first.jar");
+        }
+    }
+
+    public static class GeneratedDeployment {
+
+        @GenerateDeployment
+        public static void deployment(final WebArchive archive) {
+            archive.addAsWebResource(new StringAsset("index"), "index.html");
+        }
+    }
+
+    public static class DuplicateNames {
+
+        @DeploymentProducer
+        public static JavaArchive first() {
+            return ShrinkWrap.create(JavaArchive.class, "test.jar");
+        }
+
+        @DeploymentProducer
+        public static JavaArchive second() {
+            return ShrinkWrap.create(JavaArchive.class, "test.jar");
+        }
+    }
+
+    public static class MixedDeploymentMethods {
+
+        @GenerateDeployment
+        public static void generate(final WebArchive archive) {
+        }
+
+        @DeploymentProducer
+        public static JavaArchive produce() {
+            return ShrinkWrap.create(JavaArchive.class, "test.jar");
+        }
+    }
+
+    public static class NullDeployment {
+
+        @DeploymentProducer
+        public static JavaArchive produce() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension;
+
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.wildfly.testing.junit.extension.annotation.ServerResource;
+
+/**
+ * Tests the types which the {@link UriProducer} injects.
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+public class UriProducerTestCase {
+
+    @Test
+    public void canInject() throws Exception {
+        final ExtensionContext context = TestExtensionContext.of(TestExtensionContext.of(Map.of()),
+                InjectionPoints.class);
+        final UriProducer producer = new UriProducer();
+        Assertions.assertTrue(canInject(producer, context, "uri"));
+        Assertions.assertTrue(canInject(producer, context, "uris"));
+        Assertions.assertTrue(producer.canInject(context, URI.class));
+
+        // Only a Map<String, URI> annotated with @ServerResource is injected
+        Assertions.assertFalse(canInject(producer, context, "notAnnotated"));
+        Assertions.assertFalse(canInject(producer, context, "stringValues"));
+        Assertions.assertFalse(canInject(producer, context, "uriKeys"));
+        Assertions.assertFalse(canInject(producer, context, "rawMap"));
+        Assertions.assertFalse(producer.canInject(context, Map.class,
+                InjectionPoints.class.getDeclaredField("uris").getAnnotations()));
+        Assertions.assertFalse(canInject(producer, context, "string"));
+    }
+
+    @Test
+    public void produceMap() throws Exception {
+        final ExtensionContext context = TestExtensionContext.of(TestExtensionContext.of(Map.of()),
+                InjectionPoints.class);
+        final UriProducer producer = new UriProducer();
+        // Without a server there are no deployments to resolve the URIs of
+        Assertions.assertEquals(Map.of(), producer.produce(context, Map.class,
+                InjectionPoints.class.getDeclaredField("uris").getAnnotations()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> producer.produce(context, Map.class));
+    }
+
+    private static boolean canInject(final UriProducer producer, final ExtensionContext context, final String name)
+            throws NoSuchFieldException {
+        final Field field = InjectionPoints.class.getDeclaredField(name);
+        return producer.canInject(context, field.getGenericType(), field.getAnnotations());
+    }
+
+    @SuppressWarnings({ "unused", "rawtypes" })
+    private static class InjectionPoints {
+        @ServerResource
+        private URI uri;
+
+        @ServerResource
+        private Map<String, URI> uris;
+
+        private Map<String, URI> notAnnotated;
+
+        @ServerResource
+        private Map<String, String> stringValues;
+
+        @ServerResource
+        private Map<URI, URI> uriKeys;
+
+        @ServerResource
+        private Map rawMap;
+
+        @ServerResource
+        private String string;
+    }
+}
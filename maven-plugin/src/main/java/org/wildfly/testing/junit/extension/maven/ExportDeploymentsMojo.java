@@ -0,0 +1,156 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.testing.junit.extension.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Exports the deployments of the test classes at build time. The exported archives are deployed by the
+ * {@code wildfly-junit-extension} instead of invoking the deployment methods when the test class executes, as long as
+ * the classes have not changed since the archives were exported. Set the {@code wildfly.deployment.prebuilt}
+ * configuration parameter of the tests to the output directory to use the exported archives.
+ * <p>
+ * The test classes are loaded from the test class path of the project, which must include the
+ * {@code wildfly-junit-extension}. The deployments are exported by the version of the extension on the test class
+ * path, so the archives are always exported the same way the extension would export them.
+ * </p>
+ * <p>
+ * The manifest records a fingerprint of the whole test class path, including the dependencies. If a dependency
+ * changes, for example a new snapshot of a module with test fixtures, the exported archives are no longer used.
+ * </p>
+ *
+ * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
+ */
+@Mojo(name = "export-deployments", defaultPhase = LifecyclePhase.PROCESS_TEST_CLASSES,
+        requiresDependencyResolution = ResolutionScope.TEST, threadSafe = true)
+public class ExportDeploymentsMojo extends AbstractMojo {
+    private static final String EXPORTER_CLASS = "org.wildfly.testing.junit.extension.DeploymentExporter";
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * The directory the archives and the manifest describing them are written to.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/wildfly-deployments",
+            property = "wildfly.deployment.prebuilt", required = true)
+    private File outputDirectory;
+
+    /**
+     * The class directories scanned for test classes. The manifest records a fingerprint of these directories. If any
+     * file in them changes, the exported archives are no longer used. Defaults to the test output directory and the
+     * output directory of the project.
+     */
+    @Parameter
+    private List<File> classDirectories;
+
+    /**
+     * The JUnit configuration parameters used to export the archives, for example {@code wildfly.archive.compression}.
+     * These take precedence over the system properties and the {@code junit-platform.properties} file of the test
+     * class path, which are used the same as when the tests execute. Set the same parameters configured for the tests
+     * in the test plugin, if any.
+     */
+    @Parameter
+    private Map<String, String> configurationParameters;
+
+    /**
+     * Skips exporting the deployments.
+     */
+    @Parameter(defaultValue = "false", property = "wildfly.deployment.export.skip")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping exporting the deployments.");
+            return;
+        }
+        final List<Path> directories = new ArrayList<>();
+        if (classDirectories == null || classDirectories.isEmpty()) {
+            directories.add(Path.of(project.getBuild().getTestOutputDirectory()));
+            directories.add(Path.of(project.getBuild().getOutputDirectory()));
+        } else {
+            classDirectories.forEach(dir -> directories.add(dir.toPath()));
+        }
+        if (directories.stream().noneMatch(Files::exists)) {
+            getLog().info("No class directories found, no deployments to export.");
+            return;
+        }
+        final Thread thread = Thread.currentThread();
+        final ClassLoader current = thread.getContextClassLoader();
+        final List<Path> classPath = getTestClassPath();
+        try (URLClassLoader classLoader = createClassLoader(classPath)) {
+            final Method export;
+            try {
+                export = classLoader.loadClass(EXPORTER_CLASS)
+                        .getDeclaredMethod("export", Path.class, List.class, List.class, Map.class, ClassLoader.class);
+                export.setAccessible(true);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                throw new MojoExecutionException(
+                        "The test class path does not include a compatible version of the wildfly-junit-extension.", e);
+            }
+            thread.setContextClassLoader(classLoader);
+            final int exported = (int) export.invoke(null, outputDirectory.toPath().toAbsolutePath().normalize(),
+                    directories.stream()
+                            .map(dir -> dir.toAbsolutePath().normalize())
+                            .toList(),
+                    classPath,
+                    configurationParameters == null ? Map.of() : Map.copyOf(configurationParameters),
+                    classLoader);
+            getLog().info("Exported the deployments of %d test classes to %s".formatted(exported, outputDirectory));
+        } catch (InvocationTargetException e) {
+            throw new MojoExecutionException("Failed to export the deployments to %s".formatted(outputDirectory),
+                    e.getCause());
+        } catch (IllegalAccessException | IOException e) {
+            throw new MojoExecutionException("Failed to export the deployments to %s".formatted(outputDirectory), e);
+        } finally {
+            thread.setContextClassLoader(current);
+        }
+    }
+
+    private List<Path> getTestClassPath() throws MojoExecutionException {
+        try {
+            return project.getTestClasspathElements().stream()
+                    .map(element -> Path.of(element).toAbsolutePath().normalize())
+                    .toList();
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoExecutionException("Failed to resolve the test class path", e);
+        }
+    }
+
+    private static URLClassLoader createClassLoader(final List<Path> classPath) throws MojoExecutionException {
+        final List<URL> urls = new ArrayList<>();
+        try {
+            for (Path element : classPath) {
+                urls.add(element.toUri().toURL());
+            }
+        } catch (MalformedURLException e) {
+            throw new MojoExecutionException("Failed to resolve the test class path", e);
+        }
+        // The platform class loader is the parent, so the classes of Maven and this plugin are not visible to the tests
+        return new URLClassLoader(urls.toArray(URL[]::new), ClassLoader.getPlatformClassLoader());
+    }
+}
@@ -15,13 +15,18 @@ import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.xml.stream.XMLStreamException;
 
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.Node;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
 import org.jboss.shrinkwrap.api.asset.Asset;
 import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.api.exporter.ZipStoredExporter;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.wildfly.testing.tools.xml.CloseableXMLStreamWriter;
 
@@ -30,6 +35,12 @@ import org.wildfly.testing.tools.xml.CloseableXMLStreamWriter;
  * <p>
  * This will create a JAR based on the classes and generate a module.xml file.
  * </p>
+ * <p>
+ * By default, the JAR files are compressed. Setting the {@code wildfly.archive.compression} system property to
+ * {@code stored} writes the entries uncompressed, which is faster for the small JAR files typically created for tests.
+ * The entries of archives nested in the JAR files are stored uncompressed as well. This can be overridden for a single
+ * module with {@link #compressed(boolean)}.
+ * </p>
  *
  * @author <a href="mailto:jperkins@ibm.com">James R. Perkins</a>
  */
@@ -42,6 +53,7 @@ public class ModuleBuilder {
     private final Set<String> resourcePaths;
     private final Set<JavaArchive> resources;
     private final Set<ModuleDependency> dependencies;
+    private boolean compressed;
 
     private ModuleBuilder(final String name, final JavaArchive jar, final Path modulePath) {
         this.name = name;
@@ -50,6 +62,7 @@ public class ModuleBuilder {
         dependencies = new LinkedHashSet<>();
         resources = new LinkedHashSet<>();
         this.resourcePaths = new LinkedHashSet<>();
+        this.compressed = !"stored".equalsIgnoreCase(System.getProperty("wildfly.archive.compression"));
     }
 
     private ModuleBuilder(final String name, final String archiveName, final Path modulePath) {
@@ -349,6 +362,19 @@ public class ModuleBuilder {
         return this;
     }
 
+    /**
+     * Sets whether the JAR files for the module should be compressed. If set to {@code false} the entries are stored
+     * uncompressed. The default is defined by the {@code wildfly.archive.compression} system property.
+     *
+     * @param compressed {@code true} to compress the JAR files, {@code false} to store the entries uncompressed
+     *
+     * @return this builder
+     */
+    public ModuleBuilder compressed(final boolean compressed) {
+        this.compressed = compressed;
+        return this;
+    }
+
     /**
      * Creates the module by:
      * <ul>
@@ -402,7 +428,7 @@ public class ModuleBuilder {
                 try (
                         OutputStream out = Files.newOutputStream(moduleDir.resolve(resource.getName()),
                                 StandardOpenOption.CREATE_NEW)) {
-                    resource.as(ZipExporter.class).exportTo(out);
+                    export(resource, out);
                 }
             }
             writer.writeEndElement();
@@ -468,7 +494,30 @@ public class ModuleBuilder {
 
         // Create the JAR
         try (OutputStream out = Files.newOutputStream(moduleDir.resolve(jar.getName()), StandardOpenOption.CREATE_NEW)) {
-            jar.as(ZipExporter.class).exportTo(out);
+            export(jar, out);
+        }
+    }
+
+    private void export(final JavaArchive archive, final OutputStream out) {
+        if (compressed) {
+            archive.as(ZipExporter.class).exportTo(out);
+        } else {
+            storeNestedArchives(archive);
+            archive.as(ZipStoredExporter.class).exportTo(out);
+        }
+    }
+
+    /**
+     * ShrinkWrap exports nested archives with the {@link ZipExporter}, regardless of the exporter of the archive, so
+     * the nested archives are replaced with ones exported with the {@link ZipStoredExporter}.
+     */
+    private static void storeNestedArchives(final Archive<?> archive) {
+        for (Node node : List.copyOf(archive.getContent().values())) {
+            if (node.getAsset() instanceof ArchiveAsset asset) {
+                storeNestedArchives(asset.getArchive());
+                archive.delete(node.getPath());
+                archive.add(new ArchiveAsset(asset.getArchive(), ZipStoredExporter.class), node.getPath());
+            }
         }
     }
 
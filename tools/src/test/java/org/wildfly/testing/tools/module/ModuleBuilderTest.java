@@ -12,13 +12,18 @@ import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
 import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -61,6 +66,39 @@ public class ModuleBuilderTest {
         assertDeleted(moduleDescription);
     }
 
+    @Test
+    public void storedModule(final TestInfo testInfo) throws Exception {
+        final JavaArchive nested = ShrinkWrap.create(JavaArchive.class, "nested.jar")
+                .addManifest();
+        final JavaArchive jar = ShrinkWrap.create(JavaArchive.class, "simple.jar")
+                .addManifest()
+                .add(new ArchiveAsset(nested, ZipExporter.class), "lib/nested.jar");
+        final ModuleDescription moduleDescription = ModuleBuilder.of(createModuleName(testInfo))
+                .addManifestResource(EmptyAsset.INSTANCE, "beans.xml")
+                .addClass(ModuleBuilderTest.class)
+                .addResource(jar)
+                .compressed(false)
+                .build();
+        Assertions.assertNotNull(moduleDescription);
+        assertStored(moduleDescription.modulePath().resolve("test-module.jar"));
+        assertStored(moduleDescription.modulePath().resolve("simple.jar"));
+        // Nested archives are exported with the ZipExporter by default, their entries should be stored as well
+        final Path nestedJar = Files.createTempFile("nested", ".jar");
+        try {
+            try (ZipFile zipFile = new ZipFile(moduleDescription.modulePath().resolve("simple.jar").toFile())) {
+                final ZipEntry entry = zipFile.getEntry("lib/nested.jar");
+                Assertions.assertNotNull(entry, "Could not find lib/nested.jar");
+                try (var in = zipFile.getInputStream(entry)) {
+                    Files.copy(in, nestedJar, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            assertStored(nestedJar);
+        } finally {
+            Files.deleteIfExists(nestedJar);
+        }
+        assertDeleted(moduleDescription);
+    }
+
     @Test
     public void resourcePathModule(final TestInfo testInfo) throws Exception {
         final ModuleDescription moduleDescription = ModuleBuilder.of(createModuleName(testInfo))
@@ -260,6 +298,19 @@ public class ModuleBuilderTest {
         }
     }
 
+    private static void assertStored(final Path jarFile) throws IOException {
+        Assertions.assertTrue(Files.exists(jarFile), () -> "JAR %s does not exist".formatted(jarFile));
+        try (ZipFile zipFile = new ZipFile(jarFile.toFile())) {
+            final var entries = zipFile.entries();
+            Assertions.assertTrue(entries.hasMoreElements(), () -> "JAR %s has no entries".formatted(jarFile));
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                Assertions.assertEquals(ZipEntry.STORED, entry.getMethod(),
+                        () -> "Entry %s in %s should be stored uncompressed".formatted(entry.getName(), jarFile));
+            }
+        }
+    }
+
     private static void assertRecursiveDelete(final Path path) {
         Assertions.assertNotNull(path);
         if (path.equals(ModuleEnvironment.BASE_MODULE_DIR)) {